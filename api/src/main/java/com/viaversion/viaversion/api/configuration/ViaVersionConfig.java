@@ -28,6 +28,7 @@ import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.minecraft.WorldIdentifiers;
 import com.viaversion.viaversion.api.protocol.version.BlockedProtocolVersions;
 import it.unimi.dsi.fastutil.ints.IntSet;
+import java.util.Map;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public interface ViaVersionConfig extends Config {
@@ -186,6 +187,13 @@ public interface ViaVersionConfig extends Config {
      */
     String getMaxWarningsKickMessage();
 
+    /**
+     * Returns the weights of expensive serverbound play packets, being how many packets each of them counts as for the max pps.
+     *
+     * @return packet weights keyed by serverbound packet type name of the client's version
+     */
+    Map<String, Integer> getPacketWeights();
+
     /**
      * Send supported versions in the status response packet
      *
@@ -305,6 +313,29 @@ public interface ViaVersionConfig extends Config {
      */
     boolean isSuppressConversionWarnings();
 
+    /**
+     * Should mapping data only be loaded at startup for protocols that can be part of a pipeline to the server version?
+     * Mappings of all other protocols are loaded when a connection first needs them.
+     *
+     * @return true if enabled
+     */
+    boolean isLazyLoadMappings();
+
+    /**
+     * Should loaded mappings be stored in direct buffers outside the Java heap?
+     *
+     * @return true if enabled
+     */
+    boolean isOffHeapMappings();
+
+    /**
+     * Should large clientbound packets only going through connection independent rewriters (e.g. tags, recipes,
+     * commands, and advancements) be transformed once and reused for players with the same server and client version?
+     *
+     * @return true if enabled
+     */
+    boolean isMemoizeJoinPackets();
+
     /**
      * Should we disable the 1.13 auto-complete feature to stop spam kicks? (for any server lower than 1.13)
      *
@@ -457,6 +488,14 @@ public interface ViaVersionConfig extends Config {
      */
     boolean cache1_17Light();
 
+    /**
+     * Returns the memory budget in megabytes of the light cache shared between all 1.18 players on 1.17 servers.
+     * Identical light data of different players is only stored once, unused entries are evicted least recently used first.
+     *
+     * @return memory budget in megabytes, 0 if light data should not be shared
+     */
+    int getShared1_17LightCacheSize();
+
     /**
      * Force-update 1.19.4+ player's inventory when they try to swap armor in a pre-occupied slot.
      *
@@ -170,6 +170,17 @@ public interface UserConnection {
      */
     boolean checkServerboundPacket();
 
+    /**
+     * Monitors a serverbound packet and returns whether it can/should be processed.
+     * Its packet id is only read if packet weights have been set in the {@link #getPacketTracker()}.
+     *
+     * @param packet serverbound packet starting with its packet id, with the reader index left unchanged
+     * @return false if this packet should be cancelled
+     */
+    default boolean checkServerboundPacket(ByteBuf packet) {
+        return checkServerboundPacket();
+    }
+
     /**
      * Monitors clientbound packets and returns whether a packet can/should be processed.
      *
@@ -185,6 +196,14 @@ public interface UserConnection {
         return isClientSide() ? checkClientboundPacket() : checkServerboundPacket();
     }
 
+    /**
+     * @see #checkClientboundPacket()
+     * @see #checkServerboundPacket(ByteBuf)
+     */
+    default boolean checkIncomingPacket(ByteBuf packet) {
+        return isClientSide() ? checkClientboundPacket() : checkServerboundPacket(packet);
+    }
+
     /**
      * @see #checkClientboundPacket()
      * @see #checkServerboundPacket()
@@ -223,6 +242,52 @@ public interface UserConnection {
      */
     void transformServerbound(ByteBuf buf, Function<Throwable, Exception> cancelSupplier) throws Exception;
 
+    /**
+     * Transforms the clientbound packet contained in ByteBuf into a separate buffer, copying the packet data at most once.
+     * Unlike {@link #transformClientbound(ByteBuf, Function)}, cancelled packets are signalled by returning null instead of throwing an exception.
+     *
+     * @param buf ByteBuf with packet id and packet contents, its reader index is moved during transformation
+     * @return buffer with the transformed packet to be released by the caller, possibly the retained input buffer or a view of it, or null if the packet was cancelled
+     * @throws InformativeException if packet transforming failed
+     * @throws Exception            if any other processing outside of transforming fails
+     */
+    default @Nullable ByteBuf transformClientboundToBuffer(ByteBuf buf) throws Exception {
+        // Fallback for implementations only providing the in-place transformation
+        final ByteBuf copy = buf.alloc().buffer(buf.readableBytes());
+        try {
+            copy.writeBytes(buf);
+            transformClientbound(copy, cause -> CancelException.generate());
+            return copy.retain();
+        } catch (final CancelException e) {
+            return null;
+        } finally {
+            copy.release();
+        }
+    }
+
+    /**
+     * Transforms the serverbound packet contained in ByteBuf into a separate buffer, copying the packet data at most once.
+     * Unlike {@link #transformServerbound(ByteBuf, Function)}, cancelled packets are signalled by returning null instead of throwing an exception.
+     *
+     * @param buf ByteBuf with packet id and packet contents, its reader index is moved during transformation
+     * @return buffer with the transformed packet to be released by the caller, possibly the retained input buffer or a view of it, or null if the packet was cancelled
+     * @throws InformativeException if packet transforming failed
+     * @throws Exception            if any other processing outside of transforming fails
+     */
+    default @Nullable ByteBuf transformServerboundToBuffer(ByteBuf buf) throws Exception {
+        // Fallback for implementations only providing the in-place transformation
+        final ByteBuf copy = buf.alloc().buffer(buf.readableBytes());
+        try {
+            copy.writeBytes(buf);
+            transformServerbound(copy, cause -> CancelException.generate());
+            return copy.retain();
+        } catch (final CancelException e) {
+            return null;
+        } finally {
+            copy.release();
+        }
+    }
+
     /**
      * Transforms the packet depending on whether the connection is clientside or not.
      *
@@ -237,6 +302,26 @@ public interface UserConnection {
         }
     }
 
+    /**
+     * Transforms the packet into a separate buffer depending on whether the connection is clientside or not.
+     *
+     * @see #transformClientboundToBuffer(ByteBuf)
+     * @see #transformServerboundToBuffer(ByteBuf)
+     */
+    default @Nullable ByteBuf transformOutgoingToBuffer(ByteBuf buf) throws Exception {
+        return isClientSide() ? transformServerboundToBuffer(buf) : transformClientboundToBuffer(buf);
+    }
+
+    /**
+     * Transforms the packet into a separate buffer depending on whether the connection is clientside or not.
+     *
+     * @see #transformClientboundToBuffer(ByteBuf)
+     * @see #transformServerboundToBuffer(ByteBuf)
+     */
+    default @Nullable ByteBuf transformIncomingToBuffer(ByteBuf buf) throws Exception {
+        return isClientSide() ? transformClientboundToBuffer(buf) : transformServerboundToBuffer(buf);
+    }
+
     /**
      * Transforms the packet depending on whether the connection is clientside or not.
      *
@@ -40,8 +40,8 @@ public class FullMappingsBase implements FullMappings {
         this.mappings = mappings;
         this.stringToId = toInverseMap(unmappedIdentifiers);
         this.mappedStringToId = toInverseMap(mappedIdentifiers);
-        this.idToString = unmappedIdentifiers.toArray(EMPTY_ARRAY);
-        this.mappedIdToString = mappedIdentifiers.toArray(EMPTY_ARRAY);
+        this.idToString = toArray(unmappedIdentifiers);
+        this.mappedIdToString = toArray(mappedIdentifiers);
     }
 
     private FullMappingsBase(final Object2IntMap<String> stringToId, final Object2IntMap<String> mappedStringToId, final String[] idToString, final String[] mappedIdToString, final Mappings mappings) {
@@ -110,7 +110,18 @@ public class FullMappingsBase implements FullMappings {
         return new FullMappingsBase(mappedStringToId, stringToId, mappedIdToString, idToString, mappings.inverse());
     }
 
+    private static String[] toArray(final List<String> list) {
+        if (list instanceof IdentifierList) {
+            return ((IdentifierList) list).array();
+        }
+        return list.toArray(EMPTY_ARRAY);
+    }
+
     private static Object2IntMap<String> toInverseMap(final List<String> list) {
+        if (list instanceof IdentifierList) {
+            return ((IdentifierList) list).ids();
+        }
+
         final Object2IntMap<String> map = new Object2IntOpenHashMap<>(list.size());
         map.defaultReturnValue(-1);
         for (int i = 0; i < list.size(); i++) {
@@ -0,0 +1,68 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.viaversion.viaversion.api.data;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable identifier list shared between all mappings loading the same identifiers, see {@link MappingDataLoader#internIdentifiers(List)}.
+ * The id lookup map is created once and shared as well.
+ */
+final class IdentifierList extends AbstractList<String> implements RandomAccess {
+
+    private final String[] identifiers;
+    private final Object2IntMap<String> ids;
+
+    IdentifierList(final List<String> identifiers) {
+        this.identifiers = new String[identifiers.size()];
+        this.ids = new Object2IntOpenHashMap<>(identifiers.size());
+        this.ids.defaultReturnValue(-1);
+        for (int i = 0; i < this.identifiers.length; i++) {
+            final String identifier = identifiers.get(i).intern();
+            this.identifiers[i] = identifier;
+            this.ids.put(identifier, i);
+        }
+    }
+
+    @Override
+    public String get(final int index) {
+        return identifiers[index];
+    }
+
+    @Override
+    public int size() {
+        return identifiers.length;
+    }
+
+    String[] array() {
+        return identifiers;
+    }
+
+    Object2IntMap<String> ids() {
+        return ids;
+    }
+}
@@ -25,8 +25,9 @@ package com.viaversion.viaversion.api.data;
 import java.util.Arrays;
 
 public class IntArrayMappings implements Mappings {
-    private final int[] mappings;
     private final int mappedIds;
+    private int[] mappings;
+    private boolean shared;
 
     protected IntArrayMappings(final int[] mappings, final int mappedIds) {
         this.mappings = mappings;
@@ -37,6 +38,19 @@ public class IntArrayMappings implements Mappings {
         return new IntArrayMappings(mappings, mappedIds);
     }
 
+    /**
+     * Returns mappings backed by an array that may be shared with other mappings. The array is copied before the first modification.
+     *
+     * @param mappings  shared mappings array
+     * @param mappedIds amount of mapped ids
+     * @return mappings backed by the shared array
+     */
+    static IntArrayMappings ofShared(final int[] mappings, final int mappedIds) {
+        final IntArrayMappings intArrayMappings = new IntArrayMappings(mappings, mappedIds);
+        intArrayMappings.shared = true;
+        return intArrayMappings;
+    }
+
     @Override
     public int getNewId(int id) {
         return id >= 0 && id < mappings.length ? mappings[id] : -1;
@@ -44,6 +58,10 @@ public class IntArrayMappings implements Mappings {
 
     @Override
     public void setNewId(int id, int mappedId) {
+        if (shared) {
+            mappings = mappings.clone();
+            shared = false;
+        }
         mappings[id] = mappedId;
     }
 
@@ -29,12 +29,14 @@ import com.github.steveice10.opennbt.tag.builtin.Tag;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.minecraft.RegistryType;
 import com.viaversion.viaversion.api.minecraft.TagData;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class MappingDataBase implements MappingData {
@@ -66,7 +68,25 @@ public class MappingDataBase implements MappingData {
             getLogger().info("Loading " + unmappedVersion + " -> " + mappedVersion + " mappings...");
         }
 
-        final CompoundTag data = readNBTFile("mappings-" + unmappedVersion + "to" + mappedVersion + ".nbt");
+        final String mappingsFileName = "mappings-" + unmappedVersion + "to" + mappedVersion + ".nbt";
+        final File snapshotFile = snapshotFile();
+        byte[] sourceHash = null;
+        if (snapshotFile != null) {
+            try {
+                // Plugin versions alone do not cover development builds and forks with changed mappings
+                sourceHash = MappingSnapshot.resourceHash(mappingsFileName, "identifiers-" + unmappedVersion + ".nbt", "identifiers-" + mappedVersion + ".nbt");
+                final MappingSnapshot snapshot = MappingSnapshot.read(snapshotFile, Via.getPlatform().getPluginVersion(), sourceHash);
+                if (snapshot != null) {
+                    loadSnapshot(snapshot);
+                    loadExtras(null);
+                    return;
+                }
+            } catch (final IOException | RuntimeException e) {
+                getLogger().log(Level.WARNING, "Failed to read mapping snapshot " + snapshotFile.getName() + ", loading mappings from scratch", e);
+            }
+        }
+
+        final CompoundTag data = readNBTFile(mappingsFileName);
         blockMappings = loadMappings(data, "blocks");
         blockStateMappings = loadMappings(data, "blockstates");
         blockEntityMappings = loadMappings(data, "blockentities");
@@ -77,6 +97,7 @@ public class MappingDataBase implements MappingData {
         paintingMappings = loadMappings(data, "paintings");
         itemMappings = loadBiMappings(data, "items");
 
+        final MappingSnapshot snapshot = sourceHash != null ? new MappingSnapshot() : null;
         final CompoundTag unmappedIdentifierData = MappingDataLoader.loadNBT("identifiers-" + unmappedVersion + ".nbt", true);
         final CompoundTag mappedIdentifierData = MappingDataLoader.loadNBT("identifiers-" + mappedVersion + ".nbt", true);
         if (unmappedIdentifierData != null && mappedIdentifierData != null) {
@@ -91,9 +112,18 @@ public class MappingDataBase implements MappingData {
                     particleMappings = new IdentityMappings(unmappedParticles.size(), mappedParticles.size());
                 }
 
-                final List<String> identifiers = unmappedParticles.getValue().stream().map(t -> (String) t.getValue()).collect(Collectors.toList());
-                final List<String> mappedIdentifiers = mappedParticles.getValue().stream().map(t -> (String) t.getValue()).collect(Collectors.toList());
+                final List<String> identifiers = MappingDataLoader.identifiers(unmappedParticles);
+                final List<String> mappedIdentifiers = MappingDataLoader.identifiers(mappedParticles);
                 this.particleMappings = new ParticleMappings(identifiers, mappedIdentifiers, particleMappings);
+                if (snapshot != null) {
+                    snapshot.addMappings("particles", particleMappings);
+                    snapshot.addIdentifiers("particles", identifiers, mappedIdentifiers);
+                }
+            }
+
+            if (snapshot != null) {
+                addSnapshotIdentifiers(snapshot, unmappedIdentifierData, mappedIdentifierData, "entities", entityMappings);
+                addSnapshotIdentifiers(snapshot, unmappedIdentifierData, mappedIdentifierData, "argumenttypes", argumentTypeMappings);
             }
         }
 
@@ -104,9 +134,111 @@ public class MappingDataBase implements MappingData {
             loadTags(RegistryType.BLOCK, tagsTag);
         }
 
+        if (snapshot != null) {
+            // Written before loadExtras, which may still apply config dependent changes to the mappings
+            writeSnapshot(snapshot, snapshotFile, sourceHash);
+        }
+
         loadExtras(data);
     }
 
+    /**
+     * Returns whether the expanded mappings may be cached in a binary snapshot to be loaded on the next start.
+     * Subclasses have to override this if they support being loaded without the raw mapping data in {@link #loadExtras(CompoundTag)}.
+     *
+     * @return whether the mappings may be loaded from a snapshot
+     */
+    protected boolean supportsSnapshot() {
+        return getClass() == MappingDataBase.class;
+    }
+
+    private @Nullable File snapshotFile() {
+        if (!supportsSnapshot()) {
+            return null;
+        }
+
+        final File dataFolder = Via.getPlatform().getDataFolder();
+        return dataFolder != null ? new File(dataFolder, "cache/mappings-" + unmappedVersion + "to" + mappedVersion + ".bin") : null;
+    }
+
+    private void loadSnapshot(final MappingSnapshot snapshot) {
+        blockMappings = snapshot.mappings("blocks");
+        blockStateMappings = snapshot.mappings("blockstates");
+        blockEntityMappings = snapshot.mappings("blockentities");
+        soundMappings = snapshot.mappings("sounds");
+        statisticsMappings = snapshot.mappings("statistics");
+        menuMappings = snapshot.mappings("menus");
+        enchantmentMappings = snapshot.mappings("enchantments");
+        paintingMappings = snapshot.mappings("paintings");
+
+        final Mappings items = snapshot.mappings("items");
+        itemMappings = items != null ? BiMappings.of(items) : null;
+        entityMappings = snapshotFullMappings(snapshot, "entities");
+        argumentTypeMappings = snapshotFullMappings(snapshot, "argumenttypes");
+
+        final Mappings particles = snapshot.mappings("particles");
+        final List<String> unmappedParticles = snapshot.unmappedIdentifiers("particles");
+        final List<String> mappedParticles = snapshot.mappedIdentifiers("particles");
+        if (particles != null && unmappedParticles != null && mappedParticles != null) {
+            particleMappings = new ParticleMappings(unmappedParticles, mappedParticles, particles);
+        }
+
+        if (snapshot.hasTags()) {
+            this.tags = new EnumMap<>(RegistryType.class);
+            for (final RegistryType type : RegistryType.getValues()) {
+                final List<TagData> tags = snapshot.tags(type);
+                if (tags != null) {
+                    this.tags.put(type, tags);
+                }
+            }
+        }
+    }
+
+    private @Nullable FullMappings snapshotFullMappings(final MappingSnapshot snapshot, final String key) {
+        final Mappings mappings = snapshot.mappings(key);
+        final List<String> unmappedIdentifiers = snapshot.unmappedIdentifiers(key);
+        final List<String> mappedIdentifiers = snapshot.mappedIdentifiers(key);
+        if (mappings == null || unmappedIdentifiers == null || mappedIdentifiers == null) {
+            return null;
+        }
+        return new FullMappingsBase(unmappedIdentifiers, mappedIdentifiers, mappings);
+    }
+
+    private void addSnapshotIdentifiers(final MappingSnapshot snapshot, final CompoundTag unmappedIdentifierData,
+                                        final CompoundTag mappedIdentifierData, final String key, @Nullable final FullMappings mappings) {
+        final ListTag unmappedElements = unmappedIdentifierData.get(key);
+        final ListTag mappedElements = mappedIdentifierData.get(key);
+        if (mappings == null || unmappedElements == null || mappedElements == null) {
+            return;
+        }
+
+        snapshot.addMappings(key, mappings);
+        snapshot.addIdentifiers(key, MappingDataLoader.identifiers(unmappedElements), MappingDataLoader.identifiers(mappedElements));
+    }
+
+    private void writeSnapshot(final MappingSnapshot snapshot, final File file, final byte[] sourceHash) {
+        snapshot.addMappings("blocks", blockMappings);
+        snapshot.addMappings("blockstates", blockStateMappings);
+        snapshot.addMappings("blockentities", blockEntityMappings);
+        snapshot.addMappings("sounds", soundMappings);
+        snapshot.addMappings("statistics", statisticsMappings);
+        snapshot.addMappings("menus", menuMappings);
+        snapshot.addMappings("enchantments", enchantmentMappings);
+        snapshot.addMappings("paintings", paintingMappings);
+        snapshot.addMappings("items", itemMappings);
+        if (tags != null) {
+            for (final Map.Entry<RegistryType, List<TagData>> entry : tags.entrySet()) {
+                snapshot.addTags(entry.getKey(), entry.getValue());
+            }
+        }
+
+        try {
+            snapshot.write(file, Via.getPlatform().getPluginVersion(), sourceHash);
+        } catch (final IOException e) {
+            getLogger().log(Level.WARNING, "Failed to write mapping snapshot " + file.getName(), e);
+        }
+    }
+
     protected @Nullable CompoundTag readNBTFile(final String name) {
         return MappingDataLoader.loadNBT(name);
     }
@@ -251,6 +383,11 @@ public class MappingDataBase implements MappingData {
         return mappedId;
     }
 
+    /**
+     * Loads additional data after the common mappings.
+     *
+     * @param data raw mapping data, or null if the mappings were loaded from a snapshot, see {@link #supportsSnapshot()}
+     */
     protected void loadExtras(final CompoundTag data) {
     }
 }
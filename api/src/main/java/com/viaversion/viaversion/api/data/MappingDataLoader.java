@@ -46,13 +46,17 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public final class MappingDataLoader {
 
     private static final Map<String, CompoundTag> MAPPINGS_CACHE = new HashMap<>();
+    private static final Map<IntArrayKey, int[]> INTERNED_ARRAYS = new ConcurrentHashMap<>();
+    private static final Map<List<String>, IdentifierList> INTERNED_IDENTIFIERS = new ConcurrentHashMap<>();
     private static final TagReader<CompoundTag> MAPPINGS_READER = NBTIO.reader(CompoundTag.class).named();
     private static final byte DIRECT_ID = 0;
     private static final byte SHIFTS_ID = 1;
@@ -62,6 +66,9 @@ public final class MappingDataLoader {
 
     public static void clearCache() {
         MAPPINGS_CACHE.clear();
+        // Loaded mappings keep their shared arrays, but modified ones shouldn't stay pinned by their original
+        INTERNED_ARRAYS.clear();
+        INTERNED_IDENTIFIERS.clear();
         cacheValid = false;
     }
 
@@ -146,7 +153,7 @@ public final class MappingDataLoader {
             final int[] array = new int[size];
             Arrays.fill(array, -1);
             return array;
-        }, (array, id, mappedId) -> array[id] = mappedId, IntArrayMappings::of);
+        }, (array, id, mappedId) -> array[id] = mappedId, MappingDataLoader::createMappings);
     }
 
     @Beta
@@ -168,7 +175,7 @@ public final class MappingDataLoader {
         final V mappings;
         if (strategy == DIRECT_ID) {
             final IntArrayTag valuesTag = tag.get("val");
-            return IntArrayMappings.of(valuesTag.getValue(), mappedSizeTag.asInt());
+            return createMappings(valuesTag.getValue(), mappedSizeTag.asInt());
         } else if (strategy == SHIFTS_ID) {
             final IntArrayTag shiftsAtTag = tag.get("at");
             final IntArrayTag shiftsTag = tag.get("to");
@@ -238,11 +245,49 @@ public final class MappingDataLoader {
             mappings = new IdentityMappings(unmappedElements.size(), mappedElements.size());
         }
 
-        return new FullMappingsBase(
-                unmappedElements.getValue().stream().map(t -> (String) t.getValue()).collect(Collectors.toList()),
-                mappedElements.getValue().stream().map(t -> (String) t.getValue()).collect(Collectors.toList()),
-                mappings
-        );
+        return new FullMappingsBase(identifiers(unmappedElements), identifiers(mappedElements), mappings);
+    }
+
+    /**
+     * Returns the string values of the given list tag as a shared identifier list.
+     *
+     * @param tag list tag of string tags
+     * @return shared identifier list
+     * @see #internIdentifiers(List)
+     */
+    public static List<String> identifiers(final ListTag tag) {
+        return internIdentifiers(tag.getValue().stream().map(t -> (String) t.getValue()).collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns an immutable list equal to the given identifiers, shared with every other caller passing the same identifiers.
+     * Full mappings created from such a list also share their id lookup map.
+     *
+     * @param identifiers identifiers
+     * @return shared immutable identifier list
+     */
+    public static List<String> internIdentifiers(final List<String> identifiers) {
+        if (identifiers instanceof IdentifierList) {
+            return identifiers;
+        }
+        return INTERNED_IDENTIFIERS.computeIfAbsent(identifiers, IdentifierList::new);
+    }
+
+    /**
+     * Creates mappings from the given array. Identical arrays loaded for different versions are only kept once, being
+     * copied on the first modification. If enabled in the config, the mappings are stored off-heap instead.
+     *
+     * @param mappings  mappings array, which must not be modified afterwards
+     * @param mappedIds amount of mapped ids
+     * @return mappings backed by the given or an identical array
+     */
+    public static Mappings createMappings(final int[] mappings, final int mappedIds) {
+        if (Via.getConfig().isOffHeapMappings()) {
+            return IntBufferMappings.of(mappings, mappedIds);
+        }
+
+        final int[] interned = INTERNED_ARRAYS.computeIfAbsent(new IntArrayKey(mappings), key -> key.array);
+        return IntArrayMappings.ofShared(interned, mappedIds);
     }
 
     /**
@@ -279,6 +324,29 @@ public final class MappingDataLoader {
         return MappingDataLoader.class.getClassLoader().getResourceAsStream("assets/viaversion/data/" + name);
     }
 
+    private static final class IntArrayKey {
+        private final int[] array;
+        private final int hashCode;
+
+        private IntArrayKey(final int[] array) {
+            this.array = array;
+            this.hashCode = Arrays.hashCode(array);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final IntArrayKey that = (IntArrayKey) o;
+            return hashCode == that.hashCode && Arrays.equals(array, that.array);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     @FunctionalInterface
     public interface AddConsumer<T> {
 
@@ -0,0 +1,352 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.viaversion.viaversion.api.data;
+
+import com.viaversion.viaversion.api.minecraft.RegistryType;
+import com.viaversion.viaversion.api.minecraft.TagData;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Expanded mapping data of a single {@link MappingDataBase}, stored in a flat binary file that can be read in one go on the next start
+ * instead of parsing and expanding the bundled NBT files again.
+ * <p>
+ * The file starts with a header of the format version, the plugin version it was created with, and a hash of the mapping resources
+ * it was created from; snapshots not matching all of them are ignored. Truncated or otherwise corrupt snapshots are deleted.
+ */
+final class MappingSnapshot {
+
+    private static final int MAGIC = 0x5649414D; // VIAM
+    private static final int FORMAT_VERSION = 2;
+    private static final byte ARRAY_ID = 0;
+    private static final byte IDENTITY_ID = 1;
+    private static final Map<String, byte[]> RESOURCE_HASHES = new ConcurrentHashMap<>();
+    private final Map<String, Mappings> mappings = new HashMap<>();
+    private final Map<String, List<String>> unmappedIdentifiers = new HashMap<>();
+    private final Map<String, List<String>> mappedIdentifiers = new HashMap<>();
+    private final Map<RegistryType, List<TagData>> tags = new EnumMap<>(RegistryType.class);
+
+    public void addMappings(final String key, @Nullable final Mappings mappings) {
+        if (mappings != null) {
+            this.mappings.put(key, mappings);
+        }
+    }
+
+    public void addIdentifiers(final String key, final List<String> unmappedIdentifiers, final List<String> mappedIdentifiers) {
+        this.unmappedIdentifiers.put(key, unmappedIdentifiers);
+        this.mappedIdentifiers.put(key, mappedIdentifiers);
+    }
+
+    public void addTags(final RegistryType type, final List<TagData> tags) {
+        this.tags.put(type, tags);
+    }
+
+    public @Nullable Mappings mappings(final String key) {
+        return mappings.get(key);
+    }
+
+    public @Nullable List<String> unmappedIdentifiers(final String key) {
+        return unmappedIdentifiers.get(key);
+    }
+
+    public @Nullable List<String> mappedIdentifiers(final String key) {
+        return mappedIdentifiers.get(key);
+    }
+
+    public @Nullable List<TagData> tags(final RegistryType type) {
+        return tags.get(type);
+    }
+
+    public boolean hasTags() {
+        return !tags.isEmpty();
+    }
+
+    /**
+     * Writes the snapshot to the given file, replacing it atomically.
+     *
+     * @param file          file to write to
+     * @param pluginVersion plugin version the snapshot is created with
+     * @param sourceHash    hash of the mapping resources the snapshot is created from
+     * @throws IOException if writing fails
+     * @see #resourceHash(String...)
+     */
+    public void write(final File file, final String pluginVersion, final byte[] sourceHash) throws IOException {
+        final File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory " + parent);
+        }
+
+        final File tempFile = new File(parent, file.getName() + ".tmp");
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, pluginVersion);
+            out.writeInt(sourceHash.length);
+            out.write(sourceHash);
+
+            out.writeInt(mappings.size());
+            for (final Map.Entry<String, Mappings> entry : mappings.entrySet()) {
+                final Mappings value = entry.getValue();
+                writeString(out, entry.getKey());
+                out.writeByte(value instanceof IdentityMappings ? IDENTITY_ID : ARRAY_ID);
+                out.writeInt(value.size());
+                out.writeInt(value.mappedSize());
+                if (!(value instanceof IdentityMappings)) {
+                    for (int id = 0; id < value.size(); id++) {
+                        out.writeInt(value.getNewId(id));
+                    }
+                }
+            }
+
+            out.writeInt(unmappedIdentifiers.size());
+            for (final Map.Entry<String, List<String>> entry : unmappedIdentifiers.entrySet()) {
+                writeString(out, entry.getKey());
+                writeStrings(out, entry.getValue());
+                writeStrings(out, mappedIdentifiers.get(entry.getKey()));
+            }
+
+            out.writeInt(tags.size());
+            for (final Map.Entry<RegistryType, List<TagData>> entry : tags.entrySet()) {
+                writeString(out, entry.getKey().name());
+                out.writeInt(entry.getValue().size());
+                for (final TagData tag : entry.getValue()) {
+                    writeString(out, tag.identifier());
+                    writeInts(out, tag.entries());
+                }
+            }
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot from the given file.
+     *
+     * @param file          file to read from
+     * @param pluginVersion current plugin version
+     * @param sourceHash    hash of the current mapping resources
+     * @return the snapshot, or null if the file does not exist, was written from different mappings, or is corrupt
+     * @throws IOException if reading fails
+     * @see #resourceHash(String...)
+     */
+    public static @Nullable MappingSnapshot read(final File file, final String pluginVersion, final byte[] sourceHash) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        // Read onto the heap instead of mapping the file, a mapped file can't be replaced or deleted on Windows until it is unmapped
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+        try {
+            if (buffer.remaining() < Integer.BYTES * 2 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+                    || !readString(buffer).equals(pluginVersion) || !Arrays.equals(readBytes(buffer), sourceHash)) {
+                return null;
+            }
+            return read(buffer);
+        } catch (final BufferUnderflowException | IllegalArgumentException e) {
+            // Truncated or corrupt, it will be written again after loading the mappings from scratch
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (final IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    private static MappingSnapshot read(final ByteBuffer buffer) {
+        final MappingSnapshot snapshot = new MappingSnapshot();
+        final int mappingsSize = readLength(buffer, Integer.BYTES);
+        for (int i = 0; i < mappingsSize; i++) {
+            final String key = readString(buffer);
+            final byte strategy = buffer.get();
+            final int size = buffer.getInt();
+            final int mappedSize = buffer.getInt();
+            if (strategy == IDENTITY_ID) {
+                snapshot.mappings.put(key, new IdentityMappings(size, mappedSize));
+            } else if (strategy == ARRAY_ID) {
+                snapshot.mappings.put(key, MappingDataLoader.createMappings(readInts(buffer, size), mappedSize));
+            } else {
+                throw new IllegalArgumentException("Unknown mappings strategy " + strategy);
+            }
+        }
+
+        final int identifiersSize = readLength(buffer, Integer.BYTES);
+        for (int i = 0; i < identifiersSize; i++) {
+            final String key = readString(buffer);
+            snapshot.addIdentifiers(key, readStrings(buffer), readStrings(buffer));
+        }
+
+        final int tagsSize = readLength(buffer, Integer.BYTES);
+        for (int i = 0; i < tagsSize; i++) {
+            final RegistryType type = RegistryType.valueOf(readString(buffer));
+            final int size = readLength(buffer, Integer.BYTES * 2);
+            final List<TagData> tags = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                final String identifier = readString(buffer);
+                tags.add(new TagData(identifier, readInts(buffer, buffer.getInt())));
+            }
+            snapshot.tags.put(type, tags);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns a hash of the contents of the given mapping resources, changing whenever one of them changes.
+     * <p>
+     * Bundled resources cannot change while running, so each of them is only read and hashed once, even though the
+     * identifier files are shared by several version pairs.
+     *
+     * @param resourceNames names of the mapping resources, missing ones are allowed
+     * @return hash of the resources
+     * @throws IOException if reading a resource fails
+     */
+    public static byte[] resourceHash(final String... resourceNames) throws IOException {
+        final MessageDigest digest = sha256();
+        for (final String name : resourceNames) {
+            byte[] hash = RESOURCE_HASHES.get(name);
+            if (hash == null) {
+                hash = hashResource(name);
+                RESOURCE_HASHES.putIfAbsent(name, hash);
+            }
+            digest.update(hash);
+        }
+        return digest.digest();
+    }
+
+    private static byte[] hashResource(final String name) throws IOException {
+        final MessageDigest digest = sha256();
+        final InputStream resource = MappingDataLoader.getResource(name);
+        long length = -1;
+        if (resource != null) {
+            length = 0;
+            final byte[] bytes = new byte[8192];
+            try (final InputStream stream = resource) {
+                int read;
+                while ((read = stream.read(bytes)) != -1) {
+                    digest.update(bytes, 0, read);
+                    length += read;
+                }
+            }
+        }
+
+        // Distinguish missing from empty resources
+        for (int i = 0; i < Long.BYTES; i++) {
+            digest.update((byte) (length >>> (i * 8)));
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStrings(final DataOutputStream out, final List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (final String s : strings) {
+            writeString(out, s);
+        }
+    }
+
+    private static void writeInts(final DataOutputStream out, final int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (final int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        return new String(readBytes(buffer), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[readLength(buffer, Byte.BYTES)];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static List<String> readStrings(final ByteBuffer buffer) {
+        final String[] strings = new String[readLength(buffer, Integer.BYTES)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(buffer);
+        }
+        return MappingDataLoader.internIdentifiers(Arrays.asList(strings));
+    }
+
+    private static int[] readInts(final ByteBuffer buffer, final int length) {
+        checkLength(buffer, length, Integer.BYTES);
+
+        // Bulk copy out of the file contents
+        final int[] values = new int[length];
+        final IntBuffer intBuffer = buffer.asIntBuffer();
+        intBuffer.get(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Reads a length prefix, checking that the buffer has enough bytes left for it.
+     *
+     * @param buffer       buffer to read from
+     * @param elementBytes minimum amount of bytes per element
+     * @return length
+     */
+    private static int readLength(final ByteBuffer buffer, final int elementBytes) {
+        final int length = buffer.getInt();
+        checkLength(buffer, length, elementBytes);
+        return length;
+    }
+
+    private static void checkLength(final ByteBuffer buffer, final int length, final int elementBytes) {
+        if (length < 0 || length > buffer.remaining() / elementBytes) {
+            throw new BufferUnderflowException();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public final class DataPaletteImpl implements DataPalette {
 
@@ -33,6 +34,7 @@ public final class DataPaletteImpl implements DataPalette {
 
     private final IntList palette;
     private final Int2IntMap inversePalette;
+    private final int valuesLength;
     private final int sizeBits;
     private ChunkData values;
 
@@ -41,6 +43,7 @@ public final class DataPaletteImpl implements DataPalette {
     }
 
     public DataPaletteImpl(final int valuesLength, final int initialSize) {
+        this.valuesLength = valuesLength;
         values = new EmptyChunkData(valuesLength);
         sizeBits = Integer.numberOfTrailingZeros(valuesLength) / 3;
         // Pre-size the palette array/map
@@ -129,6 +132,38 @@ public final class DataPaletteImpl implements DataPalette {
         palette.add(id);
     }
 
+    /**
+     * Sets the palette indexes from a padded compact array as sent over the network, without unpacking them.
+     * The array is only unpacked once a palette index is changed.
+     *
+     * @param bitsPerValue bits per palette index
+     * @param data         padded compact array of palette indexes
+     */
+    public void setPackedPaletteIndexes(final int bitsPerValue, final long[] data) {
+        values = new PackedChunkData(bitsPerValue, data);
+    }
+
+    /**
+     * Returns the padded compact array of palette indexes if they have not been modified since being set
+     * through {@link #setPackedPaletteIndexes(int, long[])}.
+     *
+     * @return padded compact array of palette indexes, or null if not present or modified
+     * @see #packedBitsPerValue()
+     */
+    public long @Nullable [] packedPaletteIndexes() {
+        return values instanceof PackedChunkData ? ((PackedChunkData) values).data : null;
+    }
+
+    /**
+     * Returns the bits per value of the packed palette indexes, or -1 if not present or modified.
+     *
+     * @return bits per value of the packed palette indexes, or -1 if not present or modified
+     * @see #packedPaletteIndexes()
+     */
+    public int packedBitsPerValue() {
+        return values instanceof PackedChunkData ? ((PackedChunkData) values).bitsPerValue : -1;
+    }
+
     @Override
     public void clear() {
         palette.clear();
@@ -186,9 +221,49 @@ public final class DataPaletteImpl implements DataPalette {
         }
     }
 
+    private class PackedChunkData implements ChunkData {
+        private final long[] data;
+        private final int bitsPerValue;
+        private final int valuesPerLong;
+        private final long maxEntryValue;
+
+        public PackedChunkData(int bitsPerValue, long[] data) {
+            this.data = data;
+            this.bitsPerValue = bitsPerValue;
+            this.valuesPerLong = 64 / bitsPerValue;
+            this.maxEntryValue = (1L << bitsPerValue) - 1;
+        }
+
+        @Override
+        public int get(int idx) {
+            int cellIndex = idx / valuesPerLong;
+            int bitIndex = (idx - cellIndex * valuesPerLong) * bitsPerValue;
+            return (int) (data[cellIndex] >> bitIndex & maxEntryValue);
+        }
+
+        @Override
+        public void set(int idx, int val) {
+            if (get(idx) == val) {
+                return;
+            }
+
+            // Unpack into a regular array before changing anything
+            ChunkData unpacked = bitsPerValue <= 8 ? new ByteChunkData(valuesLength) : new ShortChunkData(valuesLength);
+            values = unpacked;
+            for (int i = 0; i < valuesLength; i++) {
+                unpacked.set(i, get(i));
+            }
+            values.set(idx, val);
+        }
+    }
+
     private static class ShortChunkData implements ChunkData {
         private final short[] data;
 
+        public ShortChunkData(int size) {
+            this.data = new short[size];
+        }
+
         public ShortChunkData(byte[] data) {
             this.data = new short[data.length];
             for (int i = 0; i < data.length; i++) {
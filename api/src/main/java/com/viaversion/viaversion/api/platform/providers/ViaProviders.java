@@ -31,6 +31,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 public class ViaProviders {
     private final Map<Class<? extends Provider>, Provider> providers = new HashMap<>();
     private final List<Class<? extends Provider>> lonelyProviders = new ArrayList<>();
+    private int modifications;
 
     public void require(Class<? extends Provider> provider) {
         lonelyProviders.add(provider);
@@ -38,11 +39,13 @@ public class ViaProviders {
 
     public <T extends Provider> void register(Class<T> provider, T value) {
         providers.put(provider, value);
+        modifications++;
     }
 
     public <T extends Provider> void use(Class<T> provider, T value) {
         lonelyProviders.remove(provider);
         providers.put(provider, value);
+        modifications++;
     }
 
     public @Nullable <T extends Provider> T get(Class<T> provider) {
@@ -56,4 +59,13 @@ public class ViaProviders {
             return null;
         }
     }
+
+    /**
+     * Returns the number of times a provider has been registered or replaced, to detect provider changes.
+     *
+     * @return number of provider modifications
+     */
+    public int modifications() {
+        return modifications;
+    }
 }
@@ -68,6 +68,7 @@ public abstract class AbstractProtocol<CU extends ClientboundPacketType, CM exte
     protected final PacketMappings clientboundMappings;
     protected final PacketMappings serverboundMappings;
     private final Map<Class<?>, Object> storedObjects = new HashMap<>();
+    private final boolean customTransform = overridesTransform(getClass());
     private boolean initialized;
 
     @Deprecated
@@ -375,14 +376,77 @@ public abstract class AbstractProtocol<CU extends ClientboundPacketType, CM exte
         return serverboundMappings.hasMapping(state, unmappedPacketId);
     }
 
+    /**
+     * Returns the packet mapping registered for the given packet.
+     *
+     * @param direction  packet direction
+     * @param state      protocol state
+     * @param unmappedId unmapped packet id
+     * @return packet mapping if present, else null if the packet is not transformed by this protocol
+     */
+    public @Nullable PacketMapping packetMapping(Direction direction, State state, int unmappedId) {
+        PacketMappings mappings = direction == Direction.CLIENTBOUND ? clientboundMappings : serverboundMappings;
+        return mappings.mappedPacket(state, unmappedId);
+    }
+
+    /**
+     * Returns whether {@link #transform(Direction, State, PacketWrapper)} only applies the registered packet mappings
+     * in the given direction and state, so that packets without a handler may only have their id changed without
+     * calling it.
+     * <p>
+     * This is false if the transform method is overridden, in which case subclasses may also override this method.
+     *
+     * @param direction packet direction
+     * @param state     protocol state
+     * @return whether packets without a handler may skip {@link #transform(Direction, State, PacketWrapper)}
+     */
+    public boolean onlyAppliesPacketMappings(Direction direction, State state) {
+        return !customTransform;
+    }
+
     @Override
     public void transform(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
+        if (!transformMapped(direction, state, packetWrapper)) {
+            throw CancelException.generate();
+        }
+    }
+
+    @Override
+    public boolean transformPacket(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
+        if (customTransform) {
+            // Has to go through the overridden transform method
+            return Protocol.super.transformPacket(direction, state, packetWrapper);
+        }
+        return transformMapped(direction, state, packetWrapper);
+    }
+
+    /**
+     * Transforms a packet with the registered packet mapping of this protocol, if present.
+     *
+     * @param direction     packet direction
+     * @param state         protocol state
+     * @param packetWrapper packet wrapper
+     * @return false if the packet was cancelled, else true
+     * @throws Exception if the packet handler throws an exception
+     */
+    protected final boolean transformMapped(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
         PacketMappings mappings = direction == Direction.CLIENTBOUND ? clientboundMappings : serverboundMappings;
+        PacketMapping packetMapping = mappings.mappedPacket(state, packetWrapper.getId());
+        return packetMapping == null || transform(direction, state, packetWrapper, packetMapping);
+    }
+
+    /**
+     * Transforms a packet with the given packet mapping, as previously returned by {@link #packetMapping(Direction, State, int)}.
+     *
+     * @param direction     packet direction
+     * @param state         protocol state
+     * @param packetWrapper packet wrapper
+     * @param packetMapping packet mapping of this protocol for the packet
+     * @return false if the packet was cancelled, else true
+     * @throws Exception if the packet handler throws an exception
+     */
+    public boolean transform(Direction direction, State state, PacketWrapper packetWrapper, PacketMapping packetMapping) throws Exception {
         int unmappedId = packetWrapper.getId();
-        PacketMapping packetMapping = mappings.mappedPacket(state, unmappedId);
-        if (packetMapping == null) {
-            return;
-        }
 
         // Change packet id and apply remapping
         packetMapping.applyType(packetWrapper);
@@ -391,25 +455,24 @@ public abstract class AbstractProtocol<CU extends ClientboundPacketType, CM exte
             try {
                 handler.handle(packetWrapper);
             } catch (CancelException e) {
-                // Pass through CancelExceptions
-                throw e;
+                // Handlers may still throw CancelExceptions themselves
+                return false;
             } catch (InformativeException e) {
                 // Catch InformativeExceptions
                 e.addSource(handler.getClass());
                 throwRemapError(direction, state, unmappedId, packetWrapper.getId(), e);
-                return;
+                return true;
             } catch (Exception e) {
                 // Wrap other exceptions during packet handling
                 InformativeException ex = new InformativeException(e);
                 ex.addSource(handler.getClass());
                 throwRemapError(direction, state, unmappedId, packetWrapper.getId(), ex);
-                return;
+                return true;
             }
 
-            if (packetWrapper.isCancelled()) {
-                throw CancelException.generate();
-            }
+            return !packetWrapper.isCancelled();
         }
+        return true;
     }
 
     protected void throwRemapError(Direction direction, State state, int unmappedPacketId, int mappedPacketId, InformativeException e) throws InformativeException {
@@ -487,4 +550,12 @@ public abstract class AbstractProtocol<CU extends ClientboundPacketType, CM exte
     public String toString() {
         return "Protocol:" + getClass().getSimpleName();
     }
+
+    private static boolean overridesTransform(Class<?> protocolClass) {
+        try {
+            return protocolClass.getMethod("transform", Direction.class, State.class, PacketWrapper.class).getDeclaringClass() != AbstractProtocol.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
 }
@@ -37,6 +37,7 @@ import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
 import com.viaversion.viaversion.api.protocol.remapper.PacketRemapper;
 import com.viaversion.viaversion.api.rewriter.EntityRewriter;
 import com.viaversion.viaversion.api.rewriter.ItemRewriter;
+import com.viaversion.viaversion.exception.CancelException;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
@@ -249,6 +250,26 @@ public interface Protocol<CU extends ClientboundPacketType, CM extends Clientbou
      */
     void transform(Direction direction, State state, PacketWrapper packetWrapper) throws Exception;
 
+    /**
+     * Transform a packet using this protocol, returning false instead of throwing a {@link CancelException}
+     * if the packet got cancelled.
+     *
+     * @param direction     The direction the packet is going in
+     * @param state         The current protocol state
+     * @param packetWrapper The packet wrapper to transform
+     * @return false if the packet was cancelled, else true
+     * @throws Exception Throws exception if it fails to transform
+     * @see #transform(Direction, State, PacketWrapper)
+     */
+    default boolean transformPacket(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
+        try {
+            transform(direction, state, packetWrapper);
+            return true;
+        } catch (CancelException e) {
+            return false;
+        }
+    }
+
     /**
      * Returns a packet type provider for this protocol to get packet types by id.
      * Depending on the Protocol, not every state may be populated.
@@ -330,6 +351,17 @@ public interface Protocol<CU extends ClientboundPacketType, CM extends Clientbou
         return null;
     }
 
+    /**
+     * Returns the protocol whose mapping data is used by this protocol in addition to its own, if any.
+     * <p>
+     * Its mapping data is loaded alongside this protocol's if mappings are loaded lazily.
+     *
+     * @return protocol class whose mapping data is also used, or null
+     */
+    default @Nullable Class<? extends Protocol> getMappingDataDependency() {
+        return null;
+    }
+
     /**
      * Returns the protocol's entity rewriter if present.
      *
@@ -23,6 +23,8 @@
 package com.viaversion.viaversion.api.protocol;
 
 import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.packet.Direction;
+import com.viaversion.viaversion.api.protocol.packet.State;
 import java.util.Collection;
 import java.util.List;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -87,6 +89,33 @@ public interface ProtocolPipeline extends SimpleProtocol {
      */
     boolean hasNonBaseProtocols();
 
+    /**
+     * Returns the packet id after transformation if none of the protocols in this pipeline handle the packet's
+     * content, meaning the packet only needs its id to be changed.
+     *
+     * @param direction packet direction
+     * @param state     protocol state
+     * @param packetId  unmapped packet id
+     * @return mapped packet id, or -1 if the packet has to be fully transformed
+     */
+    default int mappedIdIfUnhandled(Direction direction, State state, int packetId) {
+        return -1;
+    }
+
+    /**
+     * Returns whether all protocols of this pipeline handling the packet only use memoizable handlers,
+     * so that the transformed packet solely depends on the packet's content.
+     *
+     * @param direction packet direction
+     * @param state     protocol state
+     * @param packetId  unmapped packet id
+     * @return whether the transformed packet may be reused for other connections with the same pipeline
+     * @see com.viaversion.viaversion.api.protocol.remapper.PacketHandler#isMemoizable()
+     */
+    default boolean isMemoizable(Direction direction, State state, int packetId) {
+        return false;
+    }
+
     /**
      * Cleans the pipe and adds the base protocol.
      * /!\ WARNING - It doesn't add version-specific base Protocol.
@@ -22,14 +22,38 @@
  */
 package com.viaversion.viaversion.api.protocol.packet;
 
+import com.google.common.base.Preconditions;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.configuration.ViaVersionConfig;
 import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.packet.provider.PacketTypeMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+/**
+ * Tracks the packets of a connection and enforces the configured packet limits.
+ * <p>
+ * Packets are limited with a token bucket holding up to max-pps tokens and refilling at max-pps tokens per second.
+ * Each received packet takes as many tokens as its weight, by default 1. Time is read from a coarse clock that
+ * is updated by a repeating task instead of querying the system time for every packet. If the clock doesn't move
+ * over several packets, the system time is checked in case the task has stalled, in which case the system time is
+ * used until the clock ticks again.
+ */
 public class PacketTracker {
+    private static final int DEFAULT_WEIGHT = 1;
+    private static final long STALE_CLOCK_MILLIS = 1000;
+    private static final int STALE_CHECK_READS = 16;
+    private static final LongAdder TOTAL_RECEIVED_PACKETS = new LongAdder();
+    private static final LongAdder TOTAL_REJECTED_PACKETS = new LongAdder();
+    private static volatile Limits limits;
+    private static volatile long clock;
+    private static volatile boolean clockTicking;
     private final UserConnection connection;
     private long sentPackets;
     private long receivedPackets;
+    private long rejectedPackets;
     // Used for tracking pps
     private long startTime;
     private long intervalPackets;
@@ -37,11 +61,84 @@ public class PacketTracker {
     // Used for handling warnings (over time)
     private int secondsObserved;
     private int warnings;
+    // Token bucket
+    private long tokens = -1L;
+    private long lastRefill;
+    private int @Nullable [] packetWeights;
+    // Stale clock detection
+    private long lastClock;
+    private int unchangedClockReads;
 
     public PacketTracker(UserConnection connection) {
         this.connection = connection;
     }
 
+    /**
+     * Updates the shared clock used by all packet trackers. Called periodically by a ticking task.
+     */
+    public static void tickClock() {
+        tickClock(System.currentTimeMillis());
+    }
+
+    static void tickClock(final long time) {
+        clock = time;
+        clockTicking = true;
+    }
+
+    /**
+     * Returns the current time of the coarse packet tracker clock, falling back to the system time if it is not ticking.
+     *
+     * @return current time in milliseconds
+     */
+    public static long currentTimeMillis() {
+        return clockTicking ? clock : System.currentTimeMillis();
+    }
+
+    /**
+     * Updates the packet limits used by all packet trackers from the given config, to be called on every config (re)load.
+     *
+     * @param config config to read the limits from
+     */
+    public static void updateLimits(final ViaVersionConfig config) {
+        limits = new Limits(config);
+    }
+
+    /**
+     * Returns whether any packet limits are configured, requiring the clock to be ticked.
+     *
+     * @return whether any packet limits are configured
+     */
+    public static boolean hasLimits() {
+        final Limits limits = limits();
+        return limits.maxPPS > 0 || (limits.maxWarnings > 0 && limits.trackingPeriod > 0);
+    }
+
+    /**
+     * Returns the total amount of packets received over all connections.
+     *
+     * @return total amount of received packets
+     */
+    public static long getTotalReceivedPackets() {
+        return TOTAL_RECEIVED_PACKETS.sum();
+    }
+
+    /**
+     * Returns the total amount of packets rejected by the packet limiter over all connections.
+     *
+     * @return total amount of rejected packets
+     */
+    public static long getTotalRejectedPackets() {
+        return TOTAL_REJECTED_PACKETS.sum();
+    }
+
+    private static Limits limits() {
+        Limits limits = PacketTracker.limits;
+        if (limits == null) {
+            PacketTracker.limits = limits = new Limits(Via.getConfig());
+        }
+        return limits;
+    }
+
     /**
      * Used for incrementing the number of packets sent to the client.
      */
@@ -49,24 +146,77 @@ public class PacketTracker {
         this.sentPackets++;
     }
 
+    /**
+     * Counts a packet received from the client and checks it against the packet limits,
+     * disconnecting the connection if they are exceeded.
+     *
+     * @param packetId serverbound packet id used to look up the packet weight, or -1 if unknown
+     * @return true if the packet should be cancelled
+     */
+    public boolean checkReceived(final int packetId) {
+        return checkReceived(packetId, now());
+    }
+
+    boolean checkReceived(final int packetId, final long now) {
+        final boolean intervalReset = incrementReceived(now);
+        if (connection.isClientSide()) {
+            return false; // Don't apply PPS limiting for client-side
+        }
+
+        final Limits limits = limits();
+        if (limits.maxPPS > 0 && !takeTokens(limits.maxPPS, packetWeight(packetId), now)) {
+            reject(limits.maxPPSKickMessage);
+            return true;
+        }
+
+        if (intervalReset && exceedsWarnings(limits)) {
+            reject(limits.maxWarningsKickMessage);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Used for incrementing the number of packets received from the client.
      *
      * @return true if the interval has reset and can now be checked for the packets sent
      */
     public boolean incrementReceived() {
-        // handle stats
-        long diff = System.currentTimeMillis() - startTime;
-        if (diff >= 1000) {
+        return incrementReceived(now());
+    }
+
+    private long now() {
+        final long now = currentTimeMillis();
+        if (now != lastClock) {
+            lastClock = now;
+            unchangedClockReads = 0;
+            return now;
+        }
+        if (++unchangedClockReads < STALE_CHECK_READS) {
+            return now;
+        }
+
+        unchangedClockReads = 0;
+        final long systemTime = System.currentTimeMillis();
+        if (systemTime - now >= STALE_CLOCK_MILLIS) {
+            // The clock task has stalled, use the system time for all trackers until it ticks again
+            clockTicking = false;
+            return systemTime;
+        }
+        return now;
+    }
+
+    private boolean incrementReceived(final long now) {
+        TOTAL_RECEIVED_PACKETS.increment();
+        this.receivedPackets++;
+        if (now - startTime >= 1000) {
             packetsPerSecond = intervalPackets;
-            startTime = System.currentTimeMillis();
+            startTime = now;
             intervalPackets = 1;
             return true;
-        } else {
-            intervalPackets++;
         }
-        // increase total
-        this.receivedPackets++;
+
+        intervalPackets++;
         return false;
     }
 
@@ -79,42 +229,141 @@ public class PacketTracker {
      */
     public boolean exceedsMaxPPS() {
         if (connection.isClientSide()) return false; // Don't apply PPS limiting for client-side
-        ViaVersionConfig conf = Via.getConfig();
+        final Limits limits = limits();
         // Max PPS Checker
-        if (conf.getMaxPPS() > 0 && packetsPerSecond >= conf.getMaxPPS()) {
-            connection.disconnect(conf.getMaxPPSKickMessage().replace("%pps", Long.toString(packetsPerSecond)));
+        if (limits.maxPPS > 0 && packetsPerSecond >= limits.maxPPS) {
+            reject(limits.maxPPSKickMessage);
             return true; // don't send current packet
         }
 
         // Tracking PPS Checker
-        if (conf.getMaxWarnings() > 0 && conf.getTrackingPeriod() > 0) {
-            if (secondsObserved > conf.getTrackingPeriod()) {
-                // Reset
-                warnings = 0;
-                secondsObserved = 1;
-            } else {
-                secondsObserved++;
-                if (packetsPerSecond >= conf.getWarningPPS()) {
-                    warnings++;
-                }
-
-                if (warnings >= conf.getMaxWarnings()) {
-                    connection.disconnect(conf.getMaxWarningsKickMessage().replace("%pps", Long.toString(packetsPerSecond)));
-                    return true; // don't send current packet
-                }
-            }
+        if (exceedsWarnings(limits)) {
+            reject(limits.maxWarningsKickMessage);
+            return true; // don't send current packet
         }
         return false;
     }
 
+    private boolean exceedsWarnings(final Limits limits) {
+        if (limits.maxWarnings <= 0 || limits.trackingPeriod <= 0) {
+            return false;
+        }
+
+        if (secondsObserved > limits.trackingPeriod) {
+            // Reset
+            warnings = 0;
+            secondsObserved = 1;
+            return false;
+        }
+
+        secondsObserved++;
+        if (packetsPerSecond >= limits.warningPPS) {
+            warnings++;
+        }
+        return warnings >= limits.maxWarnings;
+    }
+
+    private boolean takeTokens(final int maxPPS, final int weight, final long now) {
+        if (tokens == -1L) {
+            // First packet, start with a full bucket
+            tokens = maxPPS;
+            lastRefill = now;
+        } else if (now > lastRefill) {
+            final long refilled = (now - lastRefill) * maxPPS / 1000;
+            if (refilled > 0) {
+                // Keep the remaining fraction of a token for the next refill
+                lastRefill += refilled * 1000 / maxPPS;
+                tokens = Math.min(maxPPS, tokens + refilled);
+            }
+            if (tokens == maxPPS) {
+                lastRefill = now;
+            }
+        }
+
+        // A packet can never take more than a full bucket
+        final int cost = Math.min(weight, maxPPS);
+        if (tokens < cost) {
+            return false;
+        }
+        tokens -= cost;
+        return true;
+    }
+
+    private void reject(final String kickMessage) {
+        rejectedPackets++;
+        TOTAL_REJECTED_PACKETS.increment();
+        final long pps = Math.max(packetsPerSecond, intervalPackets);
+        connection.disconnect(kickMessage.replace("%pps", Long.toString(pps)));
+    }
+
+    /**
+     * Returns the weight of a serverbound packet, being the amount of tokens it takes from the packet limiter.
+     *
+     * @param packetId serverbound packet id, or -1 if unknown
+     * @return weight of the packet
+     */
+    public int packetWeight(final int packetId) {
+        final int[] packetWeights = this.packetWeights;
+        return packetWeights != null && packetId >= 0 && packetId < packetWeights.length ? packetWeights[packetId] : DEFAULT_WEIGHT;
+    }
+
+    /**
+     * Sets the weight of a serverbound packet, letting expensive packets take more than one token from the packet limiter.
+     *
+     * @param packetId serverbound play packet id in the client's protocol version
+     * @param weight   weight of the packet, 1 by default
+     * @throws IllegalArgumentException if the packet id is negative or the weight is not positive
+     */
+    public void setPacketWeight(final int packetId, final int weight) {
+        Preconditions.checkArgument(packetId >= 0, "Packet id must not be negative");
+        Preconditions.checkArgument(weight > 0, "Packet weight must be positive");
+        if (packetWeights == null || packetId >= packetWeights.length) {
+            final int oldLength = packetWeights != null ? packetWeights.length : 0;
+            packetWeights = packetWeights != null ? Arrays.copyOf(packetWeights, packetId + 1) : new int[packetId + 1];
+            Arrays.fill(packetWeights, oldLength, packetWeights.length, DEFAULT_WEIGHT);
+        }
+        packetWeights[packetId] = weight;
+    }
+
+    /**
+     * Sets the packet weights from the config for the given serverbound play packet types of the client's version.
+     * Configured packet types not present in the client's version are ignored.
+     *
+     * @param packetTypes serverbound play packet types of the client's version
+     */
+    public void setConfiguredPacketWeights(final PacketTypeMap<? extends ServerboundPacketType> packetTypes) {
+        for (final Map.Entry<String, Integer> entry : limits().packetWeights.entrySet()) {
+            final ServerboundPacketType packetType = packetTypes.typeByName(entry.getKey());
+            if (packetType != null) {
+                setPacketWeight(packetType.getId(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns whether custom packet weights are set. If not, packet ids don't need to be passed to {@link #checkReceived(int)}.
+     *
+     * @return whether custom packet weights are set
+     */
+    public boolean hasPacketWeights() {
+        return packetWeights != null;
+    }
+
     public long getSentPackets() {
         return sentPackets;
     }
-
     public void setSentPackets(long sentPackets) {
         this.sentPackets = sentPackets;
     }
 
+    public long getRejectedPackets() {
+        return rejectedPackets;
+    }
+
+    public long getAvailableTokens() {
+        return tokens;
+    }
+
     public long getReceivedPackets() {
         return receivedPackets;
     }
@@ -162,4 +411,27 @@ public class PacketTracker {
     public void setWarnings(int warnings) {
         this.warnings = warnings;
     }
+
+    /**
+     * Packet limits of the config, read once per config load.
+     */
+    private static final class Limits {
+        private final int maxPPS;
+        private final String maxPPSKickMessage;
+        private final int trackingPeriod;
+        private final int warningPPS;
+        private final int maxWarnings;
+        private final String maxWarningsKickMessage;
+        private final Map<String, Integer> packetWeights;
+
+        private Limits(final ViaVersionConfig config) {
+            this.maxPPS = config.getMaxPPS();
+            this.maxPPSKickMessage = config.getMaxPPSKickMessage();
+            this.trackingPeriod = config.getTrackingPeriod();
+            this.warningPPS = config.getWarningPPS();
+            this.maxWarnings = config.getMaxWarnings();
+            this.maxWarningsKickMessage = config.getMaxWarningsKickMessage();
+            this.packetWeights = config.getPacketWeights();
+        }
+    }
 }
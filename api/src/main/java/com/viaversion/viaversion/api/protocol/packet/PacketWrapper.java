@@ -143,6 +143,244 @@ public interface PacketWrapper {
      */
     <T> T passthrough(Type<T> type) throws Exception;
 
+    /**
+     * Take a value from the input and write it to the output without returning it.
+     * <p>
+     * If the value is still in the input buffer and the type is {@link Type#isSkippable() skippable},
+     * its bytes may be copied as-is and only decoded if the value is accessed later.
+     *
+     * @param type The type to read and write.
+     * @param <T>  The return type of the type you wish to pass through.
+     * @throws Exception If it failed to read or write
+     */
+    default <T> void passthroughRaw(Type<T> type) throws Exception {
+        passthrough(type);
+    }
+
+    /**
+     * Reads a VarInt from the input without boxing it.
+     *
+     * @return the read value
+     * @throws InformativeException If it fails to read
+     * @see #read(Type)
+     */
+    default int readVarInt() throws Exception {
+        return read(Type.VAR_INT);
+    }
+
+    /**
+     * Writes a VarInt to the output without boxing it.
+     *
+     * @param value the value to write
+     * @see #write(Type, Object)
+     */
+    default void writeVarInt(int value) {
+        write(Type.VAR_INT, value);
+    }
+
+    /**
+     * Takes a VarInt from the input and writes it to the output without boxing it.
+     *
+     * @return the read and written value
+     * @throws Exception If it failed to read or write
+     * @see #passthrough(Type)
+     */
+    default int passthroughVarInt() throws Exception {
+        return passthrough(Type.VAR_INT);
+    }
+
+    /**
+     * Reads an int from the input without boxing it.
+     *
+     * @return the read value
+     * @throws InformativeException If it fails to read
+     * @see #read(Type)
+     */
+    default int readInt() throws Exception {
+        return read(Type.INT);
+    }
+
+    /**
+     * Writes an int to the output without boxing it.
+     *
+     * @param value the value to write
+     * @see #write(Type, Object)
+     */
+    default void writeInt(int value) {
+        write(Type.INT, value);
+    }
+
+    /**
+     * Takes an int from the input and writes it to the output without boxing it.
+     *
+     * @return the read and written value
+     * @throws Exception If it failed to read or write
+     * @see #passthrough(Type)
+     */
+    default int passthroughInt() throws Exception {
+        return passthrough(Type.INT);
+    }
+
+    /**
+     * Reads a long from the input without boxing it.
+     *
+     * @return the read value
+     * @throws InformativeException If it fails to read
+     * @see #read(Type)
+     */
+    default long readLong() throws Exception {
+        return read(Type.LONG);
+    }
+
+    /**
+     * Writes a long to the output without boxing it.
+     *
+     * @param value the value to write
+     * @see #write(Type, Object)
+     */
+    default void writeLong(long value) {
+        write(Type.LONG, value);
+    }
+
+    /**
+     * Takes a long from the input and writes it to the output without boxing it.
+     *
+     * @return the read and written value
+     * @throws Exception If it failed to read or write
+     * @see #passthrough(Type)
+     */
+    default long passthroughLong() throws Exception {
+        return passthrough(Type.LONG);
+    }
+
+    /**
+     * Reads a byte from the input without boxing it.
+     *
+     * @return the read value
+     * @throws InformativeException If it fails to read
+     * @see #read(Type)
+     */
+    default byte readByte() throws Exception {
+        return read(Type.BYTE);
+    }
+
+    /**
+     * Writes a byte to the output without boxing it.
+     *
+     * @param value the value to write
+     * @see #write(Type, Object)
+     */
+    default void writeByte(byte value) {
+        write(Type.BYTE, value);
+    }
+
+    /**
+     * Takes a byte from the input and writes it to the output without boxing it.
+     *
+     * @return the read and written value
+     * @throws Exception If it failed to read or write
+     * @see #passthrough(Type)
+     */
+    default byte passthroughByte() throws Exception {
+        return passthrough(Type.BYTE);
+    }
+
+    /**
+     * Reads a float from the input without boxing it.
+     *
+     * @return the read value
+     * @throws InformativeException If it fails to read
+     * @see #read(Type)
+     */
+    default float readFloat() throws Exception {
+        return read(Type.FLOAT);
+    }
+
+    /**
+     * Writes a float to the output without boxing it.
+     *
+     * @param value the value to write
+     * @see #write(Type, Object)
+     */
+    default void writeFloat(float value) {
+        write(Type.FLOAT, value);
+    }
+
+    /**
+     * Takes a float from the input and writes it to the output without boxing it.
+     *
+     * @return the read and written value
+     * @throws Exception If it failed to read or write
+     * @see #passthrough(Type)
+     */
+    default float passthroughFloat() throws Exception {
+        return passthrough(Type.FLOAT);
+    }
+
+    /**
+     * Reads a double from the input without boxing it.
+     *
+     * @return the read value
+     * @throws InformativeException If it fails to read
+     * @see #read(Type)
+     */
+    default double readDouble() throws Exception {
+        return read(Type.DOUBLE);
+    }
+
+    /**
+     * Writes a double to the output without boxing it.
+     *
+     * @param value the value to write
+     * @see #write(Type, Object)
+     */
+    default void writeDouble(double value) {
+        write(Type.DOUBLE, value);
+    }
+
+    /**
+     * Takes a double from the input and writes it to the output without boxing it.
+     *
+     * @return the read and written value
+     * @throws Exception If it failed to read or write
+     * @see #passthrough(Type)
+     */
+    default double passthroughDouble() throws Exception {
+        return passthrough(Type.DOUBLE);
+    }
+
+    /**
+     * Reads a boolean from the input without boxing it.
+     *
+     * @return the read value
+     * @throws InformativeException If it fails to read
+     * @see #read(Type)
+     */
+    default boolean readBoolean() throws Exception {
+        return read(Type.BOOLEAN);
+    }
+
+    /**
+     * Writes a boolean to the output without boxing it.
+     *
+     * @param value the value to write
+     * @see #write(Type, Object)
+     */
+    default void writeBoolean(boolean value) {
+        write(Type.BOOLEAN, value);
+    }
+
+    /**
+     * Takes a boolean from the input and writes it to the output without boxing it.
+     *
+     * @return the read and written value
+     * @throws Exception If it failed to read or write
+     * @see #passthrough(Type)
+     */
+    default boolean passthroughBoolean() throws Exception {
+        return passthrough(Type.BOOLEAN);
+    }
+
     /**
      * Take all the inputs and write them to the output.
      *
@@ -22,6 +22,7 @@
  */
 package com.viaversion.viaversion.api.protocol.packet.mapping;
 
+import com.viaversion.viaversion.api.protocol.packet.PacketType;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -45,4 +46,14 @@ final class PacketIdMapping implements PacketMapping {
     public @Nullable PacketHandler handler() {
         return handler;
     }
+
+    @Override
+    public int mappedPacketId(final int unmappedId) {
+        return mappedPacketId;
+    }
+
+    @Override
+    public @Nullable PacketType mappedPacketType() {
+        return null;
+    }
 }
\ No newline at end of file
@@ -46,6 +46,21 @@ public interface PacketMapping {
      */
     @Nullable PacketHandler handler();
 
+    /**
+     * Returns the mapped packet id.
+     *
+     * @param unmappedId unmapped packet id
+     * @return mapped packet id, or the unmapped id if unchanged
+     */
+    int mappedPacketId(int unmappedId);
+
+    /**
+     * Returns the mapped packet type if this mapping sets one.
+     *
+     * @return mapped packet type, or null if unchanged or only mapping the packet id
+     */
+    @Nullable PacketType mappedPacketType();
+
     static PacketMapping of(final int mappedPacketId, @Nullable final PacketHandler handler) {
         return new PacketIdMapping(mappedPacketId, handler);
     }
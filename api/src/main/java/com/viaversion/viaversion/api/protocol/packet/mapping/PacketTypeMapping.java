@@ -47,4 +47,14 @@ final class PacketTypeMapping implements PacketMapping {
     public @Nullable PacketHandler handler() {
         return handler;
     }
+
+    @Override
+    public int mappedPacketId(int unmappedId) {
+        return mappedPacketType != null ? mappedPacketType.getId() : unmappedId;
+    }
+
+    @Override
+    public @Nullable PacketType mappedPacketType() {
+        return mappedPacketType;
+    }
 }
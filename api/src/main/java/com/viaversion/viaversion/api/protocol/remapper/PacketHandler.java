@@ -34,4 +34,35 @@ public interface PacketHandler {
      * @throws Exception if an error occurs during the packet handling
      */
     void handle(PacketWrapper wrapper) throws Exception;
+
+    /**
+     * Returns whether the outcome of this handler only depends on the packet's content and static protocol data,
+     * without reading or changing any state of the connection. Packets only going through such handlers
+     * may have their transformed bytes reused for other connections.
+     *
+     * @return whether the handler is independent of the connection
+     */
+    default boolean isMemoizable() {
+        return false;
+    }
+
+    /**
+     * Returns a handler delegating to the given one, marked as {@link #isMemoizable()}.
+     *
+     * @param handler handler independent of the connection
+     * @return memoizable handler
+     */
+    static PacketHandler memoizable(final PacketHandler handler) {
+        return new PacketHandler() {
+            @Override
+            public void handle(final PacketWrapper wrapper) throws Exception {
+                handler.handle(wrapper);
+            }
+
+            @Override
+            public boolean isMemoizable() {
+                return true;
+            }
+        };
+    }
 }
@@ -30,19 +30,24 @@ import java.util.function.Function;
 
 public abstract class PacketHandlers implements PacketHandler {
     private final List<PacketHandler> packetHandlers = new ArrayList<>();
+    private PacketHandler[] compiledHandlers; // Null while handlers are added
 
     protected PacketHandlers() {
         register();
+        compiledHandlers = compile(packetHandlers);
+    }
+
+    private PacketHandlers(List<PacketHandler> handlers) {
+        packetHandlers.addAll(handlers);
+        compiledHandlers = compile(packetHandlers);
     }
 
     static PacketHandler fromRemapper(List<PacketHandler> valueRemappers) {
-        final PacketHandlers handlers = new PacketHandlers() {
+        return new PacketHandlers(valueRemappers) {
             @Override
             public void register() {
             }
         };
-        handlers.packetHandlers.addAll(valueRemappers);
-        return handlers;
     }
 
     /**
@@ -51,7 +56,7 @@ public abstract class PacketHandlers implements PacketHandler {
      * @param type type to map
      */
     public <T> void map(Type<T> type) {
-        handler(wrapper -> wrapper.write(type, wrapper.read(type)));
+        handler(new TypeStep(TypeStep.PASSTHROUGH, type));
     }
 
     /**
@@ -126,6 +131,7 @@ public abstract class PacketHandlers implements PacketHandler {
      */
     public void handler(PacketHandler handler) {
         packetHandlers.add(handler);
+        compiledHandlers = null;
     }
 
     /**
@@ -144,7 +150,7 @@ public abstract class PacketHandlers implements PacketHandler {
      * @param type type to read
      */
     public void read(Type<?> type) {
-        handler(wrapper -> wrapper.read(type));
+        handler(new TypeStep(TypeStep.READ, type));
     }
 
     /**
@@ -154,12 +160,216 @@ public abstract class PacketHandlers implements PacketHandler {
 
     @Override
     public final void handle(PacketWrapper wrapper) throws Exception {
-        for (PacketHandler handler : packetHandlers) {
+        PacketHandler[] handlers = compiledHandlers;
+        if (handlers == null) {
+            // Handlers were added after registration
+            handlers = compile(packetHandlers);
+            compiledHandlers = handlers;
+        }
+
+        for (PacketHandler handler : handlers) {
             handler.handle(wrapper);
         }
     }
 
+    /**
+     * Returns the handlers to run, with consecutive plain map and read steps merged into single handlers.
+     * Runs of fixed size passthroughs are read in one go.
+     *
+     * @param handlers registered handlers
+     * @return compiled handlers
+     */
+    private static PacketHandler[] compile(List<PacketHandler> handlers) {
+        List<PacketHandler> compiled = new ArrayList<>(handlers.size());
+        List<TypeStep> steps = new ArrayList<>();
+        for (PacketHandler handler : handlers) {
+            if (handler instanceof TypeStep) {
+                steps.add((TypeStep) handler);
+                continue;
+            }
+
+            addSteps(compiled, steps);
+            compiled.add(handler);
+        }
+        addSteps(compiled, steps);
+        return compiled.toArray(new PacketHandler[0]);
+    }
+
+    private static void addSteps(List<PacketHandler> compiled, List<TypeStep> steps) {
+        if (steps.isEmpty()) {
+            return;
+        }
+
+        List<PacketHandler> merged = new ArrayList<>(steps.size());
+        int index = 0;
+        while (index < steps.size()) {
+            int end = index;
+            while (end < steps.size() && steps.get(end).fixedPassthroughSize() != -1) {
+                end++;
+            }
+
+            if (end - index > 1) {
+                merged.add(FixedPassthrough.of(steps.subList(index, end)));
+                index = end;
+            } else {
+                merged.add(steps.get(index++).compile());
+            }
+        }
+        steps.clear();
+        compiled.add(merged.size() == 1 ? merged.get(0) : new TypeSteps(merged.toArray(new PacketHandler[0])));
+    }
+
     public int handlersSize() {
         return packetHandlers.size();
     }
+
+    /**
+     * Single map or read step on a type, compiled to a handler using its primitive accessor where possible.
+     */
+    private static final class TypeStep implements PacketHandler {
+        private static final int PASSTHROUGH = 0;
+        private static final int READ = 1;
+        private final Type<?> type;
+        private final int action;
+
+        private TypeStep(int action, Type<?> type) {
+            this.type = type;
+            this.action = action;
+        }
+
+        /**
+         * Returns the byte size of the value if this step passes through a fixed size primitive, else -1.
+         *
+         * @return fixed byte size of the passed through value, or -1
+         */
+        private int fixedPassthroughSize() {
+            if (action != PASSTHROUGH) {
+                return -1;
+            } else if (type == Type.LONG || type == Type.DOUBLE) {
+                return Long.BYTES;
+            } else if (type == Type.INT || type == Type.FLOAT) {
+                return Integer.BYTES;
+            } else if (type == Type.BYTE || type == Type.BOOLEAN) {
+                return Byte.BYTES;
+            }
+            return -1;
+        }
+
+        private PacketHandler compile() {
+            final Type<?> type = this.type;
+            if (action == READ) {
+                if (type == Type.VAR_INT) {
+                    return PacketWrapper::readVarInt;
+                } else if (type == Type.INT) {
+                    return PacketWrapper::readInt;
+                } else if (type == Type.LONG) {
+                    return PacketWrapper::readLong;
+                } else if (type == Type.BYTE) {
+                    return PacketWrapper::readByte;
+                } else if (type == Type.FLOAT) {
+                    return PacketWrapper::readFloat;
+                } else if (type == Type.DOUBLE) {
+                    return PacketWrapper::readDouble;
+                } else if (type == Type.BOOLEAN) {
+                    return PacketWrapper::readBoolean;
+                }
+                return wrapper -> wrapper.read(type);
+            }
+
+            if (type == Type.VAR_INT) {
+                return PacketWrapper::passthroughVarInt;
+            } else if (type == Type.INT) {
+                return PacketWrapper::passthroughInt;
+            } else if (type == Type.LONG) {
+                return PacketWrapper::passthroughLong;
+            } else if (type == Type.BYTE) {
+                return PacketWrapper::passthroughByte;
+            } else if (type == Type.FLOAT) {
+                return PacketWrapper::passthroughFloat;
+            } else if (type == Type.DOUBLE) {
+                return PacketWrapper::passthroughDouble;
+            } else if (type == Type.BOOLEAN) {
+                return PacketWrapper::passthroughBoolean;
+            }
+            return wrapper -> wrapper.passthroughRaw(type);
+        }
+
+        @Override
+        public void handle(PacketWrapper wrapper) throws Exception {
+            // Only called if used outside a PacketHandlers instance
+            compile().handle(wrapper);
+        }
+    }
+
+    /**
+     * Consecutive fixed size passthroughs with precomputed offsets.
+     */
+    private static final class FixedPassthrough implements PacketHandler {
+        private final Type<?>[] types;
+        private final int[] offsets;
+
+        private FixedPassthrough(Type<?>[] types, int[] offsets) {
+            this.types = types;
+            this.offsets = offsets;
+        }
+
+        private static FixedPassthrough of(List<TypeStep> steps) {
+            Type<?>[] types = new Type[steps.size()];
+            int[] offsets = new int[steps.size() + 1];
+            for (int i = 0; i < steps.size(); i++) {
+                TypeStep step = steps.get(i);
+                types[i] = step.type;
+                offsets[i + 1] = offsets[i] + step.fixedPassthroughSize();
+            }
+            return new FixedPassthrough(types, offsets);
+        }
+
+        @Override
+        public void handle(PacketWrapper wrapper) throws Exception {
+            if (wrapper instanceof FixedPassthroughTarget) {
+                ((FixedPassthroughTarget) wrapper).passthroughFixed(types, offsets);
+                return;
+            }
+
+            for (Type<?> type : types) {
+                wrapper.passthrough(type);
+            }
+        }
+    }
+
+    /**
+     * Implemented by packet wrappers able to pass through compiled runs of fixed size values in one go.
+     * This is an implementation detail of the handler compilation and not meant to be called by protocols.
+     */
+    public interface FixedPassthroughTarget {
+
+        /**
+         * Takes consecutive fixed size values from the input and writes them to the output.
+         * Only {@link Type#INT}, {@link Type#LONG}, {@link Type#BYTE}, {@link Type#FLOAT}, {@link Type#DOUBLE},
+         * and {@link Type#BOOLEAN} are passed.
+         *
+         * @param types   the types of the values in order
+         * @param offsets the byte offset of each value from the first one, followed by the total length
+         * @throws Exception if it failed to read or write
+         */
+        void passthroughFixed(Type<?>[] types, int[] offsets) throws Exception;
+    }
+
+    /**
+     * Consecutive compiled type steps run in a single handler.
+     */
+    private static final class TypeSteps implements PacketHandler {
+        private final PacketHandler[] steps;
+
+        private TypeSteps(PacketHandler[] steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        public void handle(PacketWrapper wrapper) throws Exception {
+            for (PacketHandler step : steps) {
+                step.handle(wrapper);
+            }
+        }
+    }
 }
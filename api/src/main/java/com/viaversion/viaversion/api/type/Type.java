@@ -85,6 +85,7 @@ import com.viaversion.viaversion.api.type.types.block.VarLongBlockChangeRecordTy
 import com.viaversion.viaversion.api.type.types.math.Vector3fType;
 import com.viaversion.viaversion.api.type.types.math.VectorType;
 import com.viaversion.viaversion.api.type.types.misc.VillagerDataType;
+import io.netty.buffer.ByteBuf;
 import java.util.UUID;
 
 /**
@@ -245,6 +246,27 @@ public abstract class Type<T> implements ByteBufReader<T>, ByteBufWriter<T> {
         return this.getClass();
     }
 
+    /**
+     * Returns whether {@link #skip(ByteBuf)} can move past a value without decoding it.
+     *
+     * @return whether values of this type can be skipped cheaply
+     */
+    public boolean isSkippable() {
+        return false;
+    }
+
+    /**
+     * Moves the reader index of the buffer past the next value of this type.
+     * Unless overridden, this fully reads the value.
+     *
+     * @param buffer buffer to skip the value in
+     * @throws Exception if the value could not be skipped
+     * @see #isSkippable()
+     */
+    public void skip(ByteBuf buffer) throws Exception {
+        read(buffer);
+    }
+
     @Override
     public String toString() {
         return getTypeName();
@@ -31,6 +31,14 @@ public class BooleanType extends Type<Boolean> implements TypeConverter<Boolean>
         super(Boolean.class);
     }
 
+    public boolean readPrimitive(ByteBuf buffer) {
+        return buffer.readBoolean();
+    }
+
+    public void writePrimitive(ByteBuf buffer, boolean object) {
+        buffer.writeBoolean(object);
+    }
+
     @Override
     public Boolean read(ByteBuf buffer) {
         return buffer.readBoolean();
@@ -60,6 +60,18 @@ public class ByteArrayType extends Type<byte[]> {
         return array;
     }
 
+    @Override
+    public boolean isSkippable() {
+        return true;
+    }
+
+    @Override
+    public void skip(final ByteBuf buffer) {
+        final int length = this.length == -1 ? Type.VAR_INT.readPrimitive(buffer) : this.length;
+        Preconditions.checkArgument(buffer.isReadable(length), "Length is fewer than readable bytes");
+        buffer.skipBytes(length);
+    }
+
     public static final class OptionalByteArrayType extends OptionalType<byte[]> {
 
         public OptionalByteArrayType() {
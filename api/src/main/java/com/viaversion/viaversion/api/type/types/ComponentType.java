@@ -53,6 +53,16 @@ public class ComponentType extends Type<JsonElement> {
         STRING_TAG.write(buffer, object.toString());
     }
 
+    @Override
+    public boolean isSkippable() {
+        return true;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer) {
+        STRING_TAG.skip(buffer);
+    }
+
     public static final class OptionalComponentType extends OptionalType<JsonElement> {
 
         public OptionalComponentType() {
@@ -59,6 +59,28 @@ public class StringType extends Type<String> {
         return string;
     }
 
+    @Override
+    public boolean isSkippable() {
+        return true;
+    }
+
+    @Override
+    public void skip(ByteBuf buffer) {
+        int len = Type.VAR_INT.readPrimitive(buffer);
+
+        Preconditions.checkArgument(len <= maxLength * MAX_CHAR_UTF_8_LENGTH,
+                "Cannot receive string longer than Short.MAX_VALUE * " + MAX_CHAR_UTF_8_LENGTH + " bytes (got %s bytes)", len);
+
+        // Every byte decodes to at most one char, so only longer byte sequences have to be decoded to check the limit
+        if (len > maxLength) {
+            int length = buffer.toString(buffer.readerIndex(), len, StandardCharsets.UTF_8).length();
+            Preconditions.checkArgument(length <= maxLength,
+                    "Cannot receive string longer than Short.MAX_VALUE characters (got %s bytes)", length);
+        }
+
+        buffer.skipBytes(len);
+    }
+
     @Override
     public void write(ByteBuf buffer, String object) throws Exception {
         if (object.length() > maxLength) {
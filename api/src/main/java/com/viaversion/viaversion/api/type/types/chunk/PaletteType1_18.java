@@ -75,8 +75,12 @@ public final class PaletteType1_18 extends Type<DataPalette> {
             final int valuesPerLong = (char) (64 / bitsPerValue);
             final int expectedLength = (type.size() + valuesPerLong - 1) / valuesPerLong;
             if (values.length == expectedLength) { // Thanks, Hypixel
-                CompactArrayUtil.iterateCompactArrayWithPadding(bitsPerValue, type.size(), values,
-                        bitsPerValue == globalPaletteBits ? palette::setIdAt : palette::setPaletteIndexAt);
+                if (bitsPerValue == globalPaletteBits) {
+                    CompactArrayUtil.iterateCompactArrayWithPadding(bitsPerValue, type.size(), values, palette::setIdAt);
+                } else {
+                    // Keep the indexes packed, they can be written back as-is if only the palette is changed
+                    palette.setPackedPaletteIndexes(bitsPerValue, values);
+                }
             }
         }
         return palette;
@@ -100,16 +104,32 @@ public final class PaletteType1_18 extends Type<DataPalette> {
             bitsPerValue = globalPaletteBits;
         }
 
+        if (bitsPerValue != globalPaletteBits && palette instanceof DataPaletteImpl) {
+            final DataPaletteImpl paletteImpl = (DataPaletteImpl) palette;
+            final long[] packedIndexes = paletteImpl.packedPaletteIndexes();
+            final int packedBitsPerValue = paletteImpl.packedBitsPerValue();
+            if (packedIndexes != null && packedBitsPerValue >= bitsPerValue && packedBitsPerValue <= type.highestBitsPerValue()) {
+                // Unchanged indexes, only write the palette and copy the data as-is
+                buffer.writeByte(packedBitsPerValue);
+                writePalette(buffer, palette, size);
+                Type.LONG_ARRAY_PRIMITIVE.write(buffer, packedIndexes);
+                return;
+            }
+        }
+
         buffer.writeByte(bitsPerValue);
 
         if (bitsPerValue != globalPaletteBits) {
-            // Write palette
-            Type.VAR_INT.writePrimitive(buffer, size);
-            for (int i = 0; i < size; i++) {
-                Type.VAR_INT.writePrimitive(buffer, palette.idByIndex(i));
-            }
+            writePalette(buffer, palette, size);
         }
 
         Type.LONG_ARRAY_PRIMITIVE.write(buffer, CompactArrayUtil.createCompactArrayWithPadding(bitsPerValue, type.size(), bitsPerValue == globalPaletteBits ? palette::idAt : palette::paletteIndexAt));
     }
+
+    private void writePalette(final ByteBuf buffer, final DataPalette palette, final int size) {
+        Type.VAR_INT.writePrimitive(buffer, size);
+        for (int i = 0; i < size; i++) {
+            Type.VAR_INT.writePrimitive(buffer, palette.idByIndex(i));
+        }
+    }
 }
@@ -0,0 +1,22 @@
+plugins {
+    id("me.champeau.jmh")
+}
+
+// The benchmarks reuse the dummy platform from the common tests
+evaluationDependsOn(projects.viaversionCommon.dependencyProject.path)
+val commonTestOutput = projects.viaversionCommon.dependencyProject.the<SourceSetContainer>()["test"].output
+
+dependencies {
+    jmh(projects.viaversionCommon)
+    jmh(commonTestOutput)
+    jmh(rootProject.libs.netty)
+    jmh(rootProject.libs.guava)
+    jmh(rootProject.libs.snakeYaml2)
+}
+
+jmh {
+    jmhVersion.set(rootProject.libs.versions.jmh)
+    // Report allocation rates next to the throughput
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
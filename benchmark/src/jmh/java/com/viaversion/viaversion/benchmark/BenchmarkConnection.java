@@ -0,0 +1,175 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.benchmark;
+
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.ProtocolInfo;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.ProtocolManager;
+import com.viaversion.viaversion.api.protocol.ProtocolPathEntry;
+import com.viaversion.viaversion.api.protocol.ProtocolPipeline;
+import com.viaversion.viaversion.api.protocol.packet.PacketType;
+import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import com.viaversion.viaversion.protocol.ProtocolPipelineImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Connection in the play state with the full protocol pipeline between a client and server version.
+ * <p>
+ * Packets sent by the protocols themselves, such as the ones following a join game packet, are dropped.
+ */
+final class BenchmarkConnection {
+
+    private final EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    private final UserConnection user;
+
+    BenchmarkConnection(final ProtocolVersion clientVersion, final ProtocolVersion serverVersion) throws Exception {
+        DummyInitializer.init();
+
+        user = new BenchmarkUserConnection(channel);
+        final ProtocolPipeline pipeline = new ProtocolPipelineImpl(user);
+        final ProtocolInfo info = user.getProtocolInfo();
+        info.setProtocolVersion(clientVersion.getVersion());
+        info.setServerProtocolVersion(serverVersion.getVersion());
+
+        // Same as the handshake handling in the base protocol
+        final ProtocolManager protocolManager = Via.getManager().getProtocolManager();
+        final List<ProtocolPathEntry> path = protocolManager.getProtocolPath(clientVersion.getVersion(), serverVersion.getVersion());
+        if (path == null) {
+            throw new IllegalArgumentException("No protocol path from " + serverVersion + " to " + clientVersion);
+        }
+
+        final List<Protocol> protocols = new ArrayList<>(path.size());
+        for (final ProtocolPathEntry entry : path) {
+            protocols.add(entry.protocol());
+            protocolManager.completeMappingDataLoading(entry.protocol().getClass());
+        }
+        pipeline.add(protocols);
+        pipeline.add(protocolManager.getBaseProtocol(serverVersion.getVersion()));
+        info.setState(State.PLAY);
+    }
+
+    UserConnection user() {
+        return user;
+    }
+
+    /**
+     * Returns a pooled buffer containing the packet written by the given writer.
+     *
+     * @param packetType packet type in the server's version
+     * @param writer     writer for the packet contents
+     * @return packet buffer to be duplicated for every transformation
+     */
+    ByteBuf packet(final PacketType packetType, final PacketWriter writer) throws Exception {
+        final ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer();
+        Type.VAR_INT.writePrimitive(buf, packetType.getId());
+        writer.write(buf);
+        return buf;
+    }
+
+    /**
+     * Transforms a clientbound packet the same way the platform encoders do.
+     *
+     * @param packet packet buffer, left untouched
+     * @return the transformed packet size, or -1 if it was cancelled
+     */
+    int transformClientbound(final ByteBuf packet) throws Exception {
+        return size(user.transformClientboundToBuffer(packet.duplicate()));
+    }
+
+    /**
+     * Transforms a serverbound packet the same way the platform decoders do.
+     *
+     * @param packet packet buffer, left untouched
+     * @return the transformed packet size, or -1 if it was cancelled
+     */
+    int transformServerbound(final ByteBuf packet) throws Exception {
+        return size(user.transformServerboundToBuffer(packet.duplicate()));
+    }
+
+    /**
+     * Runs the packet sends scheduled by the protocols.
+     */
+    void runScheduledSends() {
+        channel.runPendingTasks();
+    }
+
+    private static int size(@Nullable final ByteBuf transformed) {
+        if (transformed == null) {
+            return -1;
+        }
+
+        try {
+            return transformed.readableBytes();
+        } finally {
+            transformed.release();
+        }
+    }
+
+    private static final class BenchmarkUserConnection extends UserConnectionImpl {
+
+        BenchmarkUserConnection(final Channel channel) {
+            super(channel, false);
+        }
+
+        @Override
+        public void sendRawPacket(final ByteBuf packet) {
+            packet.release();
+        }
+
+        @Override
+        public void scheduleSendRawPacket(final ByteBuf packet) {
+            packet.release();
+        }
+
+        @Override
+        public ChannelFuture sendRawPacketFuture(final ByteBuf packet) {
+            packet.release();
+            return getChannel().newSucceededFuture();
+        }
+
+        @Override
+        public void sendRawPacketToServer(final ByteBuf packet) {
+            packet.release();
+        }
+
+        @Override
+        public void scheduleSendRawPacketToServer(final ByteBuf packet) {
+            packet.release();
+        }
+    }
+
+    @FunctionalInterface
+    interface PacketWriter {
+
+        void write(ByteBuf buf) throws Exception;
+    }
+}
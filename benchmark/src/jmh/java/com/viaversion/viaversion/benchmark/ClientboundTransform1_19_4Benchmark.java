@@ -0,0 +1,208 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.benchmark;
+
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.viaversion.viaversion.api.data.entity.EntityTracker;
+import com.viaversion.viaversion.api.minecraft.BlockChangeRecord;
+import com.viaversion.viaversion.api.minecraft.BlockChangeRecord1_16_2;
+import com.viaversion.viaversion.api.minecraft.chunks.Chunk;
+import com.viaversion.viaversion.api.minecraft.chunks.Chunk1_18;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSection;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSectionImpl;
+import com.viaversion.viaversion.api.minecraft.chunks.DataPaletteImpl;
+import com.viaversion.viaversion.api.minecraft.chunks.PaletteType;
+import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_19_4;
+import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_20_3;
+import com.viaversion.viaversion.api.minecraft.item.DataItem;
+import com.viaversion.viaversion.api.minecraft.item.Item;
+import com.viaversion.viaversion.api.minecraft.metadata.Metadata;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.api.type.types.chunk.ChunkType1_18;
+import com.viaversion.viaversion.api.type.types.version.Types1_19_4;
+import com.viaversion.viaversion.protocols.protocol1_19_4to1_19_3.ClientboundPackets1_19_4;
+import com.viaversion.viaversion.protocols.protocol1_20_2to1_20.Protocol1_20_2To1_20;
+import com.viaversion.viaversion.protocols.protocol1_20_3to1_20_2.Protocol1_20_3To1_20_2;
+import com.viaversion.viaversion.protocols.protocol1_20to1_19_4.Protocol1_20To1_19_4;
+import io.netty.buffer.ByteBuf;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Clientbound packets of a 1.19.4 server transformed for a 1.20.3 client.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientboundTransform1_19_4Benchmark {
+
+    private static final int ENTITY_ID = 10;
+    private static final int SECTION_HEIGHT = 24;
+    private static final int BIOMES_SENT = 64;
+    private BenchmarkConnection connection;
+    private ByteBuf chunkData;
+    private ByteBuf entityMetadata;
+    private ByteBuf windowItems;
+    private ByteBuf systemChat;
+    private ByteBuf multiBlockChange;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        connection = new BenchmarkConnection(ProtocolVersion.v1_20_3, ProtocolVersion.v1_19_4);
+
+        // Data usually set by the join game packet
+        for (final EntityTracker tracker : connection.user().getEntityTrackers()) {
+            tracker.setCurrentWorldSectionHeight(SECTION_HEIGHT);
+            tracker.setCurrentMinY(-64);
+            tracker.setBiomesSent(BIOMES_SENT);
+        }
+        connection.user().getEntityTracker(Protocol1_20To1_19_4.class).addEntity(ENTITY_ID, EntityTypes1_19_4.ZOMBIE);
+        connection.user().getEntityTracker(Protocol1_20_2To1_20.class).addEntity(ENTITY_ID, EntityTypes1_19_4.ZOMBIE);
+        connection.user().getEntityTracker(Protocol1_20_3To1_20_2.class).addEntity(ENTITY_ID, EntityTypes1_20_3.ZOMBIE);
+
+        chunkData = connection.packet(ClientboundPackets1_19_4.CHUNK_DATA, buf -> {
+            final ChunkSection[] sections = new ChunkSection[SECTION_HEIGHT];
+            for (int i = 0; i < sections.length; i++) {
+                final ChunkSection section = new ChunkSectionImpl(false);
+                for (int j = 0; j < ChunkSection.SIZE; j++) {
+                    section.palette(PaletteType.BLOCKS).setIdAt(j, 1 + (j + i) % 12);
+                }
+                section.setNonAirBlocksCount(ChunkSection.SIZE);
+
+                final DataPaletteImpl biomePalette = new DataPaletteImpl(ChunkSection.BIOME_SIZE);
+                biomePalette.addId(0);
+                section.addPalette(PaletteType.BIOMES, biomePalette);
+                sections[i] = section;
+            }
+
+            final Chunk chunk = new Chunk1_18(0, 0, sections, new CompoundTag(), new ArrayList<>());
+            new ChunkType1_18(SECTION_HEIGHT, 15, 6).write(buf, chunk);
+            buf.writeBoolean(true); // Trust edges
+            for (int i = 0; i < 4; i++) {
+                Type.LONG_ARRAY_PRIMITIVE.write(buf, new long[]{0}); // Light masks
+            }
+            Type.VAR_INT.writePrimitive(buf, 0); // Sky light
+            Type.VAR_INT.writePrimitive(buf, 0); // Block light
+        });
+
+        entityMetadata = connection.packet(ClientboundPackets1_19_4.ENTITY_METADATA, buf -> {
+            Type.VAR_INT.writePrimitive(buf, ENTITY_ID);
+            final List<Metadata> metadata = Arrays.asList(
+                    new Metadata(0, Types1_19_4.META_TYPES.byteType, (byte) 0),
+                    new Metadata(2, Types1_19_4.META_TYPES.optionalComponentType, textComponent("Zombie")),
+                    new Metadata(3, Types1_19_4.META_TYPES.booleanType, true),
+                    new Metadata(9, Types1_19_4.META_TYPES.floatType, 20F)
+            );
+            Types1_19_4.METADATA_LIST.write(buf, metadata);
+        });
+
+        windowItems = connection.packet(ClientboundPackets1_19_4.WINDOW_ITEMS, buf -> {
+            Type.UNSIGNED_BYTE.write(buf, (short) 0); // Window id
+            Type.VAR_INT.writePrimitive(buf, 1); // State id
+            final Item[] items = new Item[46];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = new DataItem(1 + i, (byte) 1, (short) 0, null);
+            }
+            Type.ITEM1_13_2_ARRAY.write(buf, items);
+            Type.ITEM1_13_2.write(buf, null); // Carried item
+        });
+
+        systemChat = connection.packet(ClientboundPackets1_19_4.SYSTEM_CHAT, buf -> {
+            final JsonObject component = textComponent("Hello ");
+            final JsonArray extra = new JsonArray();
+            final JsonObject name = textComponent("world");
+            name.addProperty("color", "gold");
+            name.addProperty("bold", true);
+            extra.add(name);
+            component.add("extra", extra);
+            Type.COMPONENT.write(buf, component);
+            buf.writeBoolean(false); // Overlay
+        });
+
+        multiBlockChange = connection.packet(ClientboundPackets1_19_4.MULTI_BLOCK_CHANGE, buf -> {
+            buf.writeLong(0); // Section position
+            buf.writeBoolean(false); // Suppress light updates
+            final BlockChangeRecord[] records = new BlockChangeRecord[64];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = new BlockChangeRecord1_16_2(i & 15, i >> 4, 0, 1 + i);
+            }
+            Type.VAR_LONG_BLOCK_CHANGE_RECORD_ARRAY.write(buf, records);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        chunkData.release();
+        entityMetadata.release();
+        windowItems.release();
+        systemChat.release();
+        multiBlockChange.release();
+    }
+
+    @Benchmark
+    public int chunkData() throws Exception {
+        return connection.transformClientbound(chunkData);
+    }
+
+    @Benchmark
+    public int entityMetadata() throws Exception {
+        return connection.transformClientbound(entityMetadata);
+    }
+
+    @Benchmark
+    public int windowItems() throws Exception {
+        return connection.transformClientbound(windowItems);
+    }
+
+    @Benchmark
+    public int systemChat() throws Exception {
+        return connection.transformClientbound(systemChat);
+    }
+
+    @Benchmark
+    public int multiBlockChange() throws Exception {
+        return connection.transformClientbound(multiBlockChange);
+    }
+
+    private static JsonObject textComponent(final String text) {
+        final JsonObject component = new JsonObject();
+        component.add("text", new JsonPrimitive(text));
+        return component;
+    }
+}
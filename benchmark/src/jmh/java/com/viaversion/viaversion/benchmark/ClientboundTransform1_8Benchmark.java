@@ -0,0 +1,226 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.benchmark;
+
+import com.viaversion.viaversion.api.minecraft.BlockChangeRecord;
+import com.viaversion.viaversion.api.minecraft.BlockChangeRecord1_8;
+import com.viaversion.viaversion.api.minecraft.Environment;
+import com.viaversion.viaversion.api.minecraft.chunks.BaseChunk;
+import com.viaversion.viaversion.api.minecraft.chunks.Chunk;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSection;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSectionImpl;
+import com.viaversion.viaversion.api.minecraft.chunks.ChunkSectionLight;
+import com.viaversion.viaversion.api.minecraft.chunks.PaletteType;
+import com.viaversion.viaversion.api.minecraft.item.DataItem;
+import com.viaversion.viaversion.api.minecraft.item.Item;
+import com.viaversion.viaversion.api.minecraft.metadata.Metadata;
+import com.viaversion.viaversion.api.minecraft.metadata.types.MetaType1_8;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.api.type.types.chunk.ChunkType1_8;
+import com.viaversion.viaversion.api.type.types.version.Types1_8;
+import com.viaversion.viaversion.protocols.protocol1_20_2to1_20.packet.ServerboundConfigurationPackets1_20_2;
+import com.viaversion.viaversion.protocols.protocol1_20_2to1_20.storage.ConfigurationState;
+import com.viaversion.viaversion.protocols.protocol1_8.ClientboundPackets1_8;
+import io.netty.buffer.ByteBuf;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Clientbound packets of a 1.8 server transformed for a 1.20.3 client, going through the full protocol path.
+ * <p>
+ * The world and entity state of every protocol is built by replaying a join game and spawn packet first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientboundTransform1_8Benchmark {
+
+    private static final int PLAYER_ID = 1;
+    private static final int ENTITY_ID = 10;
+    private static final int ZOMBIE_TYPE = 54;
+    private static final int SECTIONS_SENT = 8;
+    private BenchmarkConnection connection;
+    private ByteBuf chunkData;
+    private ByteBuf entityMetadata;
+    private ByteBuf multiBlockChange;
+    private ByteBuf chatMessage;
+    private ByteBuf windowItems;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        connection = new BenchmarkConnection(ProtocolVersion.v1_20_3, ProtocolVersion.v1_8);
+        join();
+
+        chunkData = connection.packet(ClientboundPackets1_8.CHUNK_DATA, buf -> {
+            final ChunkSection[] sections = new ChunkSection[16];
+            for (int i = 0; i < SECTIONS_SENT; i++) {
+                final ChunkSection section = new ChunkSectionImpl(true);
+                for (int j = 0; j < ChunkSection.SIZE; j++) {
+                    // Block id and data packed as id << 4 | data
+                    section.palette(PaletteType.BLOCKS).setIdAt(j, (1 + (j + i) % 5) << 4);
+                }
+                section.getLight().setSkyLight(new byte[ChunkSectionLight.LIGHT_LENGTH]);
+                sections[i] = section;
+            }
+
+            final int bitmask = (1 << SECTIONS_SENT) - 1;
+            final Chunk chunk = new BaseChunk(0, 0, true, false, bitmask, sections, new int[256], new ArrayList<>());
+            ChunkType1_8.forEnvironment(Environment.NORMAL).write(buf, chunk);
+        });
+
+        entityMetadata = connection.packet(ClientboundPackets1_8.ENTITY_METADATA, buf -> {
+            Type.VAR_INT.writePrimitive(buf, ENTITY_ID);
+            Types1_8.METADATA_LIST.write(buf, zombieMetadata());
+        });
+
+        multiBlockChange = connection.packet(ClientboundPackets1_8.MULTI_BLOCK_CHANGE, buf -> {
+            buf.writeInt(0); // Chunk X
+            buf.writeInt(0); // Chunk Z
+            final BlockChangeRecord[] records = new BlockChangeRecord[64];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = new BlockChangeRecord1_8(i & 15, i >> 4, 0, (1 + i % 5) << 4);
+            }
+            Type.BLOCK_CHANGE_RECORD_ARRAY.write(buf, records);
+        });
+
+        chatMessage = connection.packet(ClientboundPackets1_8.CHAT_MESSAGE, buf -> {
+            Type.STRING.write(buf, "{\"text\":\"Hello \",\"extra\":[{\"text\":\"world\",\"color\":\"gold\",\"bold\":true}]}");
+            buf.writeByte(1); // Position
+        });
+
+        windowItems = connection.packet(ClientboundPackets1_8.WINDOW_ITEMS, buf -> {
+            Type.UNSIGNED_BYTE.write(buf, (short) 0); // Window id
+            final Item[] items = new Item[45];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = new DataItem(1 + i, (byte) 1, (short) 0, null);
+            }
+            Type.ITEM1_8_SHORT_ARRAY.write(buf, items);
+        });
+    }
+
+    private void join() throws Exception {
+        // Where the 1.20.2 protocol is after the client acknowledged the login
+        connection.user().getProtocolInfo().setClientState(com.viaversion.viaversion.api.protocol.packet.State.CONFIGURATION);
+        connection.user().get(ConfigurationState.class).setBridgePhase(ConfigurationState.BridgePhase.CONFIGURATION);
+
+        replayClientbound(connection.packet(ClientboundPackets1_8.JOIN_GAME, buf -> {
+            buf.writeInt(PLAYER_ID);
+            buf.writeByte(0); // Gamemode
+            buf.writeByte(0); // Dimension
+            buf.writeByte(1); // Difficulty
+            buf.writeByte(20); // Max players
+            Type.STRING.write(buf, "default"); // Level type
+            buf.writeBoolean(false); // Reduced debug info
+        }));
+
+        // The join game packet is held back until the client finished the configuration phase
+        final ByteBuf finishConfiguration = connection.packet(ServerboundConfigurationPackets1_20_2.FINISH_CONFIGURATION, buf -> {
+        });
+        try {
+            connection.transformServerbound(finishConfiguration);
+        } finally {
+            finishConfiguration.release();
+        }
+
+        replayClientbound(connection.packet(ClientboundPackets1_8.SPAWN_MOB, buf -> {
+            Type.VAR_INT.writePrimitive(buf, ENTITY_ID);
+            buf.writeByte(ZOMBIE_TYPE);
+            buf.writeInt(0); // X
+            buf.writeInt(64 * 32); // Y
+            buf.writeInt(0); // Z
+            buf.writeByte(0); // Yaw
+            buf.writeByte(0); // Pitch
+            buf.writeByte(0); // Head pitch
+            buf.writeShort(0); // Velocity X
+            buf.writeShort(0); // Velocity Y
+            buf.writeShort(0); // Velocity Z
+            Types1_8.METADATA_LIST.write(buf, zombieMetadata());
+        }));
+        connection.runScheduledSends();
+    }
+
+    private void replayClientbound(final ByteBuf packet) throws Exception {
+        try {
+            connection.transformClientbound(packet);
+        } finally {
+            packet.release();
+        }
+    }
+
+    private static List<Metadata> zombieMetadata() {
+        return Arrays.asList(
+                new Metadata(0, MetaType1_8.Byte, (byte) 0),
+                new Metadata(2, MetaType1_8.String, "Zombie"),
+                new Metadata(3, MetaType1_8.Byte, (byte) 1),
+                new Metadata(6, MetaType1_8.Float, 20F),
+                new Metadata(12, MetaType1_8.Byte, (byte) 0)
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        chunkData.release();
+        entityMetadata.release();
+        multiBlockChange.release();
+        chatMessage.release();
+        windowItems.release();
+    }
+
+    @Benchmark
+    public int chunkData() throws Exception {
+        return connection.transformClientbound(chunkData);
+    }
+
+    @Benchmark
+    public int entityMetadata() throws Exception {
+        return connection.transformClientbound(entityMetadata);
+    }
+
+    @Benchmark
+    public int multiBlockChange() throws Exception {
+        return connection.transformClientbound(multiBlockChange);
+    }
+
+    @Benchmark
+    public int chatMessage() throws Exception {
+        return connection.transformClientbound(chatMessage);
+    }
+
+    @Benchmark
+    public int windowItems() throws Exception {
+        return connection.transformClientbound(windowItems);
+    }
+}
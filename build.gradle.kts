@@ -20,12 +20,15 @@ val main = setOf(
     projects.viaversionVelocity
 ).map { it.dependencyProject }
 
-// val special = setOf().map { it.dependencyProject }
+// Not published
+val special = setOf(
+    projects.viaversionBenchmark
+).map { it.dependencyProject }
 
 subprojects {
     when (this) {
         in main -> plugins.apply("via.shadow-conventions")
-        // in special -> plugins.apply("via.base-conventions")
+        in special -> plugins.apply("via.base-conventions")
         else -> plugins.apply("via.standard-conventions")
     }
 }
@@ -40,7 +40,7 @@ public final class BukkitDecodeHandler extends MessageToMessageDecoder<ByteBuf>
 
     @Override
     protected void decode(final ChannelHandlerContext ctx, final ByteBuf bytebuf, final List<Object> out) throws Exception {
-        if (!connection.checkServerboundPacket()) {
+        if (!connection.checkServerboundPacket(bytebuf)) {
             throw CancelDecoderException.generate(null);
         }
         if (!connection.shouldTransformPacket()) {
@@ -48,12 +48,10 @@ public final class BukkitDecodeHandler extends MessageToMessageDecoder<ByteBuf>
             return;
         }
 
-        final ByteBuf transformedBuf = ctx.alloc().buffer().writeBytes(bytebuf);
-        try {
-            connection.transformIncoming(transformedBuf, CancelDecoderException::generate);
-            out.add(transformedBuf.retain());
-        } finally {
-            transformedBuf.release();
+        final ByteBuf transformedBuf = connection.transformIncomingToBuffer(bytebuf);
+        if (transformedBuf != null) {
+            // Cancelled packets are simply not passed on
+            out.add(transformedBuf);
         }
     }
 
@@ -51,21 +51,30 @@ public final class BukkitEncodeHandler extends MessageToMessageEncoder<ByteBuf>
             return;
         }
 
-        final ByteBuf transformedBuf = ctx.alloc().buffer().writeBytes(bytebuf);
+        final boolean needsCompression = !handledCompression && handleCompressionOrder(ctx);
+        final ByteBuf packet = needsCompression ? decompress(ctx, bytebuf) : bytebuf;
+        final ByteBuf transformedBuf;
         try {
-            final boolean needsCompression = !handledCompression && handleCompressionOrder(ctx, transformedBuf);
-            connection.transformClientbound(transformedBuf, CancelEncoderException::generate);
-            if (needsCompression) {
-                recompress(ctx, transformedBuf);
+            transformedBuf = connection.transformClientboundToBuffer(packet);
+        } finally {
+            if (packet != bytebuf) {
+                packet.release();
             }
+        }
+        if (transformedBuf == null) {
+            // Encoders have to produce a message, so this still needs the exception
+            throw CancelEncoderException.generate(null);
+        }
 
-            out.add(transformedBuf.retain());
+        try {
+            // The transformed buffer may be the retained message, so compress into a new one
+            out.add(needsCompression ? compress(ctx, transformedBuf) : transformedBuf.retain());
         } finally {
             transformedBuf.release();
         }
     }
 
-    private boolean handleCompressionOrder(final ChannelHandlerContext ctx, final ByteBuf buf) throws Exception {
+    private boolean handleCompressionOrder(final ChannelHandlerContext ctx) {
         final ChannelPipeline pipeline = ctx.pipeline();
         final List<String> names = pipeline.names();
         final int compressorIndex = names.indexOf(BukkitChannelInitializer.MINECRAFT_COMPRESSOR);
@@ -76,13 +85,6 @@ public final class BukkitEncodeHandler extends MessageToMessageEncoder<ByteBuf>
         handledCompression = true;
         if (compressorIndex > names.indexOf(BukkitChannelInitializer.VIA_ENCODER)) {
             // Need to decompress this packet due to bad order
-            final ByteBuf decompressed = (ByteBuf) PipelineUtil.callDecode((ByteToMessageDecoder) pipeline.get(BukkitChannelInitializer.MINECRAFT_DECOMPRESSOR), ctx, buf).get(0);
-            try {
-                buf.clear().writeBytes(decompressed);
-            } finally {
-                decompressed.release();
-            }
-
             pipeline.addAfter(BukkitChannelInitializer.MINECRAFT_COMPRESSOR, BukkitChannelInitializer.VIA_ENCODER, pipeline.remove(BukkitChannelInitializer.VIA_ENCODER));
             pipeline.addAfter(BukkitChannelInitializer.MINECRAFT_DECOMPRESSOR, BukkitChannelInitializer.VIA_DECODER, pipeline.remove(BukkitChannelInitializer.VIA_DECODER));
             return true;
@@ -90,14 +92,30 @@ public final class BukkitEncodeHandler extends MessageToMessageEncoder<ByteBuf>
         return false;
     }
 
-    private void recompress(final ChannelHandlerContext ctx, final ByteBuf buf) throws Exception {
+    private static ByteBuf decompress(final ChannelHandlerContext ctx, final ByteBuf buf) throws Exception {
+        final ByteBuf output = (ByteBuf) PipelineUtil.callDecode((ByteToMessageDecoder) ctx.pipeline().get(BukkitChannelInitializer.MINECRAFT_DECOMPRESSOR), ctx, buf).get(0);
+        final ByteBuf decompressed = ctx.alloc().buffer(output.readableBytes());
+        try {
+            // The decoder output may share memory with the message
+            decompressed.writeBytes(output);
+        } catch (final Throwable t) {
+            decompressed.release();
+            throw t;
+        } finally {
+            output.release();
+        }
+        return decompressed;
+    }
+
+    private static ByteBuf compress(final ChannelHandlerContext ctx, final ByteBuf buf) throws Exception {
         final ByteBuf compressed = ctx.alloc().buffer();
         try {
             PipelineUtil.callEncode((MessageToByteEncoder<ByteBuf>) ctx.pipeline().get(BukkitChannelInitializer.MINECRAFT_COMPRESSOR), ctx, buf, compressed);
-            buf.clear().writeBytes(compressed);
-        } finally {
+        } catch (final Throwable t) {
             compressed.release();
+            throw t;
         }
+        return compressed;
     }
 
     @Override
@@ -40,18 +40,16 @@ public class BungeeDecodeHandler extends MessageToMessageDecoder<ByteBuf> {
             throw CancelDecoderException.generate(null);
         }
 
-        if (!info.checkServerboundPacket()) throw CancelDecoderException.generate(null);
+        if (!info.checkServerboundPacket(bytebuf)) throw CancelDecoderException.generate(null);
         if (!info.shouldTransformPacket()) {
             out.add(bytebuf.retain());
             return;
         }
 
-        ByteBuf transformedBuf = ctx.alloc().buffer().writeBytes(bytebuf);
-        try {
-            info.transformServerbound(transformedBuf, CancelDecoderException::generate);
-            out.add(transformedBuf.retain());
-        } finally {
-            transformedBuf.release();
+        ByteBuf transformedBuf = info.transformServerboundToBuffer(bytebuf);
+        if (transformedBuf != null) {
+            // Cancelled packets are simply not passed on
+            out.add(transformedBuf);
         }
     }
 
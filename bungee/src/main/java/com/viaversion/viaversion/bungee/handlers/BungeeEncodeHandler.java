@@ -48,37 +48,33 @@ public class BungeeEncodeHandler extends MessageToMessageEncoder<ByteBuf> {
             return;
         }
 
-        ByteBuf transformedBuf = ctx.alloc().buffer().writeBytes(bytebuf);
+        boolean needsCompress = handleCompressionOrder(ctx);
+        ByteBuf packet = needsCompress ? decompress(ctx, bytebuf) : bytebuf;
+        ByteBuf transformedBuf;
         try {
-            boolean needsCompress = handleCompressionOrder(ctx, transformedBuf);
-            info.transformClientbound(transformedBuf, CancelEncoderException::generate);
-
-            if (needsCompress) {
-                recompress(ctx, transformedBuf);
+            transformedBuf = info.transformClientboundToBuffer(packet);
+        } finally {
+            if (packet != bytebuf) {
+                packet.release();
             }
+        }
+        if (transformedBuf == null) {
+            // Encoders have to produce a message, so this still needs the exception
+            throw CancelEncoderException.generate(null);
+        }
 
-            out.add(transformedBuf.retain());
+        try {
+            // The transformed buffer may be the retained message, so compress into a new one
+            out.add(needsCompress ? BungeePipelineUtil.compress(ctx, transformedBuf) : transformedBuf.retain());
         } finally {
             transformedBuf.release();
         }
     }
 
-    private boolean handleCompressionOrder(ChannelHandlerContext ctx, ByteBuf buf) {
+    private boolean handleCompressionOrder(ChannelHandlerContext ctx) {
         boolean needsCompress = false;
         if (!handledCompression && ctx.pipeline().names().indexOf("compress") > ctx.pipeline().names().indexOf("via-encoder")) {
-            // Need to decompress this packet due to bad order
-            ByteBuf decompressed = BungeePipelineUtil.decompress(ctx, buf);
-
-            // Ensure the buffer wasn't reused
-            if (buf != decompressed) {
-                try {
-                    buf.clear().writeBytes(decompressed);
-                } finally {
-                    decompressed.release();
-                }
-            }
-
-            // Reorder the pipeline
+            // Need to decompress this packet due to bad order, reorder the pipeline
             ChannelHandler decoder = ctx.pipeline().get("via-decoder");
             ChannelHandler encoder = ctx.pipeline().get("via-encoder");
             ctx.pipeline().remove(decoder);
@@ -91,13 +87,19 @@ public class BungeeEncodeHandler extends MessageToMessageEncoder<ByteBuf> {
         return needsCompress;
     }
 
-    private void recompress(ChannelHandlerContext ctx, ByteBuf buf) {
-        ByteBuf compressed = BungeePipelineUtil.compress(ctx, buf);
+    private static ByteBuf decompress(ChannelHandlerContext ctx, ByteBuf buf) {
+        ByteBuf output = BungeePipelineUtil.decompress(ctx, buf);
+        // The decoder may return the message itself or a slice of it
+        ByteBuf decompressed = ctx.alloc().buffer(output.readableBytes());
         try {
-            buf.clear().writeBytes(compressed);
+            decompressed.writeBytes(output);
         } finally {
-            compressed.release();
+            // Ensure the buffer wasn't reused
+            if (output != buf) {
+                output.release();
+            }
         }
+        return decompressed;
     }
 
     @Override
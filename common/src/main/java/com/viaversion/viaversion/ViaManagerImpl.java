@@ -29,6 +29,7 @@ import com.viaversion.viaversion.api.platform.ViaPlatform;
 import com.viaversion.viaversion.api.platform.ViaPlatformLoader;
 import com.viaversion.viaversion.api.platform.providers.ViaProviders;
 import com.viaversion.viaversion.api.protocol.ProtocolManager;
+import com.viaversion.viaversion.api.protocol.packet.PacketTracker;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.api.protocol.version.ServerProtocolVersion;
 import com.viaversion.viaversion.api.scheduler.Scheduler;
@@ -49,6 +50,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -96,6 +98,11 @@ public class ViaManagerImpl implements ViaManager {
         // Register protocols
         protocolManager.registerProtocols();
 
+        // Coarse clock for the packet limiter, only needed if any limits are configured
+        if (PacketTracker.hasLimits()) {
+            scheduler.scheduleRepeating(PacketTracker::tickClock, 0, 10, TimeUnit.MILLISECONDS);
+        }
+
         // Inject
         try {
             injector.inject();
@@ -159,6 +166,8 @@ public class ViaManagerImpl implements ViaManager {
 
         // Load Platform
         loader.load();
+        // Start loading deferred mapping data, including that of protocols registered by addons
+        protocolManager.loadReachableMappingData();
         // Common tasks
         mappingLoadingTask = Via.getPlatform().runRepeatingAsync(() -> {
             if (protocolManager.checkForMappingCompletion() && mappingLoadingTask != null) {
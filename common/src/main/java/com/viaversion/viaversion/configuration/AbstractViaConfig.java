@@ -21,6 +21,7 @@ import com.google.gson.JsonElement;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.configuration.ViaVersionConfig;
 import com.viaversion.viaversion.api.minecraft.WorldIdentifiers;
+import com.viaversion.viaversion.api.protocol.packet.PacketTracker;
 import com.viaversion.viaversion.api.protocol.version.BlockedProtocolVersions;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.protocol.BlockedProtocolVersionsImpl;
@@ -28,6 +29,7 @@ import com.viaversion.viaversion.util.Config;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +57,7 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
     private int warningPPS;
     private int maxPPSWarnings;
     private String maxPPSWarningsKickMessage;
+    private Map<String, Integer> packetWeights = Collections.emptyMap();
     private boolean sendSupportedVersions;
     private boolean simulatePlayerTick;
     private boolean itemCache;
@@ -69,6 +72,8 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
     private String blockedDisconnectMessage;
     private String reloadDisconnectMessage;
     private boolean suppressConversionWarnings;
+    private boolean lazyLoadMappings;
+    private boolean offHeapMappings;
     private boolean disable1_13TabComplete;
     private boolean minimizeCooldown;
     private boolean teamColourFix;
@@ -89,6 +94,8 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
     private JsonElement resourcePack1_17PromptMessage;
     private WorldIdentifiers map1_16WorldNames;
     private boolean cache1_17Light;
+    private int shared1_17LightCacheSize;
+    private boolean memoizeJoinPackets;
 
     protected AbstractViaConfig(final File configFile) {
         super(configFile);
@@ -98,6 +105,7 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
     public void reload() {
         super.reload();
         loadFields();
+        PacketTracker.updateLimits(this);
     }
 
     protected void loadFields() {
@@ -120,6 +128,7 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
         warningPPS = getInt("tracking-warning-pps", 120);
         maxPPSWarnings = getInt("tracking-max-warnings", 3);
         maxPPSWarningsKickMessage = getString("tracking-max-kick-msg", "You are sending too many packets, :(");
+        packetWeights = loadPacketWeights();
         sendSupportedVersions = getBoolean("send-supported-versions", false);
         simulatePlayerTick = getBoolean("simulate-pt", true);
         itemCache = getBoolean("item-cache", true);
@@ -136,6 +145,9 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
         minimizeCooldown = getBoolean("minimize-cooldown", true);
         teamColourFix = getBoolean("team-colour-fix", true);
         suppressConversionWarnings = getBoolean("suppress-conversion-warnings", false);
+        lazyLoadMappings = getBoolean("lazy-load-mappings", false);
+        offHeapMappings = getBoolean("off-heap-mappings", false);
+        memoizeJoinPackets = getBoolean("memoize-join-packets", false);
         disable1_13TabComplete = getBoolean("disable-1_13-auto-complete", false);
         serversideBlockConnections = getBoolean("serverside-blockconnections", true);
         reduceBlockStorageMemory = getBoolean("reduce-blockstorage-memory", false);
@@ -157,6 +169,20 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
                 worlds.getOrDefault("nether", WorldIdentifiers.NETHER_DEFAULT),
                 worlds.getOrDefault("end", WorldIdentifiers.END_DEFAULT));
         cache1_17Light = getBoolean("cache-1_17-light", true);
+        shared1_17LightCacheSize = getInt("shared-1_17-light-cache-size", 64);
+    }
+
+    private Map<String, Integer> loadPacketWeights() {
+        final Map<String, Object> weights = get("max-pps-packet-weights", Map.class, new HashMap<String, Object>());
+        final Map<String, Integer> packetWeights = new HashMap<>(weights.size());
+        for (final Map.Entry<String, Object> entry : weights.entrySet()) {
+            if (entry.getValue() instanceof Integer && (Integer) entry.getValue() > 0) {
+                packetWeights.put(entry.getKey(), (Integer) entry.getValue());
+            } else {
+                Via.getPlatform().getLogger().warning("Invalid packet weight for " + entry.getKey() + " in max-pps-packet-weights: " + entry.getValue());
+            }
+        }
+        return Collections.unmodifiableMap(packetWeights);
     }
 
     private BlockedProtocolVersions loadBlockedProtocolVersions() {
@@ -330,6 +356,11 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
         return maxPPSWarningsKickMessage;
     }
 
+    @Override
+    public Map<String, Integer> getPacketWeights() {
+        return packetWeights;
+    }
+
     @Override
     public boolean isSendSupportedVersions() {
         return sendSupportedVersions;
@@ -421,6 +452,21 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
         return suppressConversionWarnings;
     }
 
+    @Override
+    public boolean isLazyLoadMappings() {
+        return lazyLoadMappings;
+    }
+
+    @Override
+    public boolean isOffHeapMappings() {
+        return offHeapMappings;
+    }
+
+    @Override
+    public boolean isMemoizeJoinPackets() {
+        return memoizeJoinPackets;
+    }
+
     @Override
     public boolean isDisable1_13AutoComplete() {
         return disable1_13TabComplete;
@@ -526,6 +572,11 @@ public abstract class AbstractViaConfig extends Config implements ViaVersionConf
         return cache1_17Light;
     }
 
+    @Override
+    public int getShared1_17LightCacheSize() {
+        return shared1_17LightCacheSize;
+    }
+
     @Override
     public boolean isArmorToggleFix() {
         return false;
@@ -0,0 +1,173 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.connection;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.viaversion.viaversion.api.configuration.ViaVersionConfig;
+import com.viaversion.viaversion.api.platform.providers.ViaProviders;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.packet.State;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Shared transformation results of large clientbound packets, keyed by the exact packet content and pipeline.
+ * <p>
+ * Only used for packets whose whole route consists of handlers marked as memoizable, see
+ * {@link com.viaversion.viaversion.api.protocol.remapper.PacketHandler#isMemoizable()}. Since the full content
+ * is compared on lookup, a server sending different data (e.g. after a datapack reload) simply results in a miss.
+ * Handlers may still depend on providers and config options, so both are part of the {@link Pipeline} identity.
+ */
+final class PacketMemo {
+    static final int MIN_PACKET_SIZE = 1024;
+    private static final long MAX_WEIGHT = 32L * 1024 * 1024;
+    private final Cache<Key, byte[]> cache = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_WEIGHT)
+            .weigher((Key key, byte[] transformed) -> key.content.readableBytes() + transformed.length)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * Returns the memoized transformed packet for the given key.
+     *
+     * @param key packet key, may still reference the packet buffer
+     * @return transformed packet including its id, or null if not present
+     */
+    byte @Nullable [] get(final Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Memoizes the transformed packet for the given key.
+     *
+     * @param key         packet key owning its content, see {@link Key#copy()}
+     * @param transformed transformed packet including its id, must not be modified afterwards
+     */
+    void put(final Key key, final byte[] transformed) {
+        cache.put(key, transformed);
+    }
+
+    /**
+     * Identity of the protocols a packet passes through and the providers and config they may read.
+     */
+    static final class Pipeline {
+        private final Class<?>[] protocols;
+        private final ViaProviders providers;
+        private final int providerModifications;
+        private final Object configValues;
+        private final int hashCode;
+
+        Pipeline(final List<Protocol> protocols, final ViaProviders providers, final ViaVersionConfig config) {
+            this.protocols = new Class<?>[protocols.size()];
+            for (int i = 0; i < protocols.size(); i++) {
+                this.protocols[i] = protocols.get(i).getClass();
+            }
+            this.providers = providers;
+            this.providerModifications = providers.modifications();
+            // Replaced on every reload
+            this.configValues = config.getValues();
+            this.hashCode = 31 * (31 * (31 * Arrays.hashCode(this.protocols) + System.identityHashCode(providers))
+                    + providerModifications) + System.identityHashCode(configValues);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Pipeline pipeline = (Pipeline) o;
+            return hashCode == pipeline.hashCode
+                    && providers == pipeline.providers
+                    && providerModifications == pipeline.providerModifications
+                    && configValues == pipeline.configValues
+                    && Arrays.equals(protocols, pipeline.protocols);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    static final class Key {
+        private final Pipeline pipeline;
+        private final int clientProtocol;
+        private final int serverProtocol;
+        private final State state;
+        private final int packetId;
+        private final ByteBuf content;
+        private final int hashCode;
+
+        /**
+         * Creates a key referencing the readable bytes of the given buffer without copying them.
+         *
+         * @param content buffer containing the packet data, must not be modified while the key is in use
+         */
+        Key(final Pipeline pipeline, final int clientProtocol, final int serverProtocol, final State state, final int packetId, final ByteBuf content) {
+            this(pipeline, clientProtocol, serverProtocol, state, packetId, content.slice(),
+                    31 * (31 * (31 * (31 * (31 * pipeline.hashCode() + clientProtocol) + serverProtocol) + state.ordinal()) + packetId)
+                            + ByteBufUtil.hashCode(content));
+        }
+
+        private Key(final Pipeline pipeline, final int clientProtocol, final int serverProtocol, final State state,
+                    final int packetId, final ByteBuf content, final int hashCode) {
+            this.pipeline = pipeline;
+            this.clientProtocol = clientProtocol;
+            this.serverProtocol = serverProtocol;
+            this.state = state;
+            this.packetId = packetId;
+            this.content = content;
+            this.hashCode = hashCode;
+        }
+
+        /**
+         * Returns a key owning a copy of the packet data, to be stored after a miss.
+         *
+         * @return key with copied content
+         */
+        Key copy() {
+            final byte[] bytes = new byte[content.readableBytes()];
+            content.getBytes(content.readerIndex(), bytes);
+            return new Key(pipeline, clientProtocol, serverProtocol, state, packetId, Unpooled.wrappedBuffer(bytes), hashCode);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && clientProtocol == key.clientProtocol
+                    && serverProtocol == key.serverProtocol
+                    && state == key.state
+                    && packetId == key.packetId
+                    && pipeline.equals(key.pipeline)
+                    && ByteBufUtil.equals(content, key.content);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
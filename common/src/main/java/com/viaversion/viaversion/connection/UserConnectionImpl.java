@@ -34,6 +34,8 @@ import com.viaversion.viaversion.protocol.packet.PacketWrapperImpl;
 import com.viaversion.viaversion.util.ChatColorUtil;
 import com.viaversion.viaversion.util.PipelineUtil;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
@@ -51,6 +53,13 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class UserConnectionImpl implements UserConnection {
     private static final AtomicLong IDS = new AtomicLong();
+    /**
+     * Marker returned by the internal transform method for cancelled packets.
+     */
+    private static final ByteBuf CANCELLED = Unpooled.buffer(0, 0);
+    private static final PacketMemo PACKET_MEMO = new PacketMemo();
+    // Smaller packets are cheaper to copy than to wrap in a composite buffer
+    private static final int MIN_SLICED_PACKET_SIZE = 256;
     private final long id = IDS.incrementAndGet();
     private final Map<Class<?>, StorableObject> storedObjects = new ConcurrentHashMap<>();
     private final Map<Class<? extends Protocol>, EntityTracker> entityTrackers = new HashMap<>();
@@ -285,11 +294,27 @@ public class UserConnectionImpl implements UserConnection {
 
     @Override
     public boolean checkServerboundPacket() {
+        return checkServerboundPacket(-1);
+    }
+
+    @Override
+    public boolean checkServerboundPacket(final ByteBuf packet) {
+        // Only read the packet id if it changes the packet's weight
+        if (packetLimiterEnabled && packetTracker.hasPacketWeights() && packet.isReadable() && protocolInfo.getClientState() == State.PLAY) {
+            final int readerIndex = packet.readerIndex();
+            final int packetId = Type.VAR_INT.readPrimitive(packet);
+            packet.readerIndex(readerIndex);
+            return checkServerboundPacket(packetId);
+        }
+        return checkServerboundPacket(-1);
+    }
+
+    private boolean checkServerboundPacket(final int packetId) {
         if (pendingDisconnect) {
             return false;
         }
         // Increment received + Check PPS
-        return !packetLimiterEnabled || !packetTracker.incrementReceived() || !packetTracker.exceedsMaxPPS();
+        return !packetLimiterEnabled || !packetTracker.checkReceived(packetId);
     }
 
     @Override
@@ -313,32 +338,165 @@ public class UserConnectionImpl implements UserConnection {
         transform(buf, Direction.SERVERBOUND, cancelSupplier);
     }
 
+    @Override
+    public @Nullable ByteBuf transformClientboundToBuffer(ByteBuf buf) throws Exception {
+        return transformToBuffer(buf, Direction.CLIENTBOUND);
+    }
+
+    @Override
+    public @Nullable ByteBuf transformServerboundToBuffer(ByteBuf buf) throws Exception {
+        return transformToBuffer(buf, Direction.SERVERBOUND);
+    }
+
+    private @Nullable ByteBuf transformToBuffer(ByteBuf buf, Direction direction) throws Exception {
+        ByteBuf transformed = transform(buf, direction, false);
+        if (transformed == CANCELLED) {
+            return null;
+        }
+        return transformed != null ? transformed : buf.retain();
+    }
+
     private void transform(ByteBuf buf, Direction direction, Function<Throwable, Exception> cancelSupplier) throws Exception {
-        if (!buf.isReadable()) return;
+        ByteBuf transformed = transform(buf, direction, true);
+        if (transformed == CANCELLED) {
+            throw cancelSupplier.apply(CancelException.generate());
+        }
+        if (transformed == null) {
+            return;
+        }
+
+        try {
+            buf.clear().writeBytes(transformed);
+        } finally {
+            transformed.release();
+        }
+    }
+
+    /**
+     * Transforms the packet in the given buffer.
+     *
+     * @param buf            packet buffer
+     * @param direction      packet direction
+     * @param rewriteInPlace whether a packet only needing a new id may be rewritten inside the given buffer
+     * @return new buffer containing the transformed packet, {@link #CANCELLED} if the packet was cancelled,
+     * or null if the readable bytes of the given buffer already are the transformed packet
+     * @throws Exception if transforming failed
+     */
+    private @Nullable ByteBuf transform(ByteBuf buf, Direction direction, boolean rewriteInPlace) throws Exception {
+        if (!buf.isReadable()) return null;
 
+        int packetLength = buf.readableBytes();
         int id = Type.VAR_INT.readPrimitive(buf);
         if (id == PacketWrapper.PASSTHROUGH_ID) {
             if (!passthroughTokens.remove(Type.UUID.read(buf))) {
                 throw new IllegalArgumentException("Invalid token");
             }
-            return;
+            return null;
         }
 
-        PacketWrapper wrapper = new PacketWrapperImpl(id, buf, this);
         State state = protocolInfo.getState(direction);
-        try {
-            protocolInfo.getPipeline().transform(direction, state, wrapper);
-        } catch (CancelException ex) {
-            throw cancelSupplier.apply(ex);
+        if (!Via.getManager().debugHandler().enabled()) {
+            // Only the id has to be changed, leave the rest of the buffer untouched
+            int mappedId = protocolInfo.getPipeline().mappedIdIfUnhandled(direction, state, id);
+            if (mappedId != -1) {
+                if (rewriteInPlace) {
+                    if (rewritePacketId(buf, mappedId)) {
+                        return null;
+                    }
+                } else if (buf.readableBytes() >= MIN_SLICED_PACKET_SIZE) {
+                    // Put the new id in front of a view of the packet data instead of copying it
+                    ByteBuf idBuf = buf.alloc().buffer(varIntLength(mappedId));
+                    Type.VAR_INT.writePrimitive(idBuf, mappedId);
+                    CompositeByteBuf transformed = buf.alloc().compositeBuffer(2);
+                    transformed.addComponents(idBuf, buf.slice().retain());
+                    transformed.writerIndex(transformed.capacity());
+                    buf.skipBytes(buf.readableBytes());
+                    return transformed;
+                }
+
+                ByteBuf transformed = buf.alloc().buffer(varIntLength(mappedId) + buf.readableBytes());
+                Type.VAR_INT.writePrimitive(transformed, mappedId);
+                transformed.writeBytes(buf);
+                return transformed;
+            }
+
+            // Large join packets such as tags or recipes are the same for every player of a server
+            if (direction == Direction.CLIENTBOUND && packetLength >= PacketMemo.MIN_PACKET_SIZE
+                    && Via.getConfig().isMemoizeJoinPackets()
+                    && protocolInfo.getPipeline().isMemoizable(direction, state, id)) {
+                return transformMemoized(buf, direction, state, id, packetLength);
+            }
+        }
+
+        return transformPacket(buf, direction, state, id, packetLength);
+    }
+
+    private ByteBuf transformMemoized(ByteBuf buf, Direction direction, State state, int id, int packetLength) throws Exception {
+        PacketMemo.Pipeline pipeline = new PacketMemo.Pipeline(protocolInfo.getPipeline().pipes(), Via.getManager().getProviders(), Via.getConfig());
+        PacketMemo.Key key = new PacketMemo.Key(pipeline, protocolInfo.getProtocolVersion(), protocolInfo.getServerProtocolVersion(), state, id, buf);
+        byte[] memoized = PACKET_MEMO.get(key);
+        if (memoized != null) {
+            buf.skipBytes(buf.readableBytes());
+            return buf.alloc().buffer(memoized.length).writeBytes(memoized);
+        }
+
+        // Only copy the content on a miss, before the handlers read the buffer
+        key = key.copy();
+        ByteBuf transformed = transformPacket(buf, direction, state, id, packetLength);
+        if (transformed != CANCELLED) {
+            byte[] output = new byte[transformed.readableBytes()];
+            transformed.getBytes(transformed.readerIndex(), output);
+            PACKET_MEMO.put(key, output);
         }
+        return transformed;
+    }
 
-        ByteBuf transformed = buf.alloc().buffer();
+    private ByteBuf transformPacket(ByteBuf buf, Direction direction, State state, int id, int packetLength) throws Exception {
+        PacketWrapper wrapper = new PacketWrapperImpl(id, buf, this);
+        if (!protocolInfo.getPipeline().transformPacket(direction, state, wrapper)) {
+            return CANCELLED;
+        }
+
+        ByteBuf transformed = buf.alloc().buffer(packetLength);
         try {
             wrapper.writeToBuffer(transformed);
-            buf.clear().writeBytes(transformed);
-        } finally {
+        } catch (Throwable t) {
             transformed.release();
+            throw t;
+        }
+        return transformed;
+    }
+
+    /**
+     * Writes the packet id directly in front of the packet data, moving the reader index to its start.
+     *
+     * @param buf      packet buffer with its reader index at the start of the packet data
+     * @param packetId new packet id
+     * @return whether the id could be written, false if there is not enough space in front of the packet data
+     */
+    private static boolean rewritePacketId(ByteBuf buf, int packetId) {
+        int dataStart = buf.readerIndex();
+        int newIdStart = dataStart - varIntLength(packetId);
+        if (newIdStart < 0) {
+            return false;
+        }
+
+        // Write over the old id (and possibly already read bytes before it)
+        int writerIndex = buf.writerIndex();
+        buf.readerIndex(newIdStart);
+        buf.writerIndex(newIdStart);
+        Type.VAR_INT.writePrimitive(buf, packetId);
+        buf.writerIndex(writerIndex);
+        return true;
+    }
+
+    private static int varIntLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            length++;
         }
+        return length;
     }
 
     @Override
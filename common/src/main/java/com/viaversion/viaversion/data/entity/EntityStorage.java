@@ -0,0 +1,332 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.data.entity;
+
+import com.viaversion.viaversion.api.connection.StorableObject;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.data.entity.TrackedEntity;
+import com.viaversion.viaversion.api.minecraft.entities.EntityType;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Open-addressed int to tracked entity table shared by all entity trackers of a connection.
+ * <p>
+ * Every protocol in the pipeline sees the same server entity ids, so instead of one map per protocol, each id
+ * has a single entry holding one value per tracker view, indexed by the view id handed out in {@link #registerView()}.
+ * The values of all entries are stored in one flat array, {@code stride} values per entry. An entry is only dropped
+ * once all views have removed the entity. Views given back with {@link #releaseView(int)} are handed out again,
+ * so trackers recreated on server switches don't grow the entries.
+ * <p>
+ * Most entities never get any extra data, so a value is just the entity's {@link EntityType} until its
+ * {@link TrackedEntity} is asked for, which then replaces the type in the table.
+ * <p>
+ * Nearly all access happens on the connection's event loop, but some platforms change the client entity id
+ * from their own event threads, so every operation takes the (practically always uncontended) table monitor.
+ */
+final class EntityStorage implements StorableObject {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_STRIDE = 4;
+    private static final float LOAD_FACTOR = 0.75F;
+    private int[] keys = new int[INITIAL_CAPACITY];
+    // Number of views having the entity, 0 for free slots
+    private int[] counts = new int[INITIAL_CAPACITY];
+    // EntityType or TrackedEntity per slot and view
+    private Object[] values = new Object[INITIAL_CAPACITY * INITIAL_STRIDE];
+    private int stride = INITIAL_STRIDE;
+    private int mask = INITIAL_CAPACITY - 1;
+    private int maxFill = (int) (INITIAL_CAPACITY * LOAD_FACTOR);
+    private final IntArrayList freeViews = new IntArrayList();
+    private int size;
+    private int views;
+
+    static EntityStorage of(@Nullable final UserConnection connection) {
+        if (connection == null) {
+            return new EntityStorage();
+        }
+
+        synchronized (connection) {
+            EntityStorage storage = connection.get(EntityStorage.class);
+            if (storage == null) {
+                storage = new EntityStorage();
+                connection.put(storage);
+            }
+            return storage;
+        }
+    }
+
+    synchronized int registerView() {
+        if (freeViews.isEmpty()) {
+            if (views == stride) {
+                restride(stride << 1);
+            }
+            return views++;
+        }
+
+        // Writes racing with the release may have left entities behind
+        final int view = freeViews.removeInt(freeViews.size() - 1);
+        clear(view);
+        return view;
+    }
+
+    synchronized void releaseView(final int view) {
+        clear(view);
+        freeViews.add(view);
+    }
+
+    synchronized int views() {
+        return views;
+    }
+
+    /**
+     * Returns the type of the entity without creating its tracked entity.
+     */
+    synchronized @Nullable EntityType type(final int id, final int view) {
+        final Object value = value(id, view);
+        return value instanceof TrackedEntity ? ((TrackedEntity) value).entityType() : (EntityType) value;
+    }
+
+    /**
+     * Returns the tracked entity, creating it if only the type has been stored so far.
+     */
+    synchronized @Nullable TrackedEntity get(final int id, final int view) {
+        final int slot = find(id);
+        if (slot == -1) {
+            return null;
+        }
+
+        final int index = slot * stride + view;
+        final Object value = values[index];
+        if (value instanceof EntityType) {
+            final TrackedEntity entity = new TrackedEntityImpl((EntityType) value);
+            values[index] = entity;
+            return entity;
+        }
+        return (TrackedEntity) value;
+    }
+
+    /**
+     * Returns the tracked entity only if it has already been created, meaning it may hold extra data.
+     */
+    synchronized @Nullable TrackedEntity getIfCreated(final int id, final int view) {
+        final Object value = value(id, view);
+        return value instanceof TrackedEntity ? (TrackedEntity) value : null;
+    }
+
+    synchronized boolean contains(final int id, final int view) {
+        return value(id, view) != null;
+    }
+
+    synchronized void put(final int id, final int view, final EntityType type) {
+        putValue(id, view, type);
+    }
+
+    synchronized void put(final int id, final int view, final TrackedEntity entity) {
+        putValue(id, view, entity);
+    }
+
+    synchronized boolean remove(final int id, final int view) {
+        return removeValue(id, view) != null;
+    }
+
+    /**
+     * Moves the entity of a view to another id, keeping its tracked entity.
+     *
+     * @return whether there was an entity to move
+     */
+    synchronized boolean move(final int fromId, final int toId, final int view) {
+        final Object value = removeValue(fromId, view);
+        if (value == null) {
+            return false;
+        }
+
+        putValue(toId, view, value);
+        return true;
+    }
+
+    synchronized void clear(final int view) {
+        int remaining = 0;
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] == 0) {
+                continue;
+            }
+
+            final int index = slot * stride + view;
+            if (values[index] != null) {
+                values[index] = null;
+                counts[slot]--;
+            }
+            if (counts[slot] != 0) {
+                remaining++;
+            }
+        }
+
+        if (remaining == 0) {
+            size = 0;
+            if (keys.length > INITIAL_CAPACITY) {
+                // Drop the backing arrays after large worlds instead of keeping them around for the connection's lifetime
+                resize(INITIAL_CAPACITY);
+            } else {
+                Arrays.fill(counts, 0);
+                Arrays.fill(values, null);
+            }
+        } else if (remaining != size) {
+            size = remaining;
+            rehash(keys.length);
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public boolean clearOnServerSwitch() {
+        // Trackers survive server switches and clear their own views
+        return false;
+    }
+
+    private @Nullable Object value(final int id, final int view) {
+        final int slot = find(id);
+        return slot != -1 ? values[slot * stride + view] : null;
+    }
+
+    private void putValue(final int id, final int view, final Object value) {
+        int slot = slot(id);
+        while (counts[slot] != 0) {
+            if (keys[slot] == id) {
+                final int index = slot * stride + view;
+                if (values[index] == null) {
+                    counts[slot]++;
+                }
+                values[index] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = id;
+        counts[slot] = 1;
+        values[slot * stride + view] = value;
+        if (++size > maxFill) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    private @Nullable Object removeValue(final int id, final int view) {
+        final int slot = find(id);
+        if (slot == -1) {
+            return null;
+        }
+
+        final int index = slot * stride + view;
+        final Object value = values[index];
+        if (value != null) {
+            values[index] = null;
+            if (--counts[slot] == 0) {
+                size--;
+                shiftKeys(slot);
+            }
+        }
+        return value;
+    }
+
+    private int find(final int id) {
+        int slot = slot(id);
+        while (counts[slot] != 0) {
+            if (keys[slot] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(final int id) {
+        // Entity ids are mostly sequential, spread them over the table
+        final int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void shiftKeys(int pos) {
+        // Backward shift deletion, so lookups never need tombstones
+        int last;
+        int slot;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            while (true) {
+                if (counts[pos] == 0) {
+                    counts[last] = 0;
+                    Arrays.fill(values, last * stride, (last + 1) * stride, null);
+                    return;
+                }
+
+                slot = slot(keys[pos]);
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+
+            keys[last] = keys[pos];
+            counts[last] = counts[pos];
+            System.arraycopy(values, pos * stride, values, last * stride, stride);
+        }
+    }
+
+    private void resize(final int capacity) {
+        keys = new int[capacity];
+        counts = new int[capacity];
+        values = new Object[capacity * stride];
+        mask = capacity - 1;
+        maxFill = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(final int capacity) {
+        final int[] oldKeys = keys;
+        final int[] oldCounts = counts;
+        final Object[] oldValues = values;
+        resize(capacity);
+
+        for (int i = 0; i < oldCounts.length; i++) {
+            if (oldCounts[i] == 0) {
+                continue;
+            }
+
+            int slot = slot(oldKeys[i]);
+            while (counts[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+            System.arraycopy(oldValues, i * stride, values, slot * stride, stride);
+        }
+    }
+
+    private void restride(final int newStride) {
+        final Object[] oldValues = values;
+        values = new Object[keys.length * newStride];
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] != 0) {
+                System.arraycopy(oldValues, slot * stride, values, slot * newStride, stride);
+            }
+        }
+        stride = newStride;
+    }
+}
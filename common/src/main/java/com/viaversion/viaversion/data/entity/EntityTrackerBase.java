@@ -26,16 +26,15 @@ import com.viaversion.viaversion.api.data.entity.EntityTracker;
 import com.viaversion.viaversion.api.data.entity.StoredEntityData;
 import com.viaversion.viaversion.api.data.entity.TrackedEntity;
 import com.viaversion.viaversion.api.minecraft.entities.EntityType;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import java.util.Collections;
 import java.util.Map;
 import org.checkerframework.checker.nullness.qual.Nullable;
-import space.vectrix.flare.fastutil.Int2ObjectSyncMap;
 
 public class EntityTrackerBase implements EntityTracker, ClientEntityIdChangeListener {
-    private final Int2ObjectMap<TrackedEntity> entities = Int2ObjectSyncMap.hashmap();
     private final UserConnection connection;
     private final EntityType playerType;
+    private final EntityStorage entities;
+    private volatile int view = -1;
     private int clientEntityId = -1;
     private int currentWorldSectionHeight = -1;
     private int currentMinY;
@@ -46,6 +45,7 @@ public class EntityTrackerBase implements EntityTracker, ClientEntityIdChangeLis
     public EntityTrackerBase(UserConnection connection, @Nullable EntityType playerType) {
         this.connection = connection;
         this.playerType = playerType;
+        this.entities = EntityStorage.of(connection);
     }
 
     @Override
@@ -55,46 +55,59 @@ public class EntityTrackerBase implements EntityTracker, ClientEntityIdChangeLis
 
     @Override
     public void addEntity(int id, EntityType type) {
-        entities.put(id, new TrackedEntityImpl(type));
+        entities.put(id, view(), type);
     }
 
     @Override
     public boolean hasEntity(int id) {
-        return entities.containsKey(id);
+        final int view = this.view;
+        return view != -1 && entities.contains(id, view);
     }
 
     @Override
     public @Nullable TrackedEntity entity(final int entityId) {
-        return entities.get(entityId);
+        final int view = this.view;
+        return view != -1 ? entities.get(entityId, view) : null;
     }
 
     @Override
     public @Nullable EntityType entityType(int id) {
-        final TrackedEntity entity = entities.get(id);
-        return entity != null ? entity.entityType() : null;
+        final int view = this.view;
+        return view != -1 ? entities.type(id, view) : null;
     }
 
     @Override
     public @Nullable StoredEntityData entityData(int id) {
-        final TrackedEntity entity = entities.get(id);
+        final TrackedEntity entity = entity(id);
         return entity != null ? entity.data() : null;
     }
 
     @Override
     public @Nullable StoredEntityData entityDataIfPresent(int id) {
-        final TrackedEntity entity = entities.get(id);
+        final int view = this.view;
+        final TrackedEntity entity = view != -1 ? entities.getIfCreated(id, view) : null;
         return entity != null && entity.hasData() ? entity.data() : null;
     }
 
     //TODO Soft memory leak: Remove entities on respawn in protocols prior to 1.18 (1.16+ only when the worldname is different)
     @Override
     public void removeEntity(int id) {
-        entities.remove(id);
+        final int view = this.view;
+        if (view != -1) {
+            entities.remove(id, view);
+        }
     }
 
     @Override
     public void clearEntities() {
-        entities.clear();
+        synchronized (entities) {
+            final int view = this.view;
+            if (view != -1) {
+                // Give the view back, it is claimed again once something is tracked
+                this.view = -1;
+                entities.releaseView(view);
+            }
+        }
     }
 
     @Override
@@ -105,11 +118,8 @@ public class EntityTrackerBase implements EntityTracker, ClientEntityIdChangeLis
     @Override
     public void setClientEntityId(int clientEntityId) {
         Preconditions.checkNotNull(playerType);
-        final TrackedEntity oldEntity;
-        if (this.clientEntityId != -1 && (oldEntity = entities.remove(this.clientEntityId)) != null) {
-            entities.put(clientEntityId, oldEntity);
-        } else {
-            entities.put(clientEntityId, new TrackedEntityImpl(playerType));
+        if (this.clientEntityId == -1 || !entities.move(this.clientEntityId, clientEntityId, view())) {
+            entities.put(clientEntityId, view(), playerType);
         }
 
         this.clientEntityId = clientEntityId;
@@ -118,7 +128,7 @@ public class EntityTrackerBase implements EntityTracker, ClientEntityIdChangeLis
     @Override
     public boolean trackClientEntity() {
         if (clientEntityId != -1) {
-            entities.put(clientEntityId, new TrackedEntityImpl(playerType));
+            entities.put(clientEntityId, view(), playerType);
             return true;
         }
         return false;
@@ -178,4 +188,17 @@ public class EntityTrackerBase implements EntityTracker, ClientEntityIdChangeLis
     public void setDimensions(Map<String, DimensionData> dimensions) {
         this.dimensions = dimensions;
     }
+
+    private int view() {
+        // Only take a slot in the shared storage once something is tracked, trackers replaced on server switches never do
+        int view = this.view;
+        if (view == -1) {
+            synchronized (entities) {
+                if ((view = this.view) == -1) {
+                    view = this.view = entities.registerView();
+                }
+            }
+        }
+        return view;
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocol;
+
+import com.viaversion.viaversion.api.data.IntArrayMappings;
+import com.viaversion.viaversion.api.data.MappingData;
+import com.viaversion.viaversion.api.data.Mappings;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.ProtocolPipeline;
+import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.protocol.packet.PacketWrapperImpl;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Block state mappings of consecutive protocols in a pipeline composed into a single table, so that chunk and block change
+ * packets are remapped once by the first of the protocols instead of once per protocol.
+ *
+ * @see ProtocolManagerImpl#registerComposableBlockStates(Class, boolean)
+ */
+public final class ComposedBlockStateMappings {
+    private static final Protocol[] PROTOCOL_ARRAY = new Protocol[0];
+    private final Protocol[] protocols;
+    private final Mappings mappings;
+
+    private ComposedBlockStateMappings(final Protocol[] protocols, final Mappings mappings) {
+        this.protocols = protocols;
+        this.mappings = mappings;
+    }
+
+    /**
+     * Composes the block state mappings of the given protocols.
+     *
+     * @param protocols protocols with mapping data in clientbound order
+     * @return composed mappings, or null if not all of the protocols have their block state mappings loaded yet
+     */
+    static @Nullable ComposedBlockStateMappings compose(final List<Protocol> protocols) {
+        final Mappings[] blockStateMappings = new Mappings[protocols.size()];
+        for (int i = 0; i < blockStateMappings.length; i++) {
+            final MappingData mappingData = protocols.get(i).getMappingData();
+            if (mappingData == null || (blockStateMappings[i] = mappingData.getBlockStateMappings()) == null) {
+                return null;
+            }
+        }
+
+        final int[] composed = new int[blockStateMappings[0].size()];
+        for (int id = 0; id < composed.length; id++) {
+            int mappedId = id;
+            for (final Mappings mappings : blockStateMappings) {
+                mappedId = mappings.getNewId(mappedId);
+                if (mappedId == -1) {
+                    // Left to the individual protocols, see getNewId
+                    break;
+                }
+            }
+            composed[id] = mappedId;
+        }
+        final int mappedSize = blockStateMappings[blockStateMappings.length - 1].mappedSize();
+        return new ComposedBlockStateMappings(protocols.toArray(PROTOCOL_ARRAY), IntArrayMappings.of(composed, mappedSize));
+    }
+
+    /**
+     * Returns the block state id after all composed protocols.
+     *
+     * @param id unmapped block state id of the first protocol
+     * @return block state id of the last protocol
+     */
+    public int getNewId(final int id) {
+        final int mappedId = mappings.getNewId(id);
+        if (mappedId != -1) {
+            return mappedId;
+        }
+
+        // Missing somewhere along the way, go through the protocols one by one for the same result and warnings
+        int newId = id;
+        for (final Protocol protocol : protocols) {
+            newId = protocol.getMappingData().getNewBlockStateId(newId);
+        }
+        return newId;
+    }
+
+    /**
+     * Returns the first protocol in clientbound order, which is the one applying the composed mappings.
+     *
+     * @return first protocol
+     */
+    public Protocol firstProtocol() {
+        return protocols[0];
+    }
+
+    /**
+     * Returns the block state remapper to use in a chunk or block change handler of the given protocol.
+     * If the protocol is the first of composed mappings, the remapper applies all of them and marks the packet;
+     * the other composed protocols then leave the already remapped block states of the packet as they are.
+     *
+     * @param protocol protocol handling the packet
+     * @param wrapper  packet wrapper
+     * @return block state remapper, or null if the block states of the packet have already been remapped
+     */
+    public static @Nullable IntUnaryOperator blockStateMapper(final Protocol<?, ?, ?, ?> protocol, final PacketWrapper wrapper) {
+        final ProtocolPipeline pipeline = wrapper.user().getProtocolInfo().getPipeline();
+        if (wrapper instanceof PacketWrapperImpl && pipeline instanceof ProtocolPipelineImpl) {
+            final ComposedBlockStateMappings composed = ((ProtocolPipelineImpl) pipeline).composedBlockStateMappings(protocol);
+            if (composed != null) {
+                final PacketWrapperImpl wrapperImpl = (PacketWrapperImpl) wrapper;
+                if (wrapperImpl.appliedBlockStateMappings() == composed) {
+                    return null;
+                }
+                if (composed.firstProtocol() == protocol) {
+                    wrapperImpl.setAppliedBlockStateMappings(composed);
+                    return composed::getNewId;
+                }
+                // The packet entered the pipeline after the first composed protocol, so remap it one protocol at a time
+            }
+        }
+
+        final MappingData mappingData = protocol.getMappingData();
+        return mappingData::getNewBlockStateId;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocol;
+
+import com.viaversion.viaversion.api.protocol.AbstractProtocol;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.packet.Direction;
+import com.viaversion.viaversion.api.protocol.packet.PacketType;
+import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.api.protocol.packet.mapping.PacketMapping;
+import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed transformation steps of a single packet through a pipeline, skipping protocols without a mapping for it.
+ * <p>
+ * The route is only followed as long as packet handlers do not change the packet id or state in an unexpected way,
+ * else the remaining protocols are applied as usual.
+ */
+final class PacketRoute {
+    private final Protocol[] pipeline;
+    private final AbstractProtocol<?, ?, ?, ?>[] protocols;
+    private final PacketMapping[] mappings;
+    private final int[] pipelineIndexes;
+    private final int[] expectedIds;
+    private final State[] expectedStates;
+    private final int dynamicIndex;
+    private final int unhandledMappedId;
+    private final boolean memoizable;
+
+    private PacketRoute(final Protocol[] pipeline, final List<Step> steps, final int dynamicIndex, final int unhandledMappedId, final boolean memoizable) {
+        this.pipeline = pipeline;
+        this.protocols = new AbstractProtocol[steps.size()];
+        this.mappings = new PacketMapping[steps.size()];
+        this.pipelineIndexes = new int[steps.size()];
+        this.expectedIds = new int[steps.size()];
+        this.expectedStates = new State[steps.size()];
+        for (int i = 0; i < steps.size(); i++) {
+            final Step step = steps.get(i);
+            protocols[i] = step.protocol;
+            mappings[i] = step.mapping;
+            pipelineIndexes[i] = step.pipelineIndex;
+            expectedIds[i] = step.mappedId;
+            expectedStates[i] = step.mappedState;
+        }
+        this.dynamicIndex = dynamicIndex;
+        this.unhandledMappedId = unhandledMappedId;
+        this.memoizable = memoizable;
+    }
+
+    /**
+     * Computes the route of a packet through the given protocols.
+     *
+     * @param direction packet direction
+     * @param state     protocol state
+     * @param packetId  unmapped packet id
+     * @param pipeline  protocols in order of application
+     * @return packet route
+     */
+    static PacketRoute compute(final Direction direction, final State state, final int packetId, final Protocol[] pipeline) {
+        final List<Step> steps = new ArrayList<>();
+        State updatedState = state;
+        int mappedId = packetId;
+        boolean handled = false;
+        boolean memoizable = true;
+        int index = 0;
+        for (; index < pipeline.length; index++) {
+            final Protocol protocol = pipeline[index];
+            if (!(protocol instanceof AbstractProtocol)) {
+                break;
+            }
+
+            final AbstractProtocol<?, ?, ?, ?> abstractProtocol = (AbstractProtocol<?, ?, ?, ?>) protocol;
+            if (!abstractProtocol.onlyAppliesPacketMappings(direction, updatedState)) {
+                // Can't predict what happens from here on
+                break;
+            }
+
+            final PacketMapping mapping = abstractProtocol.packetMapping(direction, updatedState, mappedId);
+            if (mapping == null) {
+                continue;
+            }
+
+            // Same as in PacketWrapper#apply, the state follows the last set packet type
+            final PacketType mappedPacketType = mapping.mappedPacketType();
+            if (mappedPacketType != null) {
+                updatedState = mappedPacketType.state();
+            }
+            mappedId = mapping.mappedPacketId(mappedId);
+            final PacketHandler handler = mapping.handler();
+            if (handler != null) {
+                handled = true;
+                memoizable &= handler.isMemoizable();
+            }
+            steps.add(new Step(abstractProtocol, mapping, index, mappedId, updatedState));
+        }
+
+        final int unhandledMappedId = !handled && index == pipeline.length ? mappedId : -1;
+        // Only if the full pipeline is known and every handler on the way is independent of the connection
+        final boolean completeRoute = index == pipeline.length;
+        return new PacketRoute(pipeline, steps, index, unhandledMappedId, completeRoute && handled && memoizable);
+    }
+
+    /**
+     * Applies the protocols of this route to the packet.
+     *
+     * @param direction packet direction
+     * @param state     protocol state
+     * @param wrapper   packet wrapper without a set packet type
+     * @return false if the packet was cancelled, else true
+     * @throws Exception if transformation fails
+     */
+    boolean apply(final Direction direction, final State state, final PacketWrapper wrapper) throws Exception {
+        State updatedState = state;
+        for (int i = 0; i < protocols.length; i++) {
+            final PacketMapping mapping = mappings[i];
+            if (!protocols[i].transform(direction, updatedState, wrapper, mapping)) {
+                return false;
+            }
+            if (mapping.handler() != null) {
+                wrapper.resetReader();
+            }
+
+            final PacketType packetType = wrapper.getPacketType();
+            if (packetType != null) {
+                updatedState = packetType.state();
+            }
+
+            if (wrapper.getId() != expectedIds[i] || updatedState != expectedStates[i]) {
+                // The handler changed the packet, continue without the precomputed route
+                return applyProtocols(direction, updatedState, wrapper, pipeline, pipelineIndexes[i] + 1);
+            }
+        }
+        return applyProtocols(direction, updatedState, wrapper, pipeline, dynamicIndex);
+    }
+
+    /**
+     * Applies the protocols of the pipeline starting from the given index, same as {@link PacketWrapper#apply(Direction, State, int, List)}
+     * without throwing an exception for cancelled packets.
+     *
+     * @param direction packet direction
+     * @param state     protocol state
+     * @param wrapper   packet wrapper
+     * @param pipeline  protocols in order of application
+     * @param index     index of the first protocol to apply
+     * @return false if the packet was cancelled, else true
+     * @throws Exception if transformation fails
+     */
+    static boolean applyProtocols(final Direction direction, final State state, final PacketWrapper wrapper, final Protocol[] pipeline, final int index) throws Exception {
+        State updatedState = state;
+        for (int i = index; i < pipeline.length; i++) {
+            if (!pipeline[i].transformPacket(direction, updatedState, wrapper)) {
+                return false;
+            }
+
+            wrapper.resetReader();
+            final PacketType packetType = wrapper.getPacketType();
+            if (packetType != null) {
+                updatedState = packetType.state();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the final packet id if no protocol handles the packet's content, else -1.
+     *
+     * @return final packet id if no protocol handles the packet's content, else -1
+     */
+    int unhandledMappedId() {
+        return unhandledMappedId;
+    }
+
+    /**
+     * Returns whether the transformed packet only depends on the packet's content.
+     *
+     * @return whether the transformed packet may be reused for other connections with the same pipeline
+     */
+    boolean isMemoizable() {
+        return memoizable;
+    }
+
+    private static final class Step {
+        private final AbstractProtocol<?, ?, ?, ?> protocol;
+        private final PacketMapping mapping;
+        private final int pipelineIndex;
+        private final int mappedId;
+        private final State mappedState;
+
+        private Step(final AbstractProtocol<?, ?, ?, ?> protocol, final PacketMapping mapping, final int pipelineIndex, final int mappedId, final State mappedState) {
+            this.protocol = protocol;
+            this.mapping = mapping;
+            this.pipelineIndex = pipelineIndex;
+            this.mappedId = mappedId;
+            this.mappedState = mappedState;
+        }
+    }
+}
@@ -27,7 +27,6 @@ import com.viaversion.viaversion.api.data.MappingDataLoader;
 import com.viaversion.viaversion.api.protocol.Protocol;
 import com.viaversion.viaversion.api.protocol.ProtocolManager;
 import com.viaversion.viaversion.api.protocol.ProtocolPathEntry;
-import com.viaversion.viaversion.api.protocol.ProtocolPathKey;
 import com.viaversion.viaversion.api.protocol.packet.ClientboundPacketType;
 import com.viaversion.viaversion.api.protocol.packet.PacketType;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
@@ -78,10 +77,8 @@ import com.viaversion.viaversion.protocols.protocol1_9_3to1_9_1_2.Protocol1_9_3T
 import com.viaversion.viaversion.protocols.protocol1_9to1_8.Protocol1_9To1_8;
 import com.viaversion.viaversion.util.Pair;
 import io.netty.buffer.ByteBuf;
-import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import us.myles.ViaVersion.api.protocol.ProtocolRegistry;
@@ -99,6 +96,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -113,15 +111,21 @@ public class ProtocolManagerImpl implements ProtocolManager {
     // Input Version -> Output Version & Protocol (Allows fast lookup)
     private final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap = new Int2ObjectOpenHashMap<>(32);
     private final Map<Class<? extends Protocol>, Protocol<?, ?, ?, ?>> protocols = new HashMap<>(64);
-    private final Map<ProtocolPathKey, List<ProtocolPathEntry>> pathCache = new ConcurrentHashMap<>();
     private final Set<Integer> supportedVersions = new HashSet<>();
     private final List<Pair<Range<Integer>, Protocol>> baseProtocols = Lists.newCopyOnWriteArrayList();
 
     private final ReadWriteLock mappingLoaderLock = new ReentrantReadWriteLock();
     private Map<Class<? extends Protocol>, CompletableFuture<Void>> mappingLoaderFutures = new HashMap<>();
+    private final Map<Class<? extends Protocol>, Protocol<?, ?, ?, ?>> deferredMappingData = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Protocol>, CompletableFuture<Void>> deferredMappingLoaderFutures = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor deferredMappingLoaderExecutor;
     private ThreadPoolExecutor mappingLoaderExecutor;
     private boolean mappingsLoaded;
 
+    private volatile ProtocolPathTable pathTable;
+    private final Set<Class<? extends Protocol>> composableBlockStateProtocols = new HashSet<>();
+    private final Set<Class<? extends Protocol>> blockStateRunStarts = new HashSet<>();
+    private final Map<List<Protocol>, ComposedBlockStateMappings> composedBlockStateMappings = new ConcurrentHashMap<>();
     private ServerProtocolVersion serverProtocolVersion = new ServerProtocolVersionSingleton(-1);
     private int maxPathDeltaIncrease; // Only allow lowering path entries by default
     private int maxProtocolPathSize = 50;
@@ -130,6 +134,12 @@ public class ProtocolManagerImpl implements ProtocolManager {
         ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("Via-Mappingloader-%d").build();
         mappingLoaderExecutor = new ThreadPoolExecutor(12, Integer.MAX_VALUE, 30L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
         mappingLoaderExecutor.allowCoreThreadTimeOut(true);
+
+        // Outlives the startup executor, so that lazily loaded mapping data is never loaded on a connection's thread
+        ThreadFactory deferredThreadFactory = new ThreadFactoryBuilder().setNameFormat("Via-Deferred-Mappingloader-%d").setDaemon(true).build();
+        int deferredThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        deferredMappingLoaderExecutor = new ThreadPoolExecutor(deferredThreads, deferredThreads, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), deferredThreadFactory);
+        deferredMappingLoaderExecutor.allowCoreThreadTimeOut(true);
     }
 
     public void registerProtocols() {
@@ -185,6 +195,17 @@ public class ProtocolManagerImpl implements ProtocolManager {
         registerProtocol(new Protocol1_20To1_19_4(), ProtocolVersion.v1_20, ProtocolVersion.v1_19_4);
         registerProtocol(new Protocol1_20_2To1_20(), ProtocolVersion.v1_20_2, ProtocolVersion.v1_20);
         registerProtocol(new Protocol1_20_3To1_20_2(), ProtocolVersion.v1_20_3, ProtocolVersion.v1_20_2);
+
+        registerComposableBlockStates(Protocol1_19To1_18_2.class, false);
+        registerComposableBlockStates(Protocol1_19_1To1_19.class, false);
+        registerComposableBlockStates(Protocol1_19_3To1_19_1.class, false);
+        registerComposableBlockStates(Protocol1_19_4To1_19_3.class, false);
+        registerComposableBlockStates(Protocol1_20To1_19_4.class, false);
+        // Packets queued during the configuration phase are sent on from this protocol
+        registerComposableBlockStates(Protocol1_20_2To1_20.class, true);
+        registerComposableBlockStates(Protocol1_20_3To1_20_2.class, false);
+
+        loadReachableMappingData();
     }
 
     @Override
@@ -198,9 +219,7 @@ public class ProtocolManagerImpl implements ProtocolManager {
         protocol.initialize();
 
         // Clear cache as this may make new routes.
-        if (!pathCache.isEmpty()) {
-            pathCache.clear();
-        }
+        clearPathCaches();
 
         protocols.put(protocol.getClass(), protocol);
 
@@ -218,7 +237,13 @@ public class ProtocolManagerImpl implements ProtocolManager {
         }
 
         if (protocol.hasMappingDataToLoad()) {
-            if (mappingLoaderExecutor != null) {
+            if (mappingLoaderExecutor != null && Via.getConfig().isLazyLoadMappings()) {
+                // Only load it once it is part of a path to the server version or first needed by a connection
+                deferMappingDataLoading(protocol);
+                if (Via.getManager().isInitialized()) {
+                    loadReachableMappingData();
+                }
+            } else if (mappingLoaderExecutor != null) {
                 // Submit mapping data loading
                 addMappingLoaderFuture(protocol.getClass(), protocol::loadMappingData);
             } else {
@@ -259,25 +284,79 @@ public class ProtocolManagerImpl implements ProtocolManager {
     public @Nullable List<ProtocolPathEntry> getProtocolPath(int clientVersion, int serverVersion) {
         if (clientVersion == serverVersion) return null; // Nothing to do!
 
-        // Check cache
-        ProtocolPathKey protocolKey = new ProtocolPathKeyImpl(clientVersion, serverVersion);
-        List<ProtocolPathEntry> protocolList = pathCache.get(protocolKey);
-        if (protocolList != null) {
-            return protocolList;
+        // Compute the paths between all versions once after protocols have been registered
+        ProtocolPathTable table = pathTable;
+        if (table == null) {
+            table = ProtocolPathTable.compute(registryMap, maxPathDeltaIncrease, maxProtocolPathSize);
+            pathTable = table;
         }
+        return table.path(clientVersion, serverVersion);
+    }
 
-        // Calculate path
-        Int2ObjectSortedMap<Protocol> outputPath = getProtocolPath(new Int2ObjectLinkedOpenHashMap<>(), clientVersion, serverVersion);
-        if (outputPath == null) {
-            return null;
+    private void clearPathCaches() {
+        pathTable = null;
+    }
+
+    /**
+     * Marks a protocol as only remapping block states in its chunk and block change handlers through the block state mappings
+     * of its mapping data, using {@link ComposedBlockStateMappings#blockStateMapper(Protocol, PacketWrapper)}.
+     * The block state mappings of consecutive marked protocols in a pipeline are then composed and applied at once.
+     *
+     * @param protocolClass protocol class
+     * @param startsRun     whether the protocol may hold back packets and send them on later, in which case
+     *                      no composed mappings may reach across it from earlier protocols
+     */
+    public void registerComposableBlockStates(final Class<? extends Protocol> protocolClass, final boolean startsRun) {
+        composableBlockStateProtocols.add(protocolClass);
+        if (startsRun) {
+            blockStateRunStarts.add(protocolClass);
         }
+        composedBlockStateMappings.clear();
+    }
 
-        List<ProtocolPathEntry> path = new ArrayList<>(outputPath.size());
-        for (Int2ObjectMap.Entry<Protocol> entry : outputPath.int2ObjectEntrySet()) {
-            path.add(new ProtocolPathEntryImpl(entry.getIntKey(), entry.getValue()));
+    /**
+     * Splits the given protocols into runs of consecutive composable protocols, each containing at least two protocols with mapping data.
+     * Composable protocols without mapping data do not remap block states and are skipped without ending a run.
+     *
+     * @param protocols protocols in clientbound order
+     * @return runs of protocols with mapping data in clientbound order
+     * @see #registerComposableBlockStates(Class, boolean)
+     */
+    public List<List<Protocol>> blockStateMappingRuns(final List<Protocol> protocols) {
+        final List<List<Protocol>> runs = new ArrayList<>();
+        List<Protocol> run = new ArrayList<>();
+        for (final Protocol protocol : protocols) {
+            final Class<? extends Protocol> protocolClass = protocol.getClass();
+            final boolean composable = composableBlockStateProtocols.contains(protocolClass);
+            if (!composable || blockStateRunStarts.contains(protocolClass)) {
+                run = addRun(runs, run);
+            }
+            if (composable && protocol.getMappingData() != null) {
+                run.add(protocol);
+            }
         }
-        pathCache.put(protocolKey, path);
-        return path;
+        addRun(runs, run);
+        return runs;
+    }
+
+    private static List<Protocol> addRun(final List<List<Protocol>> runs, final List<Protocol> run) {
+        if (run.size() < 2) {
+            run.clear();
+            return run;
+        }
+        runs.add(run);
+        return new ArrayList<>();
+    }
+
+    /**
+     * Returns the composed block state mappings of the given run, computed once and shared by all pipelines containing it.
+     *
+     * @param run protocols with mapping data in clientbound order, as returned by {@link #blockStateMappingRuns(List)}
+     * @return composed mappings, or null if the mappings of the protocols have not been loaded yet
+     */
+    public @Nullable ComposedBlockStateMappings composedBlockStateMappings(final List<Protocol> run) {
+        // Nothing is stored if the mappings could not be composed yet
+        return composedBlockStateMappings.computeIfAbsent(run, ComposedBlockStateMappings::compose);
     }
 
     @Override
@@ -290,56 +369,6 @@ public class ProtocolManagerImpl implements ProtocolManager {
         return new VersionedPacketTransformerImpl<>(inputVersion, clientboundPacketsClass, serverboundPacketsClass);
     }
 
-    /**
-     * Calculates a path to get from an input protocol to the server's protocol.
-     *
-     * @param current       current items in the path
-     * @param clientVersion current input version
-     * @param serverVersion desired output version
-     * @return path that has been generated, null if failed
-     */
-    private @Nullable Int2ObjectSortedMap<Protocol> getProtocolPath(Int2ObjectSortedMap<Protocol> current, int clientVersion, int serverVersion) {
-        if (current.size() > maxProtocolPathSize) return null; // Fail-safe, protocol too complicated.
-
-        // First, check if there is any protocols for this
-        Int2ObjectMap<Protocol> toServerProtocolMap = registryMap.get(clientVersion);
-        if (toServerProtocolMap == null) {
-            return null; // Not supported
-        }
-
-        // Next, check if there is a direct, single Protocol path
-        Protocol protocol = toServerProtocolMap.get(serverVersion);
-        if (protocol != null) {
-            current.put(serverVersion, protocol);
-            return current; // Easy solution
-        }
-
-        // There might be a more advanced solution... So we'll see if any of the others can get us there
-        Int2ObjectSortedMap<Protocol> shortest = null;
-        for (Int2ObjectMap.Entry<Protocol> entry : toServerProtocolMap.int2ObjectEntrySet()) {
-            // Ensure we don't go back to already contained versions
-            int translatedToVersion = entry.getIntKey();
-            if (current.containsKey(translatedToVersion)) continue;
-
-            // Check if the new version is farther away than the current client version
-            if (maxPathDeltaIncrease != -1 && Math.abs(serverVersion - translatedToVersion) - Math.abs(serverVersion - clientVersion) > maxPathDeltaIncrease) {
-                continue;
-            }
-
-            // Create a copy
-            Int2ObjectSortedMap<Protocol> newCurrent = new Int2ObjectLinkedOpenHashMap<>(current);
-            newCurrent.put(translatedToVersion, entry.getValue());
-
-            // Calculate the rest of the protocol starting from translatedToVersion and take the shortest
-            newCurrent = getProtocolPath(newCurrent, translatedToVersion, serverVersion);
-            if (newCurrent != null && (shortest == null || newCurrent.size() < shortest.size())) {
-                shortest = newCurrent;
-            }
-        }
-
-        return shortest; // null if none found
-    }
-
     @Override
     public @Nullable <T extends Protocol> T getProtocol(Class<T> protocolClass) {
         return (T) protocols.get(protocolClass);
@@ -375,6 +404,9 @@ public class ProtocolManagerImpl implements ProtocolManager {
         this.serverProtocolVersion = serverProtocolVersion;
         //noinspection deprecation
         ProtocolRegistry.SERVER_PROTOCOL = serverProtocolVersion.lowestSupportedVersion();
+        if (Via.getManager().isInitialized()) {
+            loadReachableMappingData();
+        }
     }
 
     @Override
@@ -397,6 +429,7 @@ public class ProtocolManagerImpl implements ProtocolManager {
     @Override
     public void setMaxPathDeltaIncrease(final int maxPathDeltaIncrease) {
         this.maxPathDeltaIncrease = Math.max(-1, maxPathDeltaIncrease);
+        clearPathCaches();
     }
 
     @Override
@@ -412,6 +445,7 @@ public class ProtocolManagerImpl implements ProtocolManager {
     @Override
     public void setMaxProtocolPathSize(int maxProtocolPathSize) {
         this.maxProtocolPathSize = maxProtocolPathSize;
+        clearPathCaches();
     }
 
     @Override
@@ -421,13 +455,95 @@ public class ProtocolManagerImpl implements ProtocolManager {
 
     @Override
     public void completeMappingDataLoading(Class<? extends Protocol> protocolClass) throws Exception {
-        if (mappingsLoaded) return;
+        if (mappingsLoaded && !hasDeferredMappingData()) return;
 
         CompletableFuture<Void> future = getMappingLoaderFuture(protocolClass);
         if (future != null) {
             // Wait for completion
             future.get();
         }
+
+        Protocol protocol = getProtocol(protocolClass);
+        Class<? extends Protocol> dependency = protocol != null ? protocol.getMappingDataDependency() : null;
+        if (dependency != null) {
+            completeMappingDataLoading(dependency);
+        }
+    }
+
+    /**
+     * Starts loading the deferred mapping data of all protocols that are part of a path to the server version.
+     * Does nothing unless lazy mapping loading is enabled and the server version is known.
+     */
+    public void loadReachableMappingData() {
+        if (deferredMappingData.isEmpty() || !serverProtocolVersion.isKnown()) {
+            return;
+        }
+
+        Set<Class<? extends Protocol>> reachable = new HashSet<>();
+        for (ProtocolVersion version : ProtocolVersion.getProtocols()) {
+            for (int serverVersion : serverProtocolVersion.supportedVersions()) {
+                List<ProtocolPathEntry> path = getProtocolPath(version.getVersion(), serverVersion);
+                if (path == null) continue;
+
+                for (ProtocolPathEntry entry : path) {
+                    reachable.add(entry.protocol().getClass());
+
+                    Class<? extends Protocol> dependency = entry.protocol().getMappingDataDependency();
+                    if (dependency != null) {
+                        reachable.add(dependency);
+                    }
+                }
+            }
+        }
+
+        for (Class<? extends Protocol> protocolClass : reachable) {
+            deferredMappingLoaderFuture(protocolClass);
+        }
+    }
+
+    void deferMappingDataLoading(Protocol<?, ?, ?, ?> protocol) {
+        deferredMappingData.put(protocol.getClass(), protocol);
+    }
+
+    private @Nullable CompletableFuture<Void> deferredMappingLoaderFuture(Class<? extends Protocol> protocolClass) {
+        CompletableFuture<Void> future = deferredMappingLoaderFutures.get(protocolClass);
+        if (future != null || deferredMappingData.isEmpty()) {
+            return future;
+        }
+
+        Protocol<?, ?, ?, ?> protocol;
+        synchronized (deferredMappingData) {
+            future = deferredMappingLoaderFutures.get(protocolClass);
+            if (future != null) {
+                return future;
+            }
+
+            protocol = deferredMappingData.get(protocolClass);
+            if (protocol == null) {
+                return null;
+            }
+
+            // Publish the future before removing the protocol, so the load is always visible as pending
+            future = new CompletableFuture<>();
+            deferredMappingLoaderFutures.put(protocolClass, future);
+            deferredMappingData.remove(protocolClass);
+        }
+
+        CompletableFuture<Void> loaderFuture = future;
+        deferredMappingLoaderExecutor.execute(() -> {
+            try {
+                protocol.loadMappingData();
+            } catch (Throwable throwable) {
+                mappingLoaderThrowable(protocolClass).apply(throwable);
+            }
+            deferredMappingLoaderFutures.remove(protocolClass);
+            loaderFuture.complete(null);
+        });
+        return future;
+    }
+
+    private boolean hasDeferredMappingData() {
+        return !deferredMappingLoaderFutures.isEmpty() || !deferredMappingData.isEmpty();
     }
 
     @Override
@@ -444,6 +560,11 @@ public class ProtocolManagerImpl implements ProtocolManager {
                     return false;
                 }
             }
+            for (CompletableFuture<Void> future : deferredMappingLoaderFutures.values()) {
+                if (!future.isDone()) {
+                    return false;
+                }
+            }
 
             shutdownLoaderExecutor();
             return true;
@@ -466,7 +587,13 @@ public class ProtocolManagerImpl implements ProtocolManager {
 
     @Override
     public void addMappingLoaderFuture(Class<? extends Protocol> protocolClass, Class<? extends Protocol> dependsOn, Runnable runnable) {
-        CompletableFuture<Void> future = getMappingLoaderFuture(dependsOn)
+        CompletableFuture<Void> dependencyFuture = getMappingLoaderFuture(dependsOn);
+        if (dependencyFuture == null) {
+            // The dependency has no mapping data or already finished loading it
+            dependencyFuture = CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> future = dependencyFuture
                 .whenCompleteAsync((v, throwable) -> runnable.run(), mappingLoaderExecutor).exceptionally(mappingLoaderThrowable(protocolClass));
 
         mappingLoaderLock.writeLock().lock();
@@ -479,6 +606,12 @@ public class ProtocolManagerImpl implements ProtocolManager {
 
     @Override
     public @Nullable CompletableFuture<Void> getMappingLoaderFuture(Class<? extends Protocol> protocolClass) {
+        // Lazily loaded mapping data is requested here at the latest
+        CompletableFuture<Void> deferredFuture = deferredMappingLoaderFuture(protocolClass);
+        if (deferredFuture != null) {
+            return deferredFuture.isDone() ? null : deferredFuture;
+        }
+
         mappingLoaderLock.readLock().lock();
         try {
             return mappingsLoaded ? null : mappingLoaderFutures.get(protocolClass);
@@ -0,0 +1,175 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocol;
+
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.ProtocolPathEntry;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Shortest protocol paths between all pairs of registered versions.
+ * <p>
+ * The table is computed once from the registered protocols with a breadth-first search per server version over the
+ * reversed protocol graph, storing the next step for every client version in dense arrays indexed by version index.
+ * Path lists are only created on first request and kept afterwards.
+ */
+final class ProtocolPathTable {
+    private static final int NO_PATH = -1;
+    private final Int2IntMap versionIndexes = new Int2IntOpenHashMap();
+    private final int[] versions;
+    private final int[] nextVersions;
+    private final Protocol[] nextProtocols;
+    private final AtomicReferenceArray<List<ProtocolPathEntry>> paths;
+
+    private ProtocolPathTable(final int[] versions) {
+        this.versions = versions;
+        this.nextVersions = new int[versions.length * versions.length];
+        this.nextProtocols = new Protocol[versions.length * versions.length];
+        this.paths = new AtomicReferenceArray<>(versions.length * versions.length);
+        Arrays.fill(nextVersions, NO_PATH);
+        versionIndexes.defaultReturnValue(NO_PATH);
+        for (int i = 0; i < versions.length; i++) {
+            versionIndexes.put(versions[i], i);
+        }
+    }
+
+    /**
+     * Computes the path table of the given protocol registry.
+     *
+     * @param registryMap          map of client version to a map of server version to protocol
+     * @param maxPathDeltaIncrease max allowed increase of the distance to the server version per step, or -1 to allow any
+     * @param maxProtocolPathSize  max amount of protocols in a path before its last step
+     * @return computed path table
+     */
+    static ProtocolPathTable compute(final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap, final int maxPathDeltaIncrease, final int maxProtocolPathSize) {
+        final IntList versionList = new IntArrayList();
+        for (final Int2ObjectMap.Entry<Int2ObjectMap<Protocol>> entry : registryMap.int2ObjectEntrySet()) {
+            if (!versionList.contains(entry.getIntKey())) {
+                versionList.add(entry.getIntKey());
+            }
+            for (final int serverVersion : entry.getValue().keySet()) {
+                if (!versionList.contains(serverVersion)) {
+                    versionList.add(serverVersion);
+                }
+            }
+        }
+
+        final ProtocolPathTable table = new ProtocolPathTable(versionList.toIntArray());
+        final int size = table.versions.length;
+
+        // Reversed edges: for every output version, the input versions and protocols leading to it
+        final IntList[] inputVersions = new IntList[size];
+        final List<Protocol>[] inputProtocols = new List[size];
+        for (int i = 0; i < size; i++) {
+            inputVersions[i] = new IntArrayList();
+            inputProtocols[i] = new ArrayList<>();
+        }
+        for (final Int2ObjectMap.Entry<Int2ObjectMap<Protocol>> entry : registryMap.int2ObjectEntrySet()) {
+            final int clientIndex = table.versionIndexes.get(entry.getIntKey());
+            for (final Int2ObjectMap.Entry<Protocol> protocolEntry : entry.getValue().int2ObjectEntrySet()) {
+                final int serverIndex = table.versionIndexes.get(protocolEntry.getIntKey());
+                inputVersions[serverIndex].add(clientIndex);
+                inputProtocols[serverIndex].add(protocolEntry.getValue());
+            }
+        }
+
+        final int[] distances = new int[size];
+        final int[] queue = new int[size];
+        for (int serverIndex = 0; serverIndex < size; serverIndex++) {
+            final int serverVersion = table.versions[serverIndex];
+            final int offset = serverIndex * size;
+            Arrays.fill(distances, NO_PATH);
+            distances[serverIndex] = 0;
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = serverIndex;
+            while (head < tail) {
+                final int outputIndex = queue[head++];
+                final int distance = distances[outputIndex] + 1;
+                // The limit is checked before taking the last step, so a path may have one protocol more
+                if (distance > maxProtocolPathSize + 1) {
+                    continue;
+                }
+
+                final int outputVersion = table.versions[outputIndex];
+                final IntList inputs = inputVersions[outputIndex];
+                for (int i = 0; i < inputs.size(); i++) {
+                    final int inputIndex = inputs.getInt(i);
+                    if (distances[inputIndex] != NO_PATH) {
+                        continue;
+                    }
+
+                    // Check if the step goes farther away from the server version than allowed
+                    final int inputVersion = table.versions[inputIndex];
+                    if (maxPathDeltaIncrease != -1 && Math.abs(serverVersion - outputVersion) - Math.abs(serverVersion - inputVersion) > maxPathDeltaIncrease) {
+                        continue;
+                    }
+
+                    distances[inputIndex] = distance;
+                    table.nextVersions[offset + inputIndex] = outputIndex;
+                    table.nextProtocols[offset + inputIndex] = inputProtocols[outputIndex].get(i);
+                    queue[tail++] = inputIndex;
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the shortest path of protocols from the client to the server version.
+     *
+     * @param clientVersion input version
+     * @param serverVersion desired output version
+     * @return unmodifiable path from client to server version, or null if there is none
+     */
+    @Nullable List<ProtocolPathEntry> path(final int clientVersion, final int serverVersion) {
+        final int clientIndex = versionIndexes.get(clientVersion);
+        final int serverIndex = versionIndexes.get(serverVersion);
+        if (clientIndex == NO_PATH || serverIndex == NO_PATH) {
+            return null;
+        }
+
+        final int offset = serverIndex * versions.length;
+        final List<ProtocolPathEntry> cachedPath = paths.get(offset + clientIndex);
+        if (cachedPath != null || nextVersions[offset + clientIndex] == NO_PATH) {
+            return cachedPath;
+        }
+
+        final List<ProtocolPathEntry> path = new ArrayList<>();
+        int index = clientIndex;
+        while (index != serverIndex) {
+            final int nextIndex = nextVersions[offset + index];
+            path.add(new ProtocolPathEntryImpl(versions[nextIndex], nextProtocols[offset + index]));
+            index = nextIndex;
+        }
+
+        final List<ProtocolPathEntry> unmodifiablePath = Collections.unmodifiableList(path);
+        return paths.compareAndSet(offset + clientIndex, null, unmodifiablePath) ? unmodifiablePath : paths.get(offset + clientIndex);
+    }
+}
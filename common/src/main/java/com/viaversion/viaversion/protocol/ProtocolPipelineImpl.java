@@ -26,17 +26,22 @@ import com.viaversion.viaversion.api.protocol.ProtocolPipeline;
 import com.viaversion.viaversion.api.protocol.packet.Direction;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.exception.CancelException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class ProtocolPipelineImpl extends AbstractSimpleProtocol implements ProtocolPipeline {
+    private static final Protocol[] PROTOCOL_ARRAY = new Protocol[0];
+    private static final int MAX_ROUTES = 256;
     private final UserConnection userConnection;
     /**
      * Protocol list ordered from client to server transformation with the base protocols at the end.
@@ -44,6 +49,14 @@ public class ProtocolPipelineImpl extends AbstractSimpleProtocol implements Prot
     private final List<Protocol> protocolList = new CopyOnWriteArrayList<>();
     private final Set<Class<? extends Protocol>> protocolSet = new HashSet<>();
     private List<Protocol> reversedProtocolList = new CopyOnWriteArrayList<>();
+    /**
+     * Packet routes by direction, state, and unmapped packet id, cleared whenever the protocols change.
+     */
+    private volatile PacketRoute[][][] routes = new PacketRoute[Direction.values().length][State.values().length][];
+    /**
+     * Runs of protocols with composable block state mappings by their protocols, cleared whenever the protocols change.
+     */
+    private volatile Map<Protocol, List<Protocol>> blockStateRuns;
     private int baseProtocols;
 
     public ProtocolPipelineImpl(UserConnection userConnection) {
@@ -81,6 +94,7 @@ public class ProtocolPipelineImpl extends AbstractSimpleProtocol implements Prot
 
         protocolSet.add(protocol.getClass());
         protocol.init(userConnection);
+        clearRoutes();
     }
 
     @Override
@@ -92,6 +106,7 @@ public class ProtocolPipelineImpl extends AbstractSimpleProtocol implements Prot
         }
 
         refreshReversedList();
+        clearRoutes();
     }
 
     private synchronized void refreshReversedList() {
@@ -104,6 +119,13 @@ public class ProtocolPipelineImpl extends AbstractSimpleProtocol implements Prot
 
     @Override
     public void transform(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
+        if (!transformPacket(direction, state, packetWrapper)) {
+            throw CancelException.generate();
+        }
+    }
+
+    @Override
+    public boolean transformPacket(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
         int originalID = packetWrapper.getId();
 
         DebugHandler debugHandler = Via.getManager().debugHandler();
@@ -113,12 +135,82 @@ public class ProtocolPipelineImpl extends AbstractSimpleProtocol implements Prot
         }
 
         // Apply protocols
-        packetWrapper.apply(direction, state, 0, protocolListFor(direction));
-        super.transform(direction, state, packetWrapper);
+        boolean send;
+        if (packetWrapper.getPacketType() == null) {
+            send = route(direction, state, originalID).apply(direction, state, packetWrapper);
+        } else {
+            send = PacketRoute.applyProtocols(direction, state, packetWrapper, protocolListFor(direction).toArray(PROTOCOL_ARRAY), 0);
+        }
+        if (!send || !transformMapped(direction, state, packetWrapper)) {
+            return false;
+        }
 
         if (debug && debugHandler.logPostPacketTransform() && debugHandler.shouldLog(packetWrapper, direction)) {
             logPacket(direction, state, packetWrapper, originalID);
         }
+        return true;
+    }
+
+    @Override
+    public int mappedIdIfUnhandled(final Direction direction, final State state, final int packetId) {
+        return route(direction, state, packetId).unhandledMappedId();
+    }
+
+    @Override
+    public boolean isMemoizable(final Direction direction, final State state, final int packetId) {
+        return route(direction, state, packetId).isMemoizable();
+    }
+
+    private PacketRoute route(final Direction direction, final State state, final int packetId) {
+        if (packetId < 0 || packetId >= MAX_ROUTES) {
+            return PacketRoute.compute(direction, state, packetId, protocolListFor(direction).toArray(PROTOCOL_ARRAY));
+        }
+
+        final PacketRoute[][][] routes = this.routes;
+        PacketRoute[] stateRoutes = routes[direction.ordinal()][state.ordinal()];
+        if (stateRoutes == null) {
+            stateRoutes = new PacketRoute[MAX_ROUTES];
+            routes[direction.ordinal()][state.ordinal()] = stateRoutes;
+        }
+
+        PacketRoute route = stateRoutes[packetId];
+        if (route == null) {
+            route = PacketRoute.compute(direction, state, packetId, protocolListFor(direction).toArray(PROTOCOL_ARRAY));
+            stateRoutes[packetId] = route;
+        }
+        return route;
+    }
+
+    private void clearRoutes() {
+        routes = new PacketRoute[Direction.values().length][State.values().length][];
+        blockStateRuns = null;
+    }
+
+    /**
+     * Returns the composed block state mappings of the run of protocols the given protocol is part of.
+     *
+     * @param protocol protocol
+     * @return composed block state mappings, or null if the protocol is not part of a run or its mappings cannot be composed yet
+     * @see ProtocolManagerImpl#registerComposableBlockStates(Class, boolean)
+     */
+    public @Nullable ComposedBlockStateMappings composedBlockStateMappings(final Protocol protocol) {
+        Map<Protocol, List<Protocol>> blockStateRuns = this.blockStateRuns;
+        if (blockStateRuns == null) {
+            blockStateRuns = new IdentityHashMap<>();
+            for (final List<Protocol> run : protocolManager().blockStateMappingRuns(reversedProtocolList)) {
+                for (final Protocol runProtocol : run) {
+                    blockStateRuns.put(runProtocol, run);
+                }
+            }
+            this.blockStateRuns = blockStateRuns;
+        }
+
+        final List<Protocol> run = blockStateRuns.get(protocol);
+        return run != null ? protocolManager().composedBlockStateMappings(run) : null;
+    }
+
+    private static ProtocolManagerImpl protocolManager() {
+        return (ProtocolManagerImpl) Via.getManager().getProtocolManager();
     }
 
     private List<Protocol> protocolListFor(final Direction direction) {
@@ -185,6 +277,7 @@ public class ProtocolPipelineImpl extends AbstractSimpleProtocol implements Prot
         baseProtocols = 0;
 
         registerPackets();
+        clearRoutes();
     }
 
     @Override
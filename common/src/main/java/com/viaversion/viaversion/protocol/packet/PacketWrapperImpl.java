@@ -27,27 +27,28 @@ import com.viaversion.viaversion.api.protocol.packet.PacketType;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.protocol.packet.State;
 import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
+import com.viaversion.viaversion.api.protocol.remapper.PacketHandlers;
 import com.viaversion.viaversion.api.type.Type;
 import com.viaversion.viaversion.api.type.TypeConverter;
 import com.viaversion.viaversion.exception.CancelException;
+import com.viaversion.viaversion.protocol.ComposedBlockStateMappings;
 import com.viaversion.viaversion.exception.InformativeException;
 import com.viaversion.viaversion.util.PipelineUtil;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelFuture;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Objects;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-public class PacketWrapperImpl implements PacketWrapper {
+public class PacketWrapperImpl implements PacketWrapper, PacketHandlers.FixedPassthroughTarget {
     private static final Protocol[] PROTOCOL_ARRAY = new Protocol[0];
 
-    private final Deque<PacketValue<?>> readableObjects = new ArrayDeque<>();
-    private final List<PacketValue<?>> packetValues = new ArrayList<>();
+    private PacketValues readableObjects = new PacketValues();
+    private PacketValues packetValues = new PacketValues();
+    private int readIndex;
     private final ByteBuf inputBuffer;
     private final UserConnection userConnection;
     private boolean send = true;
@@ -56,6 +57,10 @@ public class PacketWrapperImpl implements PacketWrapper {
      */
     private PacketType packetType;
     private int id;
+    /**
+     * Composed block state mappings already applied to the packet by an earlier protocol of the pipeline
+     */
+    private ComposedBlockStateMappings appliedBlockStateMappings;
 
     public PacketWrapperImpl(int packetId, @Nullable ByteBuf inputBuffer, UserConnection userConnection) {
         this.id = packetId;
@@ -72,40 +77,24 @@ public class PacketWrapperImpl implements PacketWrapper {
 
     @Override
     public <T> T get(Type<T> type, int index) throws Exception {
-        int currentIndex = 0;
-        for (PacketValue<?> packetValue : packetValues) {
-            if (packetValue.type() != type) {
-                continue;
-            }
-            if (currentIndex == index) {
-                //noinspection unchecked
-                return (T) packetValue.value();
-            }
-            currentIndex++;
+        int valueIndex = packetValues.indexOf(type, index);
+        if (valueIndex == -1) {
+            throw createInformativeException(new ArrayIndexOutOfBoundsException("Could not find type " + type.getTypeName() + " at " + index), type, index);
         }
-        throw createInformativeException(new ArrayIndexOutOfBoundsException("Could not find type " + type.getTypeName() + " at " + index), type, index);
+        //noinspection unchecked
+        return (T) packetValues.value(valueIndex);
     }
 
     @Override
     public boolean is(Type type, int index) {
-        int currentIndex = 0;
-        for (PacketValue<?> packetValue : packetValues) {
-            if (packetValue.type() != type) {
-                continue;
-            }
-            if (currentIndex == index) {
-                return true;
-            }
-            currentIndex++;
-        }
-        return false;
+        return packetValues.indexOf(type, index) != -1;
     }
 
     @Override
     public boolean isReadable(Type type, int index) {
         int currentIndex = 0;
-        for (PacketValue<?> packetValue : readableObjects) {
-            if (packetValue.type().getBaseClass() != type.getBaseClass()) {
+        for (int i = readIndex; i < readableObjects.size(); i++) {
+            if (readableObjects.type(i).getBaseClass() != type.getBaseClass()) {
                 continue;
             }
             if (currentIndex == index) {
@@ -119,23 +108,16 @@ public class PacketWrapperImpl implements PacketWrapper {
 
     @Override
     public <T> void set(Type<T> type, int index, T value) throws Exception {
-        int currentIndex = 0;
-        for (PacketValue packetValue : packetValues) {
-            if (packetValue.type() != type) {
-                continue;
-            }
-            if (currentIndex == index) {
-                packetValue.setValue(attemptTransform(type, value));
-                return;
-            }
-            currentIndex++;
+        int valueIndex = packetValues.indexOf(type, index);
+        if (valueIndex == -1) {
+            throw createInformativeException(new ArrayIndexOutOfBoundsException("Could not find type " + type.getTypeName() + " at " + index), type, index);
         }
-        throw createInformativeException(new ArrayIndexOutOfBoundsException("Could not find type " + type.getTypeName() + " at " + index), type, index);
+        packetValues.set(valueIndex, attemptTransform(type, value));
     }
 
     @Override
     public <T> T read(Type<T> type) throws Exception {
-        if (readableObjects.isEmpty()) {
+        if (readIndex == readableObjects.size()) {
             Preconditions.checkNotNull(inputBuffer, "This packet does not have an input buffer.");
             // We could in the future log input read values, but honestly for things like bulk maps, mem waste D:
             try {
@@ -145,21 +127,210 @@ public class PacketWrapperImpl implements PacketWrapper {
             }
         }
 
-        PacketValue readValue = readableObjects.poll();
-        Type<?> readType = readValue.type();
+        //noinspection unchecked
+        return (T) readableObjects.value(pollReadable(type));
+    }
+
+    /**
+     * Returns the index of the next readable value after checking its type.
+     *
+     * @param type expected type
+     * @return index of the next readable value
+     * @throws InformativeException if the next readable value has a different type
+     */
+    private int pollReadable(Type<?> type) throws InformativeException {
+        int index = readIndex++;
+        Type<?> readType = readableObjects.type(index);
         if (readType == type
                 || (type.getBaseClass() == readType.getBaseClass()
                 && type.getOutputClass() == readType.getOutputClass())) {
-            //noinspection unchecked
-            return (T) readValue.value();
-        } else {
-            throw createInformativeException(new IOException("Unable to read type " + type.getTypeName() + ", found " + readValue.type().getTypeName()), type, readableObjects.size());
+            return index;
         }
+        throw createInformativeException(new IOException("Unable to read type " + type.getTypeName() + ", found " + readType.getTypeName()), type, readableObjects.size() - readIndex);
     }
 
     @Override
     public <T> void write(Type<T> type, T value) {
-        packetValues.add(new PacketValue<>(type, attemptTransform(type, value)));
+        packetValues.add(type, attemptTransform(type, value));
+    }
+
+    @Override
+    public int readVarInt() throws Exception {
+        if (readIndex == readableObjects.size()) {
+            ByteBuf buf = checkedInputBuffer();
+            try {
+                return Type.VAR_INT.readPrimitive(buf);
+            } catch (Exception e) {
+                throw createInformativeException(e, Type.VAR_INT, packetValues.size() + 1);
+            }
+        }
+        return (int) readableObjects.primitiveValue(pollReadable(Type.VAR_INT));
+    }
+
+    @Override
+    public void writeVarInt(int value) {
+        packetValues.addPrimitive(Type.VAR_INT, value);
+    }
+
+    @Override
+    public int passthroughVarInt() throws Exception {
+        int value = readVarInt();
+        writeVarInt(value);
+        return value;
+    }
+
+    @Override
+    public int readInt() throws Exception {
+        if (readIndex == readableObjects.size()) {
+            ByteBuf buf = checkedInputBuffer();
+            try {
+                return Type.INT.readPrimitive(buf);
+            } catch (Exception e) {
+                throw createInformativeException(e, Type.INT, packetValues.size() + 1);
+            }
+        }
+        return (int) readableObjects.primitiveValue(pollReadable(Type.INT));
+    }
+
+    @Override
+    public void writeInt(int value) {
+        packetValues.addPrimitive(Type.INT, value);
+    }
+
+    @Override
+    public int passthroughInt() throws Exception {
+        int value = readInt();
+        writeInt(value);
+        return value;
+    }
+
+    @Override
+    public long readLong() throws Exception {
+        if (readIndex == readableObjects.size()) {
+            ByteBuf buf = checkedInputBuffer();
+            try {
+                return Type.LONG.readPrimitive(buf);
+            } catch (Exception e) {
+                throw createInformativeException(e, Type.LONG, packetValues.size() + 1);
+            }
+        }
+        return readableObjects.primitiveValue(pollReadable(Type.LONG));
+    }
+
+    @Override
+    public void writeLong(long value) {
+        packetValues.addPrimitive(Type.LONG, value);
+    }
+
+    @Override
+    public long passthroughLong() throws Exception {
+        long value = readLong();
+        writeLong(value);
+        return value;
+    }
+
+    @Override
+    public byte readByte() throws Exception {
+        if (readIndex == readableObjects.size()) {
+            ByteBuf buf = checkedInputBuffer();
+            try {
+                return Type.BYTE.readPrimitive(buf);
+            } catch (Exception e) {
+                throw createInformativeException(e, Type.BYTE, packetValues.size() + 1);
+            }
+        }
+        return (byte) readableObjects.primitiveValue(pollReadable(Type.BYTE));
+    }
+
+    @Override
+    public void writeByte(byte value) {
+        packetValues.addPrimitive(Type.BYTE, value);
+    }
+
+    @Override
+    public byte passthroughByte() throws Exception {
+        byte value = readByte();
+        writeByte(value);
+        return value;
+    }
+
+    @Override
+    public float readFloat() throws Exception {
+        if (readIndex == readableObjects.size()) {
+            ByteBuf buf = checkedInputBuffer();
+            try {
+                return Type.FLOAT.readPrimitive(buf);
+            } catch (Exception e) {
+                throw createInformativeException(e, Type.FLOAT, packetValues.size() + 1);
+            }
+        }
+        return Float.intBitsToFloat((int) readableObjects.primitiveValue(pollReadable(Type.FLOAT)));
+    }
+
+    @Override
+    public void writeFloat(float value) {
+        packetValues.addPrimitive(Type.FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public float passthroughFloat() throws Exception {
+        float value = readFloat();
+        writeFloat(value);
+        return value;
+    }
+
+    @Override
+    public double readDouble() throws Exception {
+        if (readIndex == readableObjects.size()) {
+            ByteBuf buf = checkedInputBuffer();
+            try {
+                return Type.DOUBLE.readPrimitive(buf);
+            } catch (Exception e) {
+                throw createInformativeException(e, Type.DOUBLE, packetValues.size() + 1);
+            }
+        }
+        return Double.longBitsToDouble(readableObjects.primitiveValue(pollReadable(Type.DOUBLE)));
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        packetValues.addPrimitive(Type.DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public double passthroughDouble() throws Exception {
+        double value = readDouble();
+        writeDouble(value);
+        return value;
+    }
+
+    @Override
+    public boolean readBoolean() throws Exception {
+        if (readIndex == readableObjects.size()) {
+            ByteBuf buf = checkedInputBuffer();
+            try {
+                return Type.BOOLEAN.readPrimitive(buf);
+            } catch (Exception e) {
+                throw createInformativeException(e, Type.BOOLEAN, packetValues.size() + 1);
+            }
+        }
+        return readableObjects.primitiveValue(pollReadable(Type.BOOLEAN)) != 0;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        packetValues.addPrimitive(Type.BOOLEAN, value ? 1 : 0);
+    }
+
+    @Override
+    public boolean passthroughBoolean() throws Exception {
+        boolean value = readBoolean();
+        writeBoolean(value);
+        return value;
+    }
+
+    private ByteBuf checkedInputBuffer() {
+        return Preconditions.checkNotNull(inputBuffer, "This packet does not have an input buffer.");
     }
 
     /**
@@ -189,11 +360,69 @@ public class PacketWrapperImpl implements PacketWrapper {
         return value;
     }
 
+    @Override
+    public <T> void passthroughRaw(Type<T> type) throws Exception {
+        if (readIndex != readableObjects.size()) {
+            if (readableObjects.isRaw(readIndex) && readableObjects.type(readIndex) == type) {
+                // Still undecoded, move it along as is
+                packetValues.add(readableObjects, readIndex++);
+            } else {
+                passthrough(type);
+            }
+            return;
+        }
+        if (!type.isSkippable()) {
+            passthrough(type);
+            return;
+        }
+
+        Preconditions.checkNotNull(inputBuffer, "This packet does not have an input buffer.");
+        int start = inputBuffer.readerIndex();
+        try {
+            type.skip(inputBuffer);
+        } catch (Exception e) {
+            throw createInformativeException(e, type, packetValues.size() + 1);
+        }
+        // Only the position is kept, the bytes are copied straight from the input buffer when writing the packet
+        packetValues.addRaw(type, inputBuffer, start, inputBuffer.readerIndex() - start);
+    }
+
+    @Override
+    public void passthroughFixed(Type<?>[] types, int[] offsets) throws Exception {
+        int length = offsets[types.length];
+        if (readIndex != readableObjects.size() || inputBuffer == null || inputBuffer.readableBytes() < length) {
+            // Go one by one to fail at the exact value
+            for (Type<?> type : types) {
+                passthrough(type);
+            }
+            return;
+        }
+
+        int start = inputBuffer.readerIndex();
+        for (int i = 0; i < types.length; i++) {
+            packetValues.addPrimitive(types[i], fixedValue(types[i], start + offsets[i]));
+        }
+        inputBuffer.skipBytes(length);
+    }
+
+    private long fixedValue(Type<?> type, int index) {
+        if (type == Type.LONG || type == Type.DOUBLE) {
+            return inputBuffer.getLong(index);
+        } else if (type == Type.INT || type == Type.FLOAT) {
+            return inputBuffer.getInt(index); // Floats are stored as their raw int bits
+        } else if (type == Type.BOOLEAN) {
+            return inputBuffer.getBoolean(index) ? 1 : 0;
+        } else if (type == Type.BYTE) {
+            return inputBuffer.getByte(index);
+        }
+        throw new IllegalArgumentException("Type " + type.getTypeName() + " does not have a fixed size");
+    }
+
     @Override
     public void passthroughAll() throws Exception {
         // Copy previous objects
-        packetValues.addAll(readableObjects);
-        readableObjects.clear();
+        packetValues.addAll(readableObjects, readIndex);
+        clearReadable();
         // If the buffer has readable bytes, copy them.
         if (inputBuffer.isReadable()) {
             passthrough(Type.REMAINING_BYTES);
@@ -205,19 +434,17 @@ public class PacketWrapperImpl implements PacketWrapper {
         if (id != -1) {
             Type.VAR_INT.writePrimitive(buffer, id);
         }
-        if (!readableObjects.isEmpty()) {
-            packetValues.addAll(readableObjects);
-            readableObjects.clear();
+        if (readIndex != readableObjects.size()) {
+            packetValues.addAll(readableObjects, readIndex);
+            clearReadable();
         }
 
-        int index = 0;
-        for (final PacketValue<?> packetValue : packetValues) {
+        for (int i = 0; i < packetValues.size(); i++) {
             try {
-                packetValue.write(buffer);
+                packetValues.write(buffer, i);
             } catch (final Exception e) {
-                throw createInformativeException(e, packetValue.type(), index);
+                throw createInformativeException(e, packetValues.type(i), i);
             }
-            index++;
         }
         writeRemaining(buffer);
     }
@@ -236,7 +463,12 @@ public class PacketWrapperImpl implements PacketWrapper {
         if (inputBuffer != null) {
             inputBuffer.clear();
         }
-        readableObjects.clear(); // :(
+        clearReadable(); // :(
+    }
+
+    private void clearReadable() {
+        readableObjects.clear();
+        readIndex = 0;
     }
 
     @Override
@@ -412,7 +644,9 @@ public class PacketWrapperImpl implements PacketWrapper {
         State updatedState = state; // The state might change while transforming, so we need to check for that
         if (reverse) {
             for (int i = index; i >= 0; i--) {
-                pipeline[i].transform(direction, updatedState, this);
+                if (!pipeline[i].transformPacket(direction, updatedState, this)) {
+                    throw CancelException.generate();
+                }
                 resetReader();
                 if (this.packetType != null) {
                     updatedState = this.packetType.state();
@@ -420,7 +654,9 @@ public class PacketWrapperImpl implements PacketWrapper {
             }
         } else {
             for (int i = index; i < pipeline.length; i++) {
-                pipeline[i].transform(direction, updatedState, this);
+                if (!pipeline[i].transformPacket(direction, updatedState, this)) {
+                    throw CancelException.generate();
+                }
                 resetReader();
                 if (this.packetType != null) {
                     updatedState = this.packetType.state();
@@ -447,11 +683,13 @@ public class PacketWrapperImpl implements PacketWrapper {
 
     @Override
     public void resetReader() {
-        // Move all packet values to the readable for next packet.
-        for (int i = packetValues.size() - 1; i >= 0; i--) {
-            this.readableObjects.addFirst(this.packetValues.get(i));
-        }
-        this.packetValues.clear();
+        // Move all packet values in front of the remaining readable values for next packet.
+        packetValues.addAll(readableObjects, readIndex);
+        PacketValues readable = packetValues;
+        packetValues = readableObjects;
+        readableObjects = readable;
+        packetValues.clear();
+        readIndex = 0;
     }
 
     @Override
@@ -554,60 +792,240 @@ public class PacketWrapperImpl implements PacketWrapper {
         return inputBuffer;
     }
 
+    public @Nullable ComposedBlockStateMappings appliedBlockStateMappings() {
+        return appliedBlockStateMappings;
+    }
+
+    public void setAppliedBlockStateMappings(@Nullable ComposedBlockStateMappings appliedBlockStateMappings) {
+        this.appliedBlockStateMappings = appliedBlockStateMappings;
+    }
+
     @Override
     public String toString() {
         return "PacketWrapper{" +
                 "type=" + packetType +
                 ", id=" + id +
                 ", values=" + packetValues +
-                ", readable=" + readableObjects +
+                ", readable=" + readableObjects.toString(readIndex) +
                 '}';
     }
 
-    public static final class PacketValue<T> {
-        private final Type<T> type;
-        private T value;
-
-        private PacketValue(final Type<T> type, @Nullable final T value) {
-            this.type = type;
-            this.value = value;
+    /**
+     * Packet values stored as parallel arrays, keeping primitive values unboxed.
+     */
+    private static final class PacketValues {
+        private static final int INITIAL_CAPACITY = 8;
+        private static final Type<?>[] EMPTY_TYPES = new Type[0];
+        private static final Object[] EMPTY_VALUES = new Object[0];
+        private static final long[] EMPTY_PRIMITIVES = new long[0];
+        /**
+         * Marker for values held in the primitives array.
+         */
+        private static final Object PRIMITIVE = new Object();
+        private Type<?>[] types = EMPTY_TYPES;
+        private Object[] values = EMPTY_VALUES;
+        private long[] primitives = EMPTY_PRIMITIVES;
+        private int size;
+
+        int size() {
+            return size;
         }
 
-        public Type<T> type() {
-            return type;
+        Type<?> type(int index) {
+            return types[index];
         }
 
-        public @Nullable Object value() {
+        @Nullable Object value(int index) throws Exception {
+            Object value = values[index];
+            if (value == PRIMITIVE) {
+                return box(types[index], primitives[index]);
+            }
+            if (value instanceof RawValue) {
+                // Decode on first access, the raw bytes are no longer needed afterwards
+                value = types[index].read(((RawValue) value).slice());
+                values[index] = value;
+            }
             return value;
         }
 
-        public void write(final ByteBuf buffer) throws Exception {
-            type.write(buffer, value);
+        boolean isRaw(int index) {
+            return values[index] instanceof RawValue;
         }
 
-        public void setValue(@Nullable final T value) {
-            this.value = value;
+        long primitiveValue(int index) {
+            Object value = values[index];
+            if (value == PRIMITIVE) {
+                return primitives[index];
+            }
+
+            // Written as an object
+            if (value instanceof Float) {
+                return Float.floatToRawIntBits((Float) value);
+            } else if (value instanceof Double) {
+                return Double.doubleToRawLongBits((Double) value);
+            } else if (value instanceof Boolean) {
+                return (Boolean) value ? 1 : 0;
+            }
+            return ((Number) value).longValue();
         }
 
-        @Override
-        public boolean equals(final Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            final PacketValue<?> that = (PacketValue<?>) o;
-            if (!type.equals(that.type)) return false;
-            return Objects.equals(value, that.value);
+        void set(int index, @Nullable Object value) {
+            values[index] = value;
+        }
+
+        int indexOf(Type<?> type, int typeIndex) {
+            int currentIndex = 0;
+            for (int i = 0; i < size; i++) {
+                if (types[i] != type) {
+                    continue;
+                }
+                if (currentIndex == typeIndex) {
+                    return i;
+                }
+                currentIndex++;
+            }
+            return -1;
+        }
+
+        void add(Type<?> type, @Nullable Object value) {
+            ensureCapacity(size + 1);
+            types[size] = type;
+            values[size] = value;
+            size++;
+        }
+
+        void addRaw(Type<?> type, ByteBuf buffer, int start, int length) {
+            add(type, new RawValue(buffer, start, length));
+        }
+
+        void addPrimitive(Type<?> type, long value) {
+            ensureCapacity(size + 1);
+            if (primitives.length < types.length) {
+                primitives = Arrays.copyOf(primitives, types.length);
+            }
+            types[size] = type;
+            values[size] = PRIMITIVE;
+            primitives[size] = value;
+            size++;
+        }
+
+        void add(PacketValues other, int index) {
+            if (other.values[index] == PRIMITIVE) {
+                addPrimitive(other.types[index], other.primitives[index]);
+            } else {
+                add(other.types[index], other.values[index]);
+            }
+        }
+
+        void addAll(PacketValues other, int fromIndex) {
+            for (int i = fromIndex; i < other.size; i++) {
+                add(other, i);
+            }
+        }
+
+        void write(ByteBuf buffer, int index) throws Exception {
+            //noinspection unchecked
+            Type<Object> type = (Type<Object>) types[index];
+            Object object = values[index];
+            if (object instanceof RawValue) {
+                RawValue raw = (RawValue) object;
+                buffer.writeBytes(raw.buffer, raw.start, raw.length);
+                return;
+            }
+            if (object != PRIMITIVE) {
+                type.write(buffer, object);
+                return;
+            }
+
+            long value = primitives[index];
+            Type<?> primitiveType = types[index];
+            if (primitiveType == Type.VAR_INT) {
+                Type.VAR_INT.writePrimitive(buffer, (int) value);
+            } else if (primitiveType == Type.INT) {
+                Type.INT.writePrimitive(buffer, (int) value);
+            } else if (primitiveType == Type.LONG) {
+                Type.LONG.writePrimitive(buffer, value);
+            } else if (primitiveType == Type.BYTE) {
+                Type.BYTE.writePrimitive(buffer, (byte) value);
+            } else if (primitiveType == Type.FLOAT) {
+                Type.FLOAT.writePrimitive(buffer, Float.intBitsToFloat((int) value));
+            } else if (primitiveType == Type.DOUBLE) {
+                Type.DOUBLE.writePrimitive(buffer, Double.longBitsToDouble(value));
+            } else if (primitiveType == Type.BOOLEAN) {
+                Type.BOOLEAN.writePrimitive(buffer, value != 0);
+            } else {
+                type.write(buffer, box(type, value));
+            }
+        }
+
+        void clear() {
+            Arrays.fill(types, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > types.length) {
+                int newCapacity = Math.max(INITIAL_CAPACITY, Math.max(capacity, types.length << 1));
+                types = Arrays.copyOf(types, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+            }
+        }
+
+        private static Object box(Type<?> type, long value) {
+            if (type == Type.LONG) {
+                return value;
+            } else if (type == Type.BYTE) {
+                return (byte) value;
+            } else if (type == Type.FLOAT) {
+                return Float.intBitsToFloat((int) value);
+            } else if (type == Type.DOUBLE) {
+                return Double.longBitsToDouble(value);
+            } else if (type == Type.BOOLEAN) {
+                return value != 0;
+            }
+            return (int) value;
+        }
+
+        String toString(int fromIndex) {
+            StringBuilder builder = new StringBuilder("[");
+            for (int i = fromIndex; i < size; i++) {
+                if (i != fromIndex) {
+                    builder.append(", ");
+                }
+                Object value = values[i];
+                builder.append('{').append(types[i]).append(": ").append(value == PRIMITIVE ? box(types[i], primitives[i]) : value).append('}');
+            }
+            return builder.append(']').toString();
         }
 
         @Override
-        public int hashCode() {
-            int result = type.hashCode();
-            result = 31 * result + (value != null ? value.hashCode() : 0);
-            return result;
+        public String toString() {
+            return toString(0);
+        }
+    }
+
+    /**
+     * Position of an undecoded value passed through from the input buffer, which stays untouched while the packet is transformed.
+     */
+    private static final class RawValue {
+        private final ByteBuf buffer;
+        private final int start;
+        private final int length;
+
+        private RawValue(ByteBuf buffer, int start, int length) {
+            this.buffer = buffer;
+            this.start = start;
+            this.length = length;
+        }
+
+        ByteBuf slice() {
+            return buffer.slice(start, length);
         }
 
         @Override
         public String toString() {
-            return "{" + type + ": " + value + "}";
+            return "raw(" + length + " bytes)";
         }
     }
 }
@@ -26,7 +26,9 @@ import com.viaversion.viaversion.api.protocol.ProtocolPathEntry;
 import com.viaversion.viaversion.api.protocol.ProtocolPipeline;
 import com.viaversion.viaversion.api.protocol.packet.Direction;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.protocol.packet.ServerboundPacketType;
 import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.api.protocol.packet.provider.PacketTypeMap;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.api.protocol.version.VersionProvider;
 import com.viaversion.viaversion.api.type.Type;
@@ -76,6 +78,14 @@ public class BaseProtocol extends AbstractProtocol {
                 // Add protocols to pipeline
                 pipeline.add(protocols);
 
+                if (state == 2) {
+                    // Weigh the client's packets as configured, the first protocol handles the client's version
+                    final PacketTypeMap<? extends ServerboundPacketType> playPacketTypes = protocolPath.get(0).protocol().getPacketTypesProvider().unmappedServerboundPacketTypes().get(State.PLAY);
+                    if (playPacketTypes != null) {
+                        wrapper.user().getPacketTracker().setConfiguredPacketWeights(playPacketTypes);
+                    }
+                }
+
                 // Set the original snapshot version if present
                 ProtocolVersion protocol = ProtocolVersion.getProtocol(serverProtocol);
                 wrapper.set(Type.VAR_INT, 0, protocol.getOriginalVersion());
@@ -108,6 +118,11 @@ public class BaseProtocol extends AbstractProtocol {
         providers.register(VersionProvider.class, new BaseVersionProvider());
     }
 
+    @Override
+    public boolean onlyAppliesPacketMappings(Direction direction, State state) {
+        return direction != Direction.SERVERBOUND || state != State.HANDSHAKE;
+    }
+
     @Override
     public void transform(Direction direction, State state, PacketWrapper packetWrapper) throws Exception {
         super.transform(direction, state, packetWrapper);
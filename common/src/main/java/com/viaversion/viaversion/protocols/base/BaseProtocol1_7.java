@@ -42,6 +42,7 @@ import java.util.UUID;
 import java.util.logging.Level;
 
 public class BaseProtocol1_7 extends AbstractProtocol {
+    private final StatusResponseRewriter statusRewriter = new StatusResponseRewriter();
 
     @Override
     protected void registerPackets() {
@@ -53,30 +54,16 @@ public class BaseProtocol1_7 extends AbstractProtocol {
                     ProtocolInfo info = wrapper.user().getProtocolInfo();
                     String originalStatus = wrapper.get(Type.STRING, 0);
                     try {
-                        JsonElement json = GsonUtil.getGson().fromJson(originalStatus, JsonElement.class);
-                        JsonObject version;
-                        int protocolVersion = 0; // Unknown!
-
-                        if (json.isJsonObject()) {
-                            if (json.getAsJsonObject().has("version")) {
-                                version = json.getAsJsonObject().get("version").getAsJsonObject();
+                        if (!Via.getAPI().getServerVersion().isKnown()) { // Set the Server protocol if the detection on startup failed
+                            int protocolVersion = 0; // Unknown!
+                            JsonElement json = GsonUtil.getGson().fromJson(originalStatus, JsonElement.class);
+                            if (json.isJsonObject() && json.getAsJsonObject().has("version")) {
+                                JsonObject version = json.getAsJsonObject().get("version").getAsJsonObject();
                                 if (version.has("protocol")) {
                                     protocolVersion = ((Long) version.get("protocol").getAsLong()).intValue();
                                 }
-                            } else {
-                                json.getAsJsonObject().add("version", version = new JsonObject());
                             }
-                        } else {
-                            // Format properly
-                            json = new JsonObject();
-                            json.getAsJsonObject().add("version", version = new JsonObject());
-                        }
-
-                        if (Via.getConfig().isSendSupportedVersions()) { // Send supported versions
-                            version.add("supportedVersions", GsonUtil.getGson().toJsonTree(Via.getAPI().getSupportedVersions()));
-                        }
 
-                        if (!Via.getAPI().getServerVersion().isKnown()) { // Set the Server protocol if the detection on startup failed
                             ProtocolManagerImpl protocolManager = (ProtocolManagerImpl) Via.getManager().getProtocolManager();
                             protocolManager.setServerProtocol(new ServerProtocolVersionSingleton(ProtocolVersion.getProtocol(protocolVersion).getVersion()));
                         }
@@ -94,21 +81,13 @@ public class BaseProtocol1_7 extends AbstractProtocol {
                             protocols = Via.getManager().getProtocolManager().getProtocolPath(info.getProtocolVersion(), closestServerProtocol);
                         }
 
-                        if (protocols != null) {
-                            if (protocolVersion == closestServerProtocol || protocolVersion == 0) { // Fix ServerListPlus
-                                ProtocolVersion prot = ProtocolVersion.getProtocol(info.getProtocolVersion());
-                                version.addProperty("protocol", prot.getOriginalVersion());
-                            }
-                        } else {
+                        if (protocols == null) {
                             // not compatible :(, *plays very sad violin*
                             wrapper.user().setActive(false);
                         }
 
-                        if (Via.getConfig().blockedProtocolVersions().contains(info.getProtocolVersion())) {
-                            version.addProperty("protocol", -1); // Show blocked versions as outdated
-                        }
-
-                        wrapper.set(Type.STRING, 0, GsonUtil.getGson().toJson(json)); // Update value
+                        // Update value
+                        wrapper.set(Type.STRING, 0, statusRewriter.rewrite(originalStatus, info.getProtocolVersion(), closestServerProtocol, protocols != null));
                     } catch (JsonParseException e) {
                         e.printStackTrace();
                     }
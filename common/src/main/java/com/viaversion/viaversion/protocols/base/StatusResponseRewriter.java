@@ -0,0 +1,303 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocols.base;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.util.GsonUtil;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Rewrites the version of status responses, caching the result for identical responses and client versions.
+ * <p>
+ * As long as supported versions don't have to be added, only the {@code version.protocol} number is spliced into the
+ * original json instead of parsing and serializing the full response including favicon and player sample.
+ */
+final class StatusResponseRewriter {
+    // Short enough to pick up config reloads without having to invalidate anything
+    private final Cache<Key, String> cache = CacheBuilder.newBuilder()
+            .maximumSize(64)
+            .expireAfterWrite(5, TimeUnit.SECONDS)
+            .build();
+
+    /**
+     * Returns the status response to send to the client.
+     *
+     * @param status                original status json
+     * @param clientProtocol        protocol version of the client
+     * @param closestServerProtocol closest protocol version of the server
+     * @param compatible            whether a protocol path between client and server exists
+     * @return rewritten status json
+     */
+    String rewrite(final String status, final int clientProtocol, final int closestServerProtocol, final boolean compatible) {
+        final Key key = new Key(status, clientProtocol, closestServerProtocol, compatible);
+        String rewritten = cache.getIfPresent(key);
+        if (rewritten == null) {
+            rewritten = rewriteUncached(status, clientProtocol, closestServerProtocol, compatible);
+            cache.put(key, rewritten);
+        }
+        return rewritten;
+    }
+
+    private static String rewriteUncached(final String status, final int clientProtocol, final int closestServerProtocol, final boolean compatible) {
+        final boolean blocked = Via.getConfig().blockedProtocolVersions().contains(clientProtocol);
+        if (!Via.getConfig().isSendSupportedVersions()) {
+            final String spliced = spliceProtocol(status, clientProtocol, closestServerProtocol, compatible, blocked);
+            if (spliced != null) {
+                return spliced;
+            }
+        }
+
+        JsonElement json = GsonUtil.getGson().fromJson(status, JsonElement.class);
+        final JsonObject version;
+        int protocolVersion = 0; // Unknown!
+
+        if (json.isJsonObject()) {
+            if (json.getAsJsonObject().has("version")) {
+                version = json.getAsJsonObject().get("version").getAsJsonObject();
+                if (version.has("protocol")) {
+                    protocolVersion = ((Long) version.get("protocol").getAsLong()).intValue();
+                }
+            } else {
+                json.getAsJsonObject().add("version", version = new JsonObject());
+            }
+        } else {
+            // Format properly
+            json = new JsonObject();
+            json.getAsJsonObject().add("version", version = new JsonObject());
+        }
+
+        if (Via.getConfig().isSendSupportedVersions()) { // Send supported versions
+            version.add("supportedVersions", GsonUtil.getGson().toJsonTree(Via.getAPI().getSupportedVersions()));
+        }
+
+        if (compatible && (protocolVersion == closestServerProtocol || protocolVersion == 0)) { // Fix ServerListPlus
+            version.addProperty("protocol", ProtocolVersion.getProtocol(clientProtocol).getOriginalVersion());
+        }
+
+        if (blocked) {
+            version.addProperty("protocol", -1); // Show blocked versions as outdated
+        }
+        return GsonUtil.getGson().toJson(json);
+    }
+
+    static @Nullable String spliceProtocol(final String status, final int clientProtocol, final int closestServerProtocol,
+                                           final boolean compatible, final boolean blocked) {
+        final int start = findVersionProtocol(status);
+        if (start == -1) {
+            return null;
+        }
+
+        final int digitsStart = start < status.length() && status.charAt(start) == '-' ? start + 1 : start;
+        int end = digitsStart;
+        while (end < status.length() && status.charAt(end) >= '0' && status.charAt(end) <= '9') {
+            end++;
+        }
+
+        final int next = skipWhitespace(status, end);
+        if (end == digitsStart || end - digitsStart > 18 || next == status.length() || (status.charAt(next) != ',' && status.charAt(next) != '}')) {
+            // Not a plain integer, leave it to Gson
+            return null;
+        }
+
+        final int protocolVersion = (int) Long.parseLong(status.substring(start, end));
+        int newProtocolVersion = protocolVersion;
+        if (compatible && (protocolVersion == closestServerProtocol || protocolVersion == 0)) {
+            newProtocolVersion = ProtocolVersion.getProtocol(clientProtocol).getOriginalVersion();
+        }
+        if (blocked) {
+            newProtocolVersion = -1;
+        }
+
+        if (newProtocolVersion == protocolVersion) {
+            return status;
+        }
+        return status.substring(0, start) + newProtocolVersion + status.substring(end);
+    }
+
+    /**
+     * Returns the start index of the {@code version.protocol} value, or -1 if it isn't present
+     * or the json can't be scanned reliably without fully parsing it.
+     */
+    private static int findVersionProtocol(final String json) {
+        int index = skipWhitespace(json, 0);
+        if (index == json.length() || json.charAt(index) != '{') {
+            return -1;
+        }
+
+        index = skipWhitespace(json, index + 1);
+        while (index < json.length() && json.charAt(index) == '"') {
+            final int keyEnd = skipString(json, index);
+            if (keyEnd == -1) {
+                return -1;
+            }
+
+            final boolean versionKey = keyEnd - index == 9 && json.startsWith("\"version\"", index);
+            index = skipWhitespace(json, keyEnd);
+            if (index == json.length() || json.charAt(index) != ':') {
+                return -1;
+            }
+
+            index = skipWhitespace(json, index + 1);
+            if (versionKey) {
+                return findMember(json, index, "\"protocol\"");
+            }
+
+            index = skipWhitespace(json, skipValue(json, index));
+            if (index == -1 || index == json.length() || json.charAt(index) != ',') {
+                return -1;
+            }
+            index = skipWhitespace(json, index + 1);
+        }
+        return -1;
+    }
+
+    private static int findMember(final String json, int index, final String quotedName) {
+        if (index == json.length() || json.charAt(index) != '{') {
+            return -1;
+        }
+
+        index = skipWhitespace(json, index + 1);
+        while (index < json.length() && json.charAt(index) == '"') {
+            final int keyEnd = skipString(json, index);
+            if (keyEnd == -1) {
+                return -1;
+            }
+
+            final boolean found = keyEnd - index == quotedName.length() && json.startsWith(quotedName, index);
+            index = skipWhitespace(json, keyEnd);
+            if (index == json.length() || json.charAt(index) != ':') {
+                return -1;
+            }
+
+            index = skipWhitespace(json, index + 1);
+            if (found) {
+                return index;
+            }
+
+            index = skipWhitespace(json, skipValue(json, index));
+            if (index == -1 || index == json.length() || json.charAt(index) != ',') {
+                return -1;
+            }
+            index = skipWhitespace(json, index + 1);
+        }
+        return -1;
+    }
+
+    private static int skipValue(final String json, int index) {
+        if (index >= json.length()) {
+            return -1;
+        }
+
+        final char c = json.charAt(index);
+        if (c == '"') {
+            return skipString(json, index);
+        }
+
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (index < json.length()) {
+                final char current = json.charAt(index);
+                if (current == '"') {
+                    index = skipString(json, index);
+                    if (index == -1) {
+                        return -1;
+                    }
+                    continue;
+                }
+
+                if (current == '{' || current == '[') {
+                    depth++;
+                } else if ((current == '}' || current == ']') && --depth == 0) {
+                    return index + 1;
+                }
+                index++;
+            }
+            return -1;
+        }
+
+        // Number or literal
+        while (index < json.length()) {
+            final char current = json.charAt(index);
+            if (current == ',' || current == '}' || current == ']' || Character.isWhitespace(current)) {
+                break;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipString(final String json, int index) {
+        index++;
+        while (index < json.length()) {
+            final char c = json.charAt(index++);
+            if (c == '"') {
+                return index;
+            } else if (c == '\\') {
+                index++;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(final String json, int index) {
+        if (index == -1) {
+            return -1;
+        }
+        while (index < json.length() && Character.isWhitespace(json.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static final class Key {
+        private final String status;
+        private final int clientProtocol;
+        private final int closestServerProtocol;
+        private final boolean compatible;
+
+        private Key(final String status, final int clientProtocol, final int closestServerProtocol, final boolean compatible) {
+            this.status = status;
+            this.clientProtocol = clientProtocol;
+            this.closestServerProtocol = closestServerProtocol;
+            this.compatible = compatible;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Key key = (Key) o;
+            return clientProtocol == key.clientProtocol
+                    && closestServerProtocol == key.closestServerProtocol
+                    && compatible == key.compatible
+                    && status.equals(key.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, clientProtocol, closestServerProtocol, compatible);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.StorableObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
@@ -62,12 +63,12 @@ public class BlockConnectionStorage implements StorableObject {
                 return;
             }
 
-            blockStorage.put(index, section = new SectionData());
+            blockStorage.put(index, section = new SparseSectionData());
             lastSection = section;
             lastIndex = index;
         }
 
-        section.setBlockAt(x, y, z, blockState);
+        setBlockAt(index, section, x, y, z, blockState);
     }
 
     public int get(int x, int y, int z) {
@@ -77,7 +78,7 @@ public class BlockConnectionStorage implements StorableObject {
             return 0;
         }
 
-        return section.blockAt(x, y, z);
+        return section.blockAt(encodeBlockPos(x, y, z));
     }
 
     public void remove(int x, int y, int z) {
@@ -87,7 +88,7 @@ public class BlockConnectionStorage implements StorableObject {
             return;
         }
 
-        section.setBlockAt(x, y, z, 0);
+        section = setBlockAt(index, section, x, y, z, 0);
 
         if (section.nonEmptyBlocks() == 0) {
             removeSection(index);
@@ -127,6 +128,17 @@ public class BlockConnectionStorage implements StorableObject {
         removeSection(getChunkSectionIndex(x << 4, y << 4, z << 4));
     }
 
+    private SectionData setBlockAt(long index, SectionData section, int x, int y, int z, int blockState) {
+        SectionData updated = section.setBlockAt(encodeBlockPos(x, y, z), blockState);
+        if (updated != section) {
+            // Grown into a denser representation
+            blockStorage.put(index, updated);
+            lastIndex = index;
+            lastSection = updated;
+        }
+        return updated;
+    }
+
     private @Nullable SectionData getSection(long index) {
         if (lastIndex == index) {
             return lastSection;
@@ -159,34 +171,182 @@ public class BlockConnectionStorage implements StorableObject {
         return new HashMap<>();
     }
 
-    private static final class SectionData {
+    private static int encodeBlockPos(int x, int y, int z) {
+        return ((y & 0xF) << 8) | ((x & 0xF) << 4) | (z & 0xF);
+    }
+
+    /**
+     * Block states of a section. Most sections only hold a handful of connectable blocks,
+     * so sections start out sparse and only grow into paletted and full arrays when needed.
+     */
+    private interface SectionData {
+
+        int blockAt(int index);
+
+        /**
+         * Sets the block state at the given index.
+         *
+         * @return this section, or the new section data if it had to be converted to a denser representation
+         */
+        SectionData setBlockAt(int index, int blockState);
+
+        int nonEmptyBlocks();
+    }
+
+    /**
+     * Sorted block indexes and their states, binary searched on lookup.
+     */
+    private static final class SparseSectionData implements SectionData {
+        private static final int MAX_SIZE = 256;
+        private short[] indexes = new short[8];
+        private short[] blockStates = new short[8];
+        private int size;
+
+        @Override
+        public int blockAt(int index) {
+            int position = Arrays.binarySearch(indexes, 0, size, (short) index);
+            return position >= 0 ? blockStates[position] : 0;
+        }
+
+        @Override
+        public SectionData setBlockAt(int index, int blockState) {
+            int position = Arrays.binarySearch(indexes, 0, size, (short) index);
+            if (position >= 0) {
+                if (blockState != 0) {
+                    blockStates[position] = (short) blockState;
+                    return this;
+                }
+
+                // Remove the entry
+                System.arraycopy(indexes, position + 1, indexes, position, size - position - 1);
+                System.arraycopy(blockStates, position + 1, blockStates, position, size - position - 1);
+                size--;
+                return this;
+            }
+
+            if (blockState == 0) {
+                return this;
+            }
+
+            if (size == MAX_SIZE) {
+                // Any denser and a paletted section is smaller
+                SectionData section = new PalettedSectionData();
+                for (int i = 0; i < size; i++) {
+                    section = section.setBlockAt(indexes[i], blockStates[i]);
+                }
+                return section.setBlockAt(index, blockState);
+            }
+
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size << 1);
+                blockStates = Arrays.copyOf(blockStates, size << 1);
+            }
+
+            position = -position - 1;
+            System.arraycopy(indexes, position, indexes, position + 1, size - position);
+            System.arraycopy(blockStates, position, blockStates, position + 1, size - position);
+            indexes[position] = (short) index;
+            blockStates[position] = (short) blockState;
+            size++;
+            return this;
+        }
+
+        @Override
+        public int nonEmptyBlocks() {
+            return size;
+        }
+    }
+
+    /**
+     * One byte palette index per block, falling back to a full array once more than 255 distinct states are present.
+     */
+    private static final class PalettedSectionData implements SectionData {
+        private final byte[] paletteIndexes = new byte[4096];
+        private short[] palette = new short[16];
+        private int paletteSize = 1; // Air at index 0
+        private short nonEmptyBlocks;
+
+        @Override
+        public int blockAt(int index) {
+            return palette[paletteIndexes[index] & 0xFF];
+        }
+
+        @Override
+        public SectionData setBlockAt(int index, int blockState) {
+            int paletteIndex = paletteIndex(blockState);
+            if (paletteIndex == -1) {
+                if (paletteSize == 256) {
+                    FullSectionData section = new FullSectionData();
+                    for (int i = 0; i < paletteIndexes.length; i++) {
+                        section.setBlockAt(i, blockAt(i));
+                    }
+                    return section.setBlockAt(index, blockState);
+                }
+
+                if (paletteSize == palette.length) {
+                    palette = Arrays.copyOf(palette, paletteSize << 1);
+                }
+                paletteIndex = paletteSize++;
+                palette[paletteIndex] = (short) blockState;
+            }
+
+            int previousIndex = paletteIndexes[index] & 0xFF;
+            if (previousIndex == paletteIndex) {
+                return this;
+            }
+
+            paletteIndexes[index] = (byte) paletteIndex;
+            if (paletteIndex == 0) {
+                nonEmptyBlocks--;
+            } else if (previousIndex == 0) {
+                nonEmptyBlocks++;
+            }
+            return this;
+        }
+
+        @Override
+        public int nonEmptyBlocks() {
+            return nonEmptyBlocks;
+        }
+
+        private int paletteIndex(int blockState) {
+            for (int i = 0; i < paletteSize; i++) {
+                if (palette[i] == blockState) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class FullSectionData implements SectionData {
         private final short[] blockStates = new short[4096];
         private short nonEmptyBlocks;
 
-        public int blockAt(int x, int y, int z) {
-            return blockStates[encodeBlockPos(x, y, z)];
+        @Override
+        public int blockAt(int index) {
+            return blockStates[index];
         }
 
-        public void setBlockAt(int x, int y, int z, int blockState) {
-            int index = encodeBlockPos(x, y, z);
-            if (blockState == blockStates[index]) {
-                return;
+        @Override
+        public SectionData setBlockAt(int index, int blockState) {
+            short previous = blockStates[index];
+            if (blockState == previous) {
+                return this;
             }
 
             blockStates[index] = (short) blockState;
             if (blockState == 0) {
                 nonEmptyBlocks--;
-            } else {
+            } else if (previous == 0) {
                 nonEmptyBlocks++;
             }
+            return this;
         }
 
-        public short nonEmptyBlocks() {
+        @Override
+        public int nonEmptyBlocks() {
             return nonEmptyBlocks;
         }
-
-        private static int encodeBlockPos(int x, int y, int z) {
-            return ((y & 0xF) << 8) | ((x & 0xF) << 4) | (z & 0xF);
-        }
     }
-}
\ No newline at end of file
+}
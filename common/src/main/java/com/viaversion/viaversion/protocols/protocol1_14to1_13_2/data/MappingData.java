@@ -33,6 +33,11 @@ public class MappingData extends MappingDataBase {
         super("1.13.2", "1.14");
     }
 
+    @Override
+    protected boolean supportsSnapshot() {
+        return true;
+    }
+
     @Override
     public void loadExtras(final CompoundTag data) {
         final CompoundTag heightmap = MappingDataLoader.loadNBT("heightmap-1.14.nbt");
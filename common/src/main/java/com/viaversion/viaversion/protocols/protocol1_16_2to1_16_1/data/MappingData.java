@@ -34,6 +34,11 @@ public class MappingData extends MappingDataBase {
         super("1.16", "1.16.2");
     }
 
+    @Override
+    protected boolean supportsSnapshot() {
+        return true;
+    }
+
     @Override
     public void loadExtras(final CompoundTag data) {
         dimensionRegistry = MappingDataLoader.loadNBTFromFile("dimension-registry-1.16.2.nbt");
@@ -29,6 +29,11 @@ public class MappingData extends MappingDataBase {
         super("1.15", "1.16");
     }
 
+    @Override
+    protected boolean supportsSnapshot() {
+        return true;
+    }
+
     @Override
     protected void loadExtras(final CompoundTag data) {
         attributeMappings.put("generic.maxHealth", "minecraft:generic.max_health");
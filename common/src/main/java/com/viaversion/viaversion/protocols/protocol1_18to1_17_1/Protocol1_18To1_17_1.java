@@ -32,6 +32,7 @@ import com.viaversion.viaversion.protocols.protocol1_18to1_17_1.data.MappingData
 import com.viaversion.viaversion.protocols.protocol1_18to1_17_1.packets.EntityPackets;
 import com.viaversion.viaversion.protocols.protocol1_18to1_17_1.packets.InventoryPackets;
 import com.viaversion.viaversion.protocols.protocol1_18to1_17_1.packets.WorldPackets;
+import com.viaversion.viaversion.protocols.protocol1_18to1_17_1.storage.ChunkLightCache;
 import com.viaversion.viaversion.protocols.protocol1_18to1_17_1.storage.ChunkLightStorage;
 import com.viaversion.viaversion.rewriter.SoundRewriter;
 import com.viaversion.viaversion.rewriter.StatisticsRewriter;
@@ -42,6 +43,7 @@ public final class Protocol1_18To1_17_1 extends AbstractProtocol<ClientboundPack
     public static final MappingData MAPPINGS = new MappingData();
     private final EntityPackets entityRewriter = new EntityPackets(this);
     private final InventoryPackets itemRewriter = new InventoryPackets(this);
+    private final ChunkLightCache lightCache = new ChunkLightCache();
 
     public Protocol1_18To1_17_1() {
         super(ClientboundPackets1_17_1.class, ClientboundPackets1_18.class, ServerboundPackets1_17.class, ServerboundPackets1_17.class);
@@ -102,7 +104,7 @@ public final class Protocol1_18To1_17_1 extends AbstractProtocol<ClientboundPack
     @Override
     public void init(final UserConnection connection) {
         addEntityTracker(connection, new EntityTrackerBase(connection, EntityTypes1_17.PLAYER));
-        connection.put(new ChunkLightStorage());
+        connection.put(new ChunkLightStorage(lightCache));
     }
 
     @Override
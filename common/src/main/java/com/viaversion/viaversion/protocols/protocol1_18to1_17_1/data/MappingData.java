@@ -31,6 +31,11 @@ public final class MappingData extends MappingDataBase {
         blockEntityIds.defaultReturnValue(-1);
     }
 
+    @Override
+    protected boolean supportsSnapshot() {
+        return true;
+    }
+
     @Override
     protected void loadExtras(final CompoundTag data) {
         final String[] blockEntities = blockEntities();
@@ -0,0 +1,149 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocols.protocol1_18to1_17_1.storage;
+
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.protocols.protocol1_18to1_17_1.storage.ChunkLightStorage.ChunkLight;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content-addressed, reference counted light store shared by all connections.
+ * <p>
+ * Players standing in the same area receive identical light packets, so equal {@link ChunkLight}s are only kept once.
+ * Per-player storages hold handles returned by {@link #acquire(ChunkLight)} and give them back with
+ * {@link #release(ChunkLight)}. Entries no longer referenced by any player stay around for reuse and are evicted
+ * least recently released first once the configured memory budget is exceeded, or once they have been unused for
+ * {@link #UNUSED_EXPIRY_MILLIS}.
+ */
+public final class ChunkLightCache {
+    static final long UNUSED_EXPIRY_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private final Map<ChunkLight, Entry> entries = new HashMap<>();
+    private final LinkedHashMap<ChunkLight, Entry> unused = new LinkedHashMap<>();
+    private volatile long usedBytes;
+
+    /**
+     * Returns the shared instance of the given light, or the light itself if it could not be pooled.
+     *
+     * @param light light data of a chunk
+     * @return handle to be passed to {@link #release(ChunkLight)} once no longer needed
+     */
+    public ChunkLight acquire(final ChunkLight light) {
+        final long budget = Via.getConfig().getShared1_17LightCacheSize() * 1024L * 1024L;
+        if (budget <= 0 && usedBytes == 0) {
+            return light;
+        }
+
+        // Hash the light arrays outside the lock
+        light.hashCode();
+        return acquire(light, budget, System.currentTimeMillis());
+    }
+
+    synchronized ChunkLight acquire(final ChunkLight light, final long budget, final long now) {
+        evictExpired(now);
+
+        final Entry entry = entries.get(light);
+        if (entry != null) {
+            if (entry.references++ == 0) {
+                unused.remove(entry.light);
+            }
+            return entry.light;
+        }
+
+        final long size = light.memorySize();
+        if (usedBytes + size > budget && !evict(usedBytes + size - budget)) {
+            // Only referenced entries left, keep this one out of the pool
+            return light;
+        }
+
+        entries.put(light, new Entry(light));
+        usedBytes += size;
+        return light;
+    }
+
+    /**
+     * Drops a reference to a handle returned by {@link #acquire(ChunkLight)}.
+     *
+     * @param light light handle
+     */
+    public void release(final ChunkLight light) {
+        if (usedBytes == 0) {
+            // Nothing pooled, so neither is this
+            return;
+        }
+        release(light, System.currentTimeMillis());
+    }
+
+    synchronized void release(final ChunkLight light, final long now) {
+        final Entry entry = entries.get(light);
+        if (entry != null && entry.light == light && --entry.references == 0) {
+            entry.releasedAt = now;
+            unused.put(light, entry);
+        }
+        evictExpired(now);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private boolean evict(final long bytes) {
+        long freed = 0;
+        final Iterator<Entry> iterator = unused.values().iterator();
+        while (freed < bytes && iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            iterator.remove();
+            entries.remove(entry.light);
+            freed += entry.light.memorySize();
+        }
+        usedBytes -= freed;
+        return freed >= bytes;
+    }
+
+    private void evictExpired(final long now) {
+        // Unused entries are ordered by release time
+        final Iterator<Entry> iterator = unused.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (now - entry.releasedAt < UNUSED_EXPIRY_MILLIS) {
+                break;
+            }
+
+            iterator.remove();
+            entries.remove(entry.light);
+            usedBytes -= entry.light.memorySize();
+        }
+    }
+
+    private static final class Entry {
+        private final ChunkLight light;
+        private int references = 1;
+        private long releasedAt;
+
+        private Entry(final ChunkLight light) {
+            this.light = light;
+        }
+    }
+}
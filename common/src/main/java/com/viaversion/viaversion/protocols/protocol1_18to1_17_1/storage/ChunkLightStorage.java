@@ -17,53 +17,214 @@
  */
 package com.viaversion.viaversion.protocols.protocol1_18to1_17_1.storage;
 
+import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.StorableObject;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public final class ChunkLightStorage implements StorableObject {
 
-    private final Map<Long, ChunkLight> lightPackets = new HashMap<>();
-    private final Set<Long> loadedChunks = new HashSet<>();
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75F;
+    private final ChunkLightCache cache;
+    // Open-addressed table of chunk index to light handle and loaded flag
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private ChunkLight[] lights = new ChunkLight[INITIAL_CAPACITY];
+    private boolean[] loaded = new boolean[INITIAL_CAPACITY];
+    private boolean[] used = new boolean[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int maxFill = (int) (INITIAL_CAPACITY * LOAD_FACTOR);
+    private int size;
+
+    public ChunkLightStorage(final ChunkLightCache cache) {
+        this.cache = cache;
+    }
 
     public void storeLight(final int x, final int z, final ChunkLight chunkLight) {
-        lightPackets.put(getChunkSectionIndex(x, z), chunkLight);
+        final int slot = insert(getChunkSectionIndex(x, z));
+        final ChunkLight previous = lights[slot];
+        // Without caching, light is dropped as soon as its chunk is sent, so sharing it is hardly worth the hashing
+        lights[slot] = Via.getConfig().cache1_17Light() ? cache.acquire(chunkLight) : chunkLight;
+        if (previous != null) {
+            cache.release(previous);
+        }
     }
 
+    /**
+     * Removes the light of the given chunk. The returned light is no longer tracked by the storage and
+     * must not be modified, as it may still be shared with other connections.
+     */
     public @Nullable ChunkLight removeLight(final int x, final int z) {
-        return lightPackets.remove(getChunkSectionIndex(x, z));
+        final int slot = find(getChunkSectionIndex(x, z));
+        if (slot == -1) {
+            return null;
+        }
+
+        final ChunkLight light = lights[slot];
+        if (light != null) {
+            lights[slot] = null;
+            cache.release(light);
+            if (!loaded[slot]) {
+                remove(slot);
+            }
+        }
+        return light;
     }
 
     public @Nullable ChunkLight getLight(final int x, final int z) {
-        return lightPackets.get(getChunkSectionIndex(x, z));
+        final int slot = find(getChunkSectionIndex(x, z));
+        return slot != -1 ? lights[slot] : null;
     }
 
     public boolean addLoadedChunk(final int x, final int z) {
-        return loadedChunks.add(getChunkSectionIndex(x, z));
+        final int slot = insert(getChunkSectionIndex(x, z));
+        if (loaded[slot]) {
+            return false;
+        }
+        loaded[slot] = true;
+        return true;
     }
 
     public boolean isLoaded(final int x, final int z) {
-        return loadedChunks.contains(getChunkSectionIndex(x, z));
+        final int slot = find(getChunkSectionIndex(x, z));
+        return slot != -1 && loaded[slot];
     }
 
     public void clear(final int x, final int z) {
-        final long index = getChunkSectionIndex(x, z);
-        lightPackets.remove(index);
-        loadedChunks.remove(index);
+        final int slot = find(getChunkSectionIndex(x, z));
+        if (slot == -1) {
+            return;
+        }
+
+        if (lights[slot] != null) {
+            cache.release(lights[slot]);
+        }
+        remove(slot);
     }
 
     public void clear() {
-        loadedChunks.clear();
-        lightPackets.clear();
+        for (int i = 0; i < lights.length; i++) {
+            if (lights[i] != null) {
+                cache.release(lights[i]);
+            }
+        }
+
+        if (keys.length > INITIAL_CAPACITY) {
+            resize(INITIAL_CAPACITY);
+        } else {
+            Arrays.fill(lights, null);
+            Arrays.fill(loaded, false);
+            Arrays.fill(used, false);
+        }
+        size = 0;
+    }
+
+    @Override
+    public void onRemove() {
+        // Give the shared light back
+        clear();
     }
 
     private long getChunkSectionIndex(final int x, final int z) {
         return ((x & 0x3FFFFFFL) << 38) | (z & 0x3FFFFFFL);
     }
 
+    private int slot(final long index) {
+        final long hash = index * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int find(final long index) {
+        int slot = slot(index);
+        while (used[slot]) {
+            if (keys[slot] == index) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insert(final long index) {
+        int slot = slot(index);
+        while (used[slot]) {
+            if (keys[slot] == index) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size + 1 > maxFill) {
+            rehash(keys.length << 1);
+            return insert(index);
+        }
+
+        size++;
+        used[slot] = true;
+        keys[slot] = index;
+        return slot;
+    }
+
+    private void remove(int pos) {
+        size--;
+        // Backward shift deletion, so lookups never need tombstones
+        int last;
+        int slot;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            while (true) {
+                if (!used[pos]) {
+                    used[last] = false;
+                    lights[last] = null;
+                    loaded[last] = false;
+                    return;
+                }
+
+                slot = slot(keys[pos]);
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+
+            keys[last] = keys[pos];
+            lights[last] = lights[pos];
+            loaded[last] = loaded[pos];
+        }
+    }
+
+    private void resize(final int capacity) {
+        keys = new long[capacity];
+        lights = new ChunkLight[capacity];
+        loaded = new boolean[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        maxFill = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(final int capacity) {
+        final long[] oldKeys = keys;
+        final ChunkLight[] oldLights = lights;
+        final boolean[] oldLoaded = loaded;
+        final boolean[] oldUsed = used;
+        resize(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) {
+                continue;
+            }
+
+            int slot = slot(oldKeys[i]);
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            lights[slot] = oldLights[i];
+            loaded[slot] = oldLoaded[i];
+        }
+    }
+
     public static final class ChunkLight {
         private final boolean trustEdges;
         private final long[] skyLightMask;
@@ -72,6 +233,7 @@ public final class ChunkLightStorage implements StorableObject {
         private final long[] emptyBlockLightMask;
         private final byte[][] skyLight;
         private final byte[][] blockLight;
+        private int hashCode;
 
         public ChunkLight(final boolean trustEdges, final long[] skyLightMask, final long[] blockLightMask,
                           final long[] emptySkyLightMask, final long[] emptyBlockLightMask, final byte[][] skyLight, final byte[][] blockLight) {
@@ -111,5 +273,52 @@ public final class ChunkLightStorage implements StorableObject {
         public byte[][] blockLight() {
             return blockLight;
         }
+
+        /**
+         * Returns an estimate of the heap memory taken by the light arrays.
+         *
+         * @return estimated size in bytes
+         */
+        public long memorySize() {
+            long size = 8L * (skyLightMask.length + blockLightMask.length + emptySkyLightMask.length + emptyBlockLightMask.length);
+            for (final byte[] array : skyLight) {
+                size += array.length + 16;
+            }
+            for (final byte[] array : blockLight) {
+                size += array.length + 16;
+            }
+            return size + 128;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final ChunkLight that = (ChunkLight) o;
+            return trustEdges == that.trustEdges
+                    && hashCode() == that.hashCode()
+                    && Arrays.equals(skyLightMask, that.skyLightMask)
+                    && Arrays.equals(blockLightMask, that.blockLightMask)
+                    && Arrays.equals(emptySkyLightMask, that.emptySkyLightMask)
+                    && Arrays.equals(emptyBlockLightMask, that.emptyBlockLightMask)
+                    && Arrays.deepEquals(skyLight, that.skyLight)
+                    && Arrays.deepEquals(blockLight, that.blockLight);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = this.hashCode;
+            if (hashCode == 0) {
+                hashCode = Boolean.hashCode(trustEdges);
+                hashCode = 31 * hashCode + Arrays.hashCode(skyLightMask);
+                hashCode = 31 * hashCode + Arrays.hashCode(blockLightMask);
+                hashCode = 31 * hashCode + Arrays.hashCode(emptySkyLightMask);
+                hashCode = 31 * hashCode + Arrays.hashCode(emptyBlockLightMask);
+                hashCode = 31 * hashCode + Arrays.deepHashCode(skyLight);
+                hashCode = 31 * hashCode + Arrays.deepHashCode(blockLight);
+                this.hashCode = hashCode;
+            }
+            return hashCode;
+        }
     }
 }
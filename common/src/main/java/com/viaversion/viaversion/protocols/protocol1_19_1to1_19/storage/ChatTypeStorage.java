@@ -20,6 +20,7 @@ package com.viaversion.viaversion.protocols.protocol1_19_1to1_19.storage;
 import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
 import com.viaversion.viaversion.api.connection.StorableObject;
 import com.viaversion.viaversion.protocols.protocol1_19to1_18_2.Protocol1_19To1_18_2;
+import com.viaversion.viaversion.util.TagInterner;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -33,7 +34,7 @@ public final class ChatTypeStorage implements StorableObject {
     }
 
     public void addChatType(final int id, final CompoundTag chatType) {
-        chatTypes.put(id, chatType);
+        chatTypes.put(id, TagInterner.intern(chatType));
     }
 
     public void clear() {
@@ -29,6 +29,11 @@ public final class MappingData extends MappingDataBase {
         super("1.19.3", "1.19.4");
     }
 
+    @Override
+    protected boolean supportsSnapshot() {
+        return true;
+    }
+
     @Override
     protected void loadExtras(final CompoundTag data) {
         damageTypesRegistry = MappingDataLoader.loadNBTFromFile("damage-types-1.19.4.nbt");
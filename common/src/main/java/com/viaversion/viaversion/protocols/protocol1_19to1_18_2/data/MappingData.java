@@ -35,6 +35,11 @@ public final class MappingData extends MappingDataBase {
         super("1.18", "1.19");
     }
 
+    @Override
+    protected boolean supportsSnapshot() {
+        return true;
+    }
+
     @Override
     protected void loadExtras(final CompoundTag daata) {
         final ListTag chatTypes = MappingDataLoader.loadNBTFromFile("chat-types-1.19.nbt").get("values");
@@ -46,6 +46,7 @@ import com.viaversion.viaversion.protocols.protocol1_19to1_18_2.storage.Dimensio
 import com.viaversion.viaversion.rewriter.EntityRewriter;
 import com.viaversion.viaversion.util.Key;
 import com.viaversion.viaversion.util.Pair;
+import com.viaversion.viaversion.util.TagInterner;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -219,7 +220,7 @@ public final class EntityPackets extends EntityRewriter<ClientboundPackets1_18,
                         final String name = (String) dimensionCompound.get("name").getValue();
                         addMonsterSpawnData(element);
                         dimensionDataMap.put(name, new DimensionDataImpl(element));
-                        dimensionsMap.put(element.copy(), name);
+                        dimensionsMap.put(TagInterner.internCopy(element), name);
                     }
                     tracker(wrapper.user()).setDimensions(dimensionDataMap);
 
@@ -279,7 +279,7 @@ public final class Protocol1_20_2To1_20 extends AbstractProtocol<ClientboundPack
         protocolInfo.setServerState(State.CONFIGURATION);
 
         final PacketWrapper registryDataPacket = PacketWrapper.create(ClientboundConfigurationPackets1_20_2.REGISTRY_DATA, connection);
-        registryDataPacket.write(Type.COMPOUND_TAG, dimensionRegistry);
+        registryDataPacket.write(Type.COMPOUND_TAG, dimensionRegistry.copy()); // The stored registry is shared
         registryDataPacket.send(Protocol1_20_2To1_20.class);
 
         // If we tracked enables features, they'd be sent here
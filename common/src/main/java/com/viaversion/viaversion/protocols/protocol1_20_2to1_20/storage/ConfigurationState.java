@@ -25,11 +25,11 @@ import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.type.Type;
 import com.viaversion.viaversion.protocols.protocol1_19_4to1_19_3.ServerboundPackets1_19_4;
 import com.viaversion.viaversion.protocols.protocol1_20_2to1_20.Protocol1_20_2To1_20;
+import com.viaversion.viaversion.util.TagInterner;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class ConfigurationState implements StorableObject {
@@ -50,6 +50,11 @@ public class ConfigurationState implements StorableObject {
         this.bridgePhase = bridgePhase;
     }
 
+    /**
+     * Returns the last dimension registry. The registry is shared between connections and must not be modified.
+     *
+     * @return last dimension registry
+     */
     public @Nullable CompoundTag lastDimensionRegistry() {
         return lastDimensionRegistry;
     }
@@ -61,8 +66,10 @@ public class ConfigurationState implements StorableObject {
      * @return whether the dimension registry differs from the previously stored one
      */
     public boolean setLastDimensionRegistry(final CompoundTag dimensionRegistry) {
-        final boolean equals = Objects.equals(this.lastDimensionRegistry, dimensionRegistry);
-        this.lastDimensionRegistry = dimensionRegistry;
+        // Registries are the same for every player on a server, only keep one of them around
+        final CompoundTag pooledRegistry = TagInterner.intern(dimensionRegistry);
+        final boolean equals = this.lastDimensionRegistry == pooledRegistry;
+        this.lastDimensionRegistry = pooledRegistry;
         return !equals;
     }
 
@@ -29,6 +29,7 @@ import com.viaversion.viaversion.api.protocol.packet.State;
 import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
 import com.viaversion.viaversion.api.protocol.remapper.PacketHandlers;
 import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.api.type.types.StringType;
 import com.viaversion.viaversion.api.type.types.misc.ParticleType;
 import com.viaversion.viaversion.api.type.types.version.Types1_20_3;
 import com.viaversion.viaversion.data.entity.EntityTrackerBase;
@@ -53,6 +54,7 @@ import java.util.UUID;
 public final class Protocol1_20_3To1_20_2 extends AbstractProtocol<ClientboundPackets1_20_2, ClientboundPackets1_20_3, ServerboundPackets1_20_2, ServerboundPackets1_20_3> {
 
     public static final MappingData MAPPINGS = new MappingDataBase("1.20.2", "1.20.3");
+    private static final StringType COMPONENT_STRING = new StringType(262144);
     private final BlockItemPacketRewriter1_20_3 itemRewriter = new BlockItemPacketRewriter1_20_3(this);
     private final EntityPacketRewriter1_20_3 entityRewriter = new EntityPacketRewriter1_20_3(this);
 
@@ -335,12 +337,22 @@ public final class Protocol1_20_3To1_20_2 extends AbstractProtocol<ClientboundPa
         };
     }
 
-    private void convertComponent(final PacketWrapper wrapper) throws Exception {
-        wrapper.write(Type.TAG, ComponentUtil.jsonToTag(wrapper.read(Type.COMPONENT)));
+    void convertComponent(final PacketWrapper wrapper) throws Exception {
+        if (wrapper.isReadable(Type.COMPONENT, 0)) {
+            wrapper.write(Type.TAG, ComponentUtil.jsonToTag(wrapper.read(Type.COMPONENT)));
+        } else {
+            // Still serialized, so look up the raw json to reuse conversions of broadcast messages
+            wrapper.write(Type.TAG, ComponentUtil.jsonStringToTag(wrapper.read(COMPONENT_STRING)));
+        }
     }
 
-    private void convertOptionalComponent(final PacketWrapper wrapper) throws Exception {
-        wrapper.write(Type.OPTIONAL_TAG, ComponentUtil.jsonToTag(wrapper.read(Type.OPTIONAL_COMPONENT)));
+    void convertOptionalComponent(final PacketWrapper wrapper) throws Exception {
+        if (wrapper.isReadable(Type.OPTIONAL_COMPONENT, 0)) {
+            wrapper.write(Type.OPTIONAL_TAG, ComponentUtil.jsonToTag(wrapper.read(Type.OPTIONAL_COMPONENT)));
+        } else {
+            final boolean present = wrapper.read(Type.BOOLEAN);
+            wrapper.write(Type.OPTIONAL_TAG, present ? ComponentUtil.jsonStringToTag(wrapper.read(COMPONENT_STRING)) : null);
+        }
     }
 
     @Override
@@ -39,7 +39,10 @@ import com.viaversion.viaversion.protocols.protocol1_9to1_8.chat.GameMode;
 import com.viaversion.viaversion.protocols.protocol1_9to1_8.metadata.MetadataRewriter1_9To1_8;
 import com.viaversion.viaversion.protocols.protocol1_9to1_8.providers.BossBarProvider;
 import com.viaversion.viaversion.protocols.protocol1_9to1_8.providers.EntityIdProvider;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -55,10 +58,11 @@ public class EntityTracker1_9 extends EntityTrackerBase {
     public static final String DRAGON_TRANSLATABLE = "{\"translate\":\"entity.EnderDragon.name\"}";
     private final Int2ObjectMap<UUID> uuidMap = Int2ObjectSyncMap.hashmap();
     private final Int2ObjectMap<List<Metadata>> metadataBuffer = Int2ObjectSyncMap.hashmap();
-    private final Int2ObjectMap<Integer> vehicleMap = Int2ObjectSyncMap.hashmap();
+    // Only touched from packet handlers on the event loop
+    private final Int2IntMap vehicleMap = new Int2IntOpenHashMap();
     private final Int2ObjectMap<BossBar> bossBarMap = Int2ObjectSyncMap.hashmap();
     private final IntSet validBlocking = Int2ObjectSyncMap.hashset();
-    private final Set<Integer> knownHolograms = Int2ObjectSyncMap.hashset();
+    private final IntSet knownHolograms = new IntOpenHashSet();
     private final Set<Position> blockInteractions = Collections.newSetFromMap(CacheBuilder.newBuilder()
             .maximumSize(1000)
             .expireAfterAccess(250, TimeUnit.MILLISECONDS)
@@ -233,8 +237,7 @@ public class EntityTracker1_9 extends EntityTrackerBase {
                     if ((data & 0x20) == 0x20 && ((byte) meta.getValue() & 0x01) == 0x01
                             && (displayName = getMetaByIndex(metadataList, 2)) != null && !((String) displayName.getValue()).isEmpty()
                             && (displayNameVisible = getMetaByIndex(metadataList, 3)) != null && (boolean) displayNameVisible.getValue()) {
-                        if (!knownHolograms.contains(entityId)) {
-                            knownHolograms.add(entityId);
+                        if (knownHolograms.add(entityId)) {
                             try {
                                 // Send movement
                                 PacketWrapper wrapper = PacketWrapper.create(ClientboundPackets1_9.ENTITY_POSITION, null, user());
@@ -376,7 +379,7 @@ public class EntityTracker1_9 extends EntityTrackerBase {
         return metadataBuffer;
     }
 
-    public Map<Integer, Integer> getVehicleMap() {
+    public Int2IntMap getVehicleMap() {
         return vehicleMap;
     }
 
@@ -388,7 +391,7 @@ public class EntityTracker1_9 extends EntityTrackerBase {
         return validBlocking;
     }
 
-    public Set<Integer> getKnownHolograms() {
+    public IntSet getKnownHolograms() {
         return knownHolograms;
     }
 
@@ -31,12 +31,15 @@ import com.viaversion.viaversion.api.minecraft.chunks.DataPalette;
 import com.viaversion.viaversion.api.minecraft.chunks.PaletteType;
 import com.viaversion.viaversion.api.protocol.Protocol;
 import com.viaversion.viaversion.api.protocol.packet.ClientboundPacketType;
+import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
 import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
 import com.viaversion.viaversion.api.protocol.remapper.PacketHandlers;
 import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.protocol.ComposedBlockStateMappings;
 import com.viaversion.viaversion.util.MathUtil;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class BlockRewriter<C extends ClientboundPacketType> {
@@ -100,7 +103,12 @@ public class BlockRewriter<C extends ClientboundPacketType> {
             public void register() {
                 map(positionType);
                 map(Type.VAR_INT);
-                handler(wrapper -> wrapper.set(Type.VAR_INT, 0, protocol.getMappingData().getNewBlockStateId(wrapper.get(Type.VAR_INT, 0))));
+                handler(wrapper -> {
+                    final IntUnaryOperator blockStateMapper = ComposedBlockStateMappings.blockStateMapper(protocol, wrapper);
+                    if (blockStateMapper != null) {
+                        wrapper.set(Type.VAR_INT, 0, blockStateMapper.applyAsInt(wrapper.get(Type.VAR_INT, 0)));
+                    }
+                });
             }
         });
     }
@@ -111,11 +119,7 @@ public class BlockRewriter<C extends ClientboundPacketType> {
             public void register() {
                 map(Type.INT); // 0 - Chunk X
                 map(Type.INT); // 1 - Chunk Z
-                handler(wrapper -> {
-                    for (BlockChangeRecord record : wrapper.passthrough(Type.BLOCK_CHANGE_RECORD_ARRAY)) {
-                        record.setBlockId(protocol.getMappingData().getNewBlockStateId(record.getBlockId()));
-                    }
-                });
+                handler(wrapper -> handleBlockChangeRecords(wrapper, wrapper.passthrough(Type.BLOCK_CHANGE_RECORD_ARRAY)));
             }
         });
     }
@@ -126,11 +130,7 @@ public class BlockRewriter<C extends ClientboundPacketType> {
             public void register() {
                 map(Type.LONG); // Chunk position
                 map(Type.BOOLEAN); // Suppress light updates
-                handler(wrapper -> {
-                    for (BlockChangeRecord record : wrapper.passthrough(Type.VAR_LONG_BLOCK_CHANGE_RECORD_ARRAY)) {
-                        record.setBlockId(protocol.getMappingData().getNewBlockStateId(record.getBlockId()));
-                    }
-                });
+                handler(wrapper -> handleBlockChangeRecords(wrapper, wrapper.passthrough(Type.VAR_LONG_BLOCK_CHANGE_RECORD_ARRAY)));
             }
         });
     }
@@ -140,11 +140,7 @@ public class BlockRewriter<C extends ClientboundPacketType> {
             @Override
             public void register() {
                 map(Type.LONG); // Chunk position
-                handler(wrapper -> {
-                    for (BlockChangeRecord record : wrapper.passthrough(Type.VAR_LONG_BLOCK_CHANGE_RECORD_ARRAY)) {
-                        record.setBlockId(protocol.getMappingData().getNewBlockStateId(record.getBlockId()));
-                    }
-                });
+                handler(wrapper -> handleBlockChangeRecords(wrapper, wrapper.passthrough(Type.VAR_LONG_BLOCK_CHANGE_RECORD_ARRAY)));
             }
         });
     }
@@ -191,13 +187,7 @@ public class BlockRewriter<C extends ClientboundPacketType> {
                     MathUtil.ceilLog2(protocol.getMappingData().getBlockStateMappings().mappedSize()),
                     MathUtil.ceilLog2(tracker.biomesSent()));
             final Chunk chunk = wrapper.passthrough(chunkType);
-            for (final ChunkSection section : chunk.getSections()) {
-                final DataPalette blockPalette = section.palette(PaletteType.BLOCKS);
-                for (int i = 0; i < blockPalette.size(); i++) {
-                    final int id = blockPalette.idByIndex(i);
-                    blockPalette.setIdByIndex(i, protocol.getMappingData().getNewBlockStateId(id));
-                }
-            }
+            handleChunkBlockStates(wrapper, chunk);
 
             final Mappings blockEntityMappings = protocol.getMappingData().getBlockEntityMappings();
             if (blockEntityMappings != null || blockEntityHandler != null) {
@@ -216,6 +206,46 @@ public class BlockRewriter<C extends ClientboundPacketType> {
         };
     }
 
+    /**
+     * Remaps the block states in the block palettes of the given chunk.
+     *
+     * @param wrapper packet wrapper of the chunk
+     * @param chunk   chunk
+     * @see ComposedBlockStateMappings#blockStateMapper(Protocol, PacketWrapper)
+     */
+    public void handleChunkBlockStates(final PacketWrapper wrapper, final Chunk chunk) {
+        final IntUnaryOperator blockStateMapper = ComposedBlockStateMappings.blockStateMapper(protocol, wrapper);
+        if (blockStateMapper == null) {
+            return;
+        }
+
+        for (final ChunkSection section : chunk.getSections()) {
+            final DataPalette blockPalette = section.palette(PaletteType.BLOCKS);
+            for (int i = 0; i < blockPalette.size(); i++) {
+                final int id = blockPalette.idByIndex(i);
+                blockPalette.setIdByIndex(i, blockStateMapper.applyAsInt(id));
+            }
+        }
+    }
+
+    /**
+     * Remaps the block states of the given block change records.
+     *
+     * @param wrapper packet wrapper of the records
+     * @param records block change records
+     * @see ComposedBlockStateMappings#blockStateMapper(Protocol, PacketWrapper)
+     */
+    public void handleBlockChangeRecords(final PacketWrapper wrapper, final BlockChangeRecord[] records) {
+        final IntUnaryOperator blockStateMapper = ComposedBlockStateMappings.blockStateMapper(protocol, wrapper);
+        if (blockStateMapper == null) {
+            return;
+        }
+
+        for (final BlockChangeRecord record : records) {
+            record.setBlockId(blockStateMapper.applyAsInt(record.getBlockId()));
+        }
+    }
+
     public void registerBlockEntityData(C packetType) {
         registerBlockEntityData(packetType, null);
     }
@@ -21,6 +21,7 @@ import com.google.common.base.Preconditions;
 import com.viaversion.viaversion.api.protocol.Protocol;
 import com.viaversion.viaversion.api.protocol.packet.ClientboundPacketType;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
 import com.viaversion.viaversion.api.type.Type;
 import java.util.HashMap;
 import java.util.Map;
@@ -66,7 +67,7 @@ public class CommandRewriter<C extends ClientboundPacketType> {
     }
 
     public void registerDeclareCommands(C packetType) {
-        protocol.registerClientbound(packetType, wrapper -> {
+        protocol.registerClientbound(packetType, PacketHandler.memoizable(wrapper -> {
             int size = wrapper.passthrough(Type.VAR_INT);
             for (int i = 0; i < size; i++) {
                 byte flags = wrapper.passthrough(Type.BYTE);
@@ -97,11 +98,11 @@ public class CommandRewriter<C extends ClientboundPacketType> {
             }
 
             wrapper.passthrough(Type.VAR_INT); // Root node index
-        });
+        }));
     }
 
     public void registerDeclareCommands1_19(C packetType) {
-        protocol.registerClientbound(packetType, wrapper -> {
+        protocol.registerClientbound(packetType, PacketHandler.memoizable(wrapper -> {
             int size = wrapper.passthrough(Type.VAR_INT);
             for (int i = 0; i < size; i++) {
                 byte flags = wrapper.passthrough(Type.BYTE);
@@ -132,7 +133,7 @@ public class CommandRewriter<C extends ClientboundPacketType> {
             }
 
             wrapper.passthrough(Type.VAR_INT); // Root node index
-        });
+        }));
     }
 
     public void handleArgument(PacketWrapper wrapper, String argumentType) throws Exception {
@@ -51,6 +51,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -59,7 +60,10 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 public abstract class EntityRewriter<C extends ClientboundPacketType, T extends Protocol<C, ?, ?, ?>>
         extends RewriterBase<T> implements com.viaversion.viaversion.api.rewriter.EntityRewriter<T> {
     private static final Metadata[] EMPTY_ARRAY = new Metadata[0];
+    private static final MetaFilter[] EMPTY_FILTERS = new MetaFilter[0];
     protected final List<MetaFilter> metadataFilters = new ArrayList<>();
+    private final Map<EntityType, FilterTable> filterTables = new ConcurrentHashMap<>();
+    private volatile FilterTable untypedFilterTable;
     protected final boolean trackMappedType;
     protected Mappings typeMappings;
 
@@ -100,16 +104,32 @@ public abstract class EntityRewriter<C extends ClientboundPacketType, T extends
     public void registerFilter(MetaFilter filter) {
         Preconditions.checkArgument(!metadataFilters.contains(filter));
         metadataFilters.add(filter);
+        clearFilterTables();
+    }
+
+    private void clearFilterTables() {
+        filterTables.clear();
+        untypedFilterTable = null;
     }
 
     @Override
     public void handleMetadata(final int entityId, final List<Metadata> metadataList, final UserConnection connection) {
         final TrackedEntity entity = tracker(connection).entity(entityId);
         final EntityType type = entity != null ? entity.entityType() : null;
+        final FilterTable table = filterTable(type);
+        if (!table.filtersAny(metadataList)) {
+            if (entity != null) {
+                entity.sentMetadata(true);
+            }
+            return;
+        }
+
         for (final Metadata metadata : metadataList.toArray(EMPTY_ARRAY)) { // Copy the list to allow mutation
             MetaHandlerEvent event = null;
-            for (final MetaFilter filter : metadataFilters) {
-                if (!filter.isFiltered(type, metadata)) {
+            MetaFilter[] filters = table.filters(metadata.id());
+            for (int i = 0; i < filters.length; i++) {
+                final MetaFilter filter = filters[i];
+                if (filter.metaType() != null && metadata.metaType() != filter.metaType()) {
                     continue;
                 }
                 if (event == null) {
@@ -118,7 +138,13 @@ public abstract class EntityRewriter<C extends ClientboundPacketType, T extends
                 }
 
                 try {
+                    final int index = metadata.id();
                     filter.handler().handle(event, metadata);
+                    if (metadata.id() != index) {
+                        // Continue with the filters registered after this one that match the new index
+                        filters = remainingFilters(filter, type, metadata.id());
+                        i = -1;
+                    }
                 } catch (final Exception e) {
                     logException(e, type, metadataList, metadata);
                     metadataList.remove(metadata);
@@ -143,6 +169,32 @@ public abstract class EntityRewriter<C extends ClientboundPacketType, T extends
         }
     }
 
+    private FilterTable filterTable(@Nullable final EntityType type) {
+        FilterTable table = type != null ? filterTables.get(type) : untypedFilterTable;
+        if (table != null && table.filterCount == metadataFilters.size()) {
+            return table;
+        }
+
+        table = new FilterTable(metadataFilters, type);
+        if (type != null) {
+            filterTables.put(type, table);
+        } else {
+            untypedFilterTable = table;
+        }
+        return table;
+    }
+
+    private MetaFilter[] remainingFilters(final MetaFilter currentFilter, @Nullable final EntityType type, final int index) {
+        final List<MetaFilter> filters = new ArrayList<>();
+        for (int i = metadataFilters.indexOf(currentFilter) + 1; i < metadataFilters.size(); i++) {
+            final MetaFilter filter = metadataFilters.get(i);
+            if (filter.isFiltered(type, index)) {
+                filters.add(filter);
+            }
+        }
+        return filters.toArray(EMPTY_FILTERS);
+    }
+
     @Override
     public int newEntityId(int id) {
         return typeMappings != null ? typeMappings.getNewIdOrDefault(id, id) : id;
@@ -561,4 +613,51 @@ public abstract class EntityRewriter<C extends ClientboundPacketType, T extends
             logger.log(Level.SEVERE, "Error: ", e);
         }
     }
+
+    /**
+     * Filters of a single entity type by metadata index, in registration order and without checking the meta type yet.
+     */
+    private static final class FilterTable {
+        private final MetaFilter[][] filtersByIndex;
+        private final MetaFilter[] otherIndexFilters;
+        private final int filterCount;
+
+        private FilterTable(final List<MetaFilter> filters, @Nullable final EntityType type) {
+            int maxIndex = -1;
+            for (final MetaFilter filter : filters) {
+                maxIndex = Math.max(maxIndex, filter.index());
+            }
+
+            this.filterCount = filters.size();
+            this.filtersByIndex = new MetaFilter[maxIndex + 1][];
+            for (int index = 0; index <= maxIndex; index++) {
+                filtersByIndex[index] = matchingFilters(filters, type, index);
+            }
+            // Only filters without a specific index are left for higher indexes
+            this.otherIndexFilters = matchingFilters(filters, type, Integer.MAX_VALUE);
+        }
+
+        private static MetaFilter[] matchingFilters(final List<MetaFilter> filters, @Nullable final EntityType type, final int index) {
+            final List<MetaFilter> matching = new ArrayList<>();
+            for (final MetaFilter filter : filters) {
+                if (filter.isFiltered(type, index)) {
+                    matching.add(filter);
+                }
+            }
+            return matching.isEmpty() ? EMPTY_FILTERS : matching.toArray(EMPTY_FILTERS);
+        }
+
+        MetaFilter[] filters(final int index) {
+            return index >= 0 && index < filtersByIndex.length ? filtersByIndex[index] : otherIndexFilters;
+        }
+
+        boolean filtersAny(final List<Metadata> metadataList) {
+            for (int i = 0; i < metadataList.size(); i++) {
+                if (filters(metadataList.get(i).id()).length != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -273,7 +273,7 @@ public class ItemRewriter<C extends ClientboundPacketType, S extends Serverbound
     }
 
     public void registerAdvancements(C packetType) {
-        protocol.registerClientbound(packetType, wrapper -> {
+        protocol.registerClientbound(packetType, PacketHandler.memoizable(wrapper -> {
             wrapper.passthrough(Type.BOOLEAN); // Reset/clear
             int size = wrapper.passthrough(Type.VAR_INT); // Mapping size
             for (int i = 0; i < size; i++) {
@@ -304,7 +304,7 @@ public class ItemRewriter<C extends ClientboundPacketType, S extends Serverbound
                     wrapper.passthrough(Type.STRING_ARRAY); // String array
                 }
             }
-        });
+        }));
     }
 
     public void registerAdvancements1_20_2(C packetType) {
@@ -316,7 +316,7 @@ public class ItemRewriter<C extends ClientboundPacketType, S extends Serverbound
     }
 
     private void registerAdvancements1_20_2(C packetType, Type<?> componentType) {
-        protocol.registerClientbound(packetType, wrapper -> {
+        protocol.registerClientbound(packetType, PacketHandler.memoizable(wrapper -> {
             wrapper.passthrough(Type.BOOLEAN); // Reset/clear
             int size = wrapper.passthrough(Type.VAR_INT); // Mapping size
             for (int i = 0; i < size; i++) {
@@ -348,7 +348,7 @@ public class ItemRewriter<C extends ClientboundPacketType, S extends Serverbound
 
                 wrapper.passthrough(Type.BOOLEAN); // Send telemetry
             }
-        });
+        }));
     }
 
     public void registerWindowPropertyEnchantmentHandler(C packetType) {
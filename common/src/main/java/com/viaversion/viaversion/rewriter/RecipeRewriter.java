@@ -21,6 +21,7 @@ import com.viaversion.viaversion.api.minecraft.item.Item;
 import com.viaversion.viaversion.api.protocol.Protocol;
 import com.viaversion.viaversion.api.protocol.packet.ClientboundPacketType;
 import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
 import com.viaversion.viaversion.api.type.Type;
 import com.viaversion.viaversion.util.Key;
 import java.util.HashMap;
@@ -66,14 +67,14 @@ public class RecipeRewriter<C extends ClientboundPacketType> {
      * @param packetType packet type
      */
     public void register(C packetType) {
-        protocol.registerClientbound(packetType, wrapper -> {
+        protocol.registerClientbound(packetType, PacketHandler.memoizable(wrapper -> {
             int size = wrapper.passthrough(Type.VAR_INT);
             for (int i = 0; i < size; i++) {
                 String type = wrapper.passthrough(Type.STRING);
                 wrapper.passthrough(Type.STRING); // Recipe Identifier
                 handleRecipeType(wrapper, Key.stripMinecraftNamespace(type));
             }
-        });
+        }));
     }
 
     public void handleCraftingShaped(PacketWrapper wrapper) throws Exception {
@@ -138,7 +138,7 @@ public class TagRewriter<C extends ClientboundPacketType> {
      * @param readUntilType read and process the types until (including) the given registry type
      */
     public void register(C packetType, @Nullable RegistryType readUntilType) {
-        protocol.registerClientbound(packetType, getHandler(readUntilType));
+        protocol.registerClientbound(packetType, PacketHandler.memoizable(getHandler(readUntilType)));
     }
 
     /**
@@ -147,11 +147,11 @@ public class TagRewriter<C extends ClientboundPacketType> {
      * @param packetType packet type
      */
     public void registerGeneric(C packetType) {
-        protocol.registerClientbound(packetType, getGenericHandler());
+        protocol.registerClientbound(packetType, PacketHandler.memoizable(getGenericHandler()));
     }
 
     public void registerGeneric(State state, ClientboundPacketType packetType) {
-        protocol.registerClientbound(state, packetType, getGenericHandler());
+        protocol.registerClientbound(state, packetType, PacketHandler.memoizable(getGenericHandler()));
     }
 
     public PacketHandler getHandler(@Nullable RegistryType readUntilType) {
@@ -96,11 +96,20 @@ public class MetaFilter {
      * @return whether the meta should be filtered
      */
     public boolean isFiltered(@Nullable EntityType type, Metadata metadata) {
+        return isFiltered(type, metadata.id()) && (this.metaType == null || metadata.metaType() == this.metaType);
+    }
+
+    /**
+     * Returns whether metadata of the given index and entity type should be handled by this filter, not yet checking the meta type.
+     *
+     * @param type  entity type
+     * @param index metadata index
+     * @return whether the meta should be filtered if the meta type matches
+     */
+    public boolean isFiltered(@Nullable EntityType type, int index) {
         // Check if no specific index is filtered or the indexes are equal
         // Then check if the filter has no entity type or the type is equal to or part of the filtered parent type
-        return (this.index == -1 || metadata.id() == this.index)
-                && (this.type == null || matchesType(type))
-                && (this.metaType == null || metadata.metaType() == this.metaType);
+        return (this.index == -1 || index == this.index) && (this.type == null || matchesType(type));
     }
 
     private boolean matchesType(@Nullable EntityType type) {
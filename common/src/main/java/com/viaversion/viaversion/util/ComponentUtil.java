@@ -17,11 +17,23 @@
  */
 package com.viaversion.viaversion.util;
 
+import com.github.steveice10.opennbt.tag.builtin.ByteTag;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.ListTag;
 import com.github.steveice10.opennbt.tag.builtin.StringTag;
 import com.github.steveice10.opennbt.tag.builtin.Tag;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
 import com.viaversion.viaversion.api.Via;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import net.lenni0451.mcstructs.snbt.SNbtSerializer;
 import net.lenni0451.mcstructs.text.ATextComponent;
@@ -38,6 +50,13 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  */
 public final class ComponentUtil {
 
+    private static final int MAX_CACHED_JSON_LENGTH = 8192;
+    // Broadcast messages arrive as the exact same json for every player, only convert them once
+    private static final Cache<String, Tag> JSON_TO_TAG_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(1024)
+            .expireAfterAccess(1, TimeUnit.MINUTES)
+            .build();
+
     public static JsonObject emptyJsonComponent() {
         return plainToJson("");
     }
@@ -76,6 +95,134 @@ public final class ComponentUtil {
         }
     }
 
+    /**
+     * Converts a serialized json component to its tag form. Results are cached across all connections,
+     * the returned tag is a copy and may be freely modified.
+     *
+     * @param json serialized json component
+     * @return converted tag
+     */
+    public static Tag jsonStringToTag(final String json) {
+        final Tag directTag = directTag(json);
+        if (directTag != null) {
+            // Text and translation components with basic styling don't need any component trees
+            return directTag;
+        }
+
+        if (json.length() > MAX_CACHED_JSON_LENGTH) {
+            return jsonToTag(parseJson(json));
+        }
+
+        Tag tag = JSON_TO_TAG_CACHE.getIfPresent(json);
+        if (tag == null) {
+            tag = jsonToTag(parseJson(json));
+            JSON_TO_TAG_CACHE.put(json, tag);
+        }
+        return tag.copy();
+    }
+
+    static @Nullable Tag cachedTag(final String json) {
+        return JSON_TO_TAG_CACHE.getIfPresent(json);
+    }
+
+    /**
+     * Converts a json component to the same tag as the component tree conversion in a single pass over the json.
+     * Only text and translation components with colors, decorations, insertions, fonts, and extra components
+     * are handled, anything else such as click or hover events returns null to use the component trees instead.
+     *
+     * @param json serialized json component
+     * @return converted tag, or null if the component is anything more complex or not strict json
+     */
+    static @Nullable Tag directTag(final String json) {
+        final DirectTagReader reader = new DirectTagReader(json);
+        final Tag tag = reader.readComponent(skipWhitespace(json, 0), 0);
+        return tag != null && skipWhitespace(json, reader.index) == json.length() ? tag : null;
+    }
+
+    private static int readString(final String json, int index, final StringBuilder builder) {
+        // Strict json string starting at the opening quote, returns the index after the closing quote or -1
+        index++;
+        while (index < json.length()) {
+            final char c = json.charAt(index++);
+            if (c == '"') {
+                return index;
+            } else if (c < ' ') {
+                return -1;
+            } else if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+
+            if (index == json.length()) {
+                return -1;
+            }
+
+            final char escaped = json.charAt(index++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append(escaped);
+                    break;
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (index + 4 > json.length()) {
+                        return -1;
+                    }
+                    int value = 0;
+                    for (int i = 0; i < 4; i++) {
+                        final int digit = Character.digit(json.charAt(index++), 16);
+                        if (digit == -1) {
+                            return -1;
+                        }
+                        value = (value << 4) | digit;
+                    }
+                    builder.append((char) value);
+                    break;
+                default:
+                    return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(final String json, int index) {
+        if (index == -1) {
+            return -1;
+        }
+        while (index < json.length()) {
+            final char c = json.charAt(index);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                break;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private static JsonElement parseJson(final String json) {
+        try {
+            return JsonParser.parseString(json);
+        } catch (final JsonSyntaxException e) {
+            Via.getPlatform().getLogger().severe("Error when trying to parse json: " + json);
+            throw e;
+        }
+    }
+
     public static @Nullable JsonElement convertJson(@Nullable final JsonElement element, final SerializerVersion from, final SerializerVersion to) {
         return element != null ? convert(from, to, from.jsonSerializer.deserialize(element)) : null;
     }
@@ -120,6 +267,244 @@ public final class ComponentUtil {
         return TextComponentSerializer.V1_12.deserialize(value).asLegacyFormatString();
     }
 
+    private static final class DirectTagReader {
+
+        private static final int MAX_DEPTH = 16;
+        private static final Set<String> COLORS = new HashSet<>(Arrays.asList(
+                "black", "dark_blue", "dark_green", "dark_aqua", "dark_red", "dark_purple", "gold", "gray",
+                "dark_gray", "blue", "green", "aqua", "red", "light_purple", "yellow", "white"
+        ));
+        private static final List<String> DECORATIONS = Arrays.asList("bold", "italic", "underlined", "strikethrough", "obfuscated");
+        private final StringBuilder builder = new StringBuilder();
+        private final String json;
+        private int index;
+
+        private DirectTagReader(final String json) {
+            this.json = json;
+        }
+
+        /**
+         * Reads a json string or object at the given index, setting the index after it.
+         */
+        private @Nullable Tag readComponent(final int start, final int depth) {
+            if (start == json.length() || depth > MAX_DEPTH) {
+                return null;
+            }
+
+            final char first = json.charAt(start);
+            if (first == '"') {
+                final String text = readString(start);
+                return text != null ? new StringTag(text) : null;
+            }
+            return first == '{' ? readObject(start, depth) : null;
+        }
+
+        private @Nullable Tag readObject(final int start, final int depth) {
+            String text = null;
+            String translate = null;
+            String fallback = null;
+            String color = null;
+            String insertion = null;
+            String font = null;
+            final Boolean[] decorations = new Boolean[DECORATIONS.size()];
+            ListTag with = null;
+            ListTag extra = null;
+
+            final Set<String> keys = new HashSet<>();
+            index = skipWhitespace(json, start + 1);
+            while (true) {
+                final String key = index < json.length() && json.charAt(index) == '"' ? readString(index) : null;
+                if (key == null || !keys.add(key)) {
+                    return null;
+                }
+
+                index = skipWhitespace(json, index);
+                if (index == json.length() || json.charAt(index) != ':') {
+                    return null;
+                }
+                index = skipWhitespace(json, index + 1);
+
+                final int decoration = DECORATIONS.indexOf(key);
+                if (decoration != -1) {
+                    decorations[decoration] = readBoolean();
+                    if (decorations[decoration] == null) {
+                        return null;
+                    }
+                } else if (key.equals("with") || key.equals("extra")) {
+                    final ListTag list = readList(depth);
+                    if (list == null) {
+                        return null;
+                    }
+                    if (key.equals("with")) {
+                        with = list;
+                    } else {
+                        extra = list;
+                    }
+                } else {
+                    final String value = index < json.length() && json.charAt(index) == '"' ? readString(index) : null;
+                    if (value == null) {
+                        return null;
+                    }
+                    switch (key) {
+                        case "text":
+                            text = value;
+                            break;
+                        case "translate":
+                            translate = value;
+                            break;
+                        case "fallback":
+                            fallback = value;
+                            break;
+                        case "color":
+                            color = value;
+                            break;
+                        case "insertion":
+                            insertion = value;
+                            break;
+                        case "font":
+                            font = value;
+                            break;
+                        default:
+                            // Events, other component types, or unknown fields
+                            return null;
+                    }
+                }
+
+                index = skipWhitespace(json, index);
+                if (index == json.length()) {
+                    return null;
+                }
+
+                final char c = json.charAt(index++);
+                if (c == '}') {
+                    break;
+                } else if (c != ',') {
+                    return null;
+                }
+                index = skipWhitespace(json, index);
+            }
+
+            if ((text == null) == (translate == null) || (translate == null && (fallback != null || with != null))) {
+                return null;
+            }
+            if (color != null && !COLORS.contains(color) || font != null && !isNamespacedKey(font)) {
+                return null;
+            }
+
+            boolean styled = color != null || insertion != null || font != null;
+            for (final Boolean decoration : decorations) {
+                styled |= decoration != null;
+            }
+            if (text != null && !styled && extra == null) {
+                // Unstyled text without siblings is written as a plain string tag
+                return new StringTag(text);
+            }
+
+            final CompoundTag tag = new CompoundTag();
+            if (text != null) {
+                tag.put("text", new StringTag(text));
+            } else {
+                tag.put("translate", new StringTag(translate));
+                if (fallback != null) {
+                    tag.put("fallback", new StringTag(fallback));
+                }
+                if (with != null) {
+                    tag.put("with", with);
+                }
+            }
+
+            if (color != null) {
+                tag.put("color", new StringTag(color));
+            }
+            for (int i = 0; i < decorations.length; i++) {
+                if (decorations[i] != null) {
+                    tag.put(DECORATIONS.get(i), new ByteTag((byte) (decorations[i] ? 1 : 0)));
+                }
+            }
+            if (insertion != null) {
+                tag.put("insertion", new StringTag(insertion));
+            }
+            if (font != null) {
+                tag.put("font", new StringTag(font));
+            }
+            if (extra != null) {
+                tag.put("extra", extra);
+            }
+            return tag;
+        }
+
+        private @Nullable ListTag readList(final int depth) {
+            if (index == json.length() || json.charAt(index) != '[') {
+                return null;
+            }
+
+            ListTag list = null;
+            Class<? extends Tag> elementType = null;
+            index = skipWhitespace(json, index + 1);
+            while (true) {
+                final Tag element = readComponent(index, depth + 1);
+                if (element == null) {
+                    return null;
+                }
+
+                if (list == null) {
+                    elementType = element.getClass();
+                    list = new ListTag(elementType);
+                } else if (element.getClass() != elementType) {
+                    // Lists mixing plain strings and compounds are wrapped differently, leave them to the component trees
+                    return null;
+                }
+                list.add(element);
+
+                index = skipWhitespace(json, index);
+                if (index == json.length()) {
+                    return null;
+                }
+
+                final char c = json.charAt(index++);
+                if (c == ']') {
+                    return list;
+                } else if (c != ',') {
+                    return null;
+                }
+                index = skipWhitespace(json, index);
+            }
+        }
+
+        private @Nullable Boolean readBoolean() {
+            if (json.startsWith("true", index)) {
+                index += 4;
+                return Boolean.TRUE;
+            } else if (json.startsWith("false", index)) {
+                index += 5;
+                return Boolean.FALSE;
+            }
+            return null;
+        }
+
+        private @Nullable String readString(final int start) {
+            builder.setLength(0);
+            index = ComponentUtil.readString(json, start, builder);
+            return index != -1 ? builder.toString() : null;
+        }
+
+        private static boolean isNamespacedKey(final String key) {
+            final int separator = key.indexOf(':');
+            if (separator <= 0 || separator == key.length() - 1) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                final char c = key.charAt(i);
+                final boolean valid = c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '_' || c == '-' || c == '.'
+                        || (i > separator ? c == '/' : i == separator);
+                if (!valid) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     public enum SerializerVersion {
         V1_8(TextComponentSerializer.V1_8, SNbtSerializer.V1_8),
         V1_9(TextComponentSerializer.V1_9, SNbtSerializer.V1_8),
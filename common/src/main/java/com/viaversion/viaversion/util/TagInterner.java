@@ -0,0 +1,68 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.util;
+
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Content-based intern pool for registry tags that are identical for every player on the same server.
+ * <p>
+ * Connections only hold references to the pooled instances, which are dropped once no connection uses them anymore.
+ * Pooled tags are shared and must never be modified; copy them before handing them to a packet.
+ */
+public final class TagInterner {
+
+    private static final Map<CompoundTag, WeakReference<CompoundTag>> POOL = new WeakHashMap<>();
+
+    /**
+     * Returns the pooled instance equal to the given tag, pooling the tag itself if there is none.
+     * The caller gives up ownership of the tag and must not modify it afterwards.
+     *
+     * @param tag tag to intern
+     * @return pooled tag equal to the given one
+     */
+    public static CompoundTag intern(final CompoundTag tag) {
+        return intern(tag, false);
+    }
+
+    /**
+     * Returns the pooled instance equal to the given tag, pooling a copy if there is none.
+     * The given tag is left untouched and may still be modified by the caller.
+     *
+     * @param tag tag to intern
+     * @return pooled tag equal to the given one
+     */
+    public static CompoundTag internCopy(final CompoundTag tag) {
+        return intern(tag, true);
+    }
+
+    private static synchronized CompoundTag intern(final CompoundTag tag, final boolean copy) {
+        final WeakReference<CompoundTag> reference = POOL.get(tag);
+        final CompoundTag pooled = reference != null ? reference.get() : null;
+        if (pooled != null) {
+            return pooled;
+        }
+
+        final CompoundTag newTag = copy ? tag.copy() : tag;
+        POOL.put(newTag, new WeakReference<>(newTag));
+        return newTag;
+    }
+}
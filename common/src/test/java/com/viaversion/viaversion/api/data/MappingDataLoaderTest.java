@@ -0,0 +1,94 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.api.data;
+
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class MappingDataLoaderTest {
+
+    @BeforeAll
+    static void init() {
+        DummyInitializer.init();
+    }
+
+    @Test
+    void testSharedArrays() {
+        final IntArrayMappings first = (IntArrayMappings) MappingDataLoader.createMappings(new int[]{3, -1, 0, 7}, 8);
+        final IntArrayMappings second = (IntArrayMappings) MappingDataLoader.createMappings(new int[]{3, -1, 0, 7}, 8);
+        final IntArrayMappings other = (IntArrayMappings) MappingDataLoader.createMappings(new int[]{3, -1, 0, 6}, 8);
+        Assertions.assertSame(first.raw(), second.raw());
+        Assertions.assertNotSame(first.raw(), other.raw());
+    }
+
+    @Test
+    void testSharedArrayCopiedOnWrite() {
+        final int[] array = {1, 2, 3};
+        final IntArrayMappings first = IntArrayMappings.ofShared(array, 4);
+        final IntArrayMappings second = IntArrayMappings.ofShared(array, 4);
+
+        first.setNewId(1, 0);
+        Assertions.assertEquals(0, first.getNewId(1));
+        Assertions.assertEquals(2, second.getNewId(1));
+        Assertions.assertArrayEquals(new int[]{1, 2, 3}, array);
+        Assertions.assertSame(array, second.raw());
+
+        // Only the first modification copies
+        final int[] copy = first.raw();
+        first.setNewId(2, 0);
+        Assertions.assertSame(copy, first.raw());
+    }
+
+    @Test
+    void testSharedIdentifiers() {
+        final List<String> first = MappingDataLoader.internIdentifiers(Arrays.asList("stone", "dirt", "grass_block"));
+        final List<String> second = MappingDataLoader.internIdentifiers(new ArrayList<>(Arrays.asList("stone", "dirt", "grass_block")));
+        Assertions.assertSame(first, second);
+        Assertions.assertSame(first, MappingDataLoader.internIdentifiers(first));
+        Assertions.assertEquals(Arrays.asList("stone", "dirt", "grass_block"), first);
+        Assertions.assertNotSame(first, MappingDataLoader.internIdentifiers(Arrays.asList("stone", "dirt")));
+    }
+
+    @Test
+    void testBufferMappingsMatchArrayMappings() {
+        final int[] array = {5, -1, 0, 2, -1, 1};
+        final Mappings arrayMappings = IntArrayMappings.of(array.clone(), 6);
+        final Mappings bufferMappings = IntBufferMappings.of(array.clone(), 6);
+
+        Assertions.assertEquals(arrayMappings.size(), bufferMappings.size());
+        Assertions.assertEquals(arrayMappings.mappedSize(), bufferMappings.mappedSize());
+        for (int id = -1; id <= array.length; id++) {
+            Assertions.assertEquals(arrayMappings.getNewId(id), bufferMappings.getNewId(id), "id " + id);
+        }
+
+        final Mappings arrayInverse = arrayMappings.inverse();
+        final Mappings bufferInverse = bufferMappings.inverse();
+        for (int id = 0; id < arrayInverse.size(); id++) {
+            Assertions.assertEquals(arrayInverse.getNewId(id), bufferInverse.getNewId(id), "inverse id " + id);
+        }
+
+        arrayMappings.setNewId(1, 4);
+        bufferMappings.setNewId(1, 4);
+        Assertions.assertEquals(arrayMappings.getNewId(1), bufferMappings.getNewId(1));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.api.data;
+
+import com.viaversion.viaversion.api.minecraft.RegistryType;
+import com.viaversion.viaversion.api.minecraft.TagData;
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappingSnapshotTest {
+
+    private static final String VERSION = "1.0.0-SNAPSHOT";
+    private static final byte[] HASH = {1, 2, 3, 4};
+
+    @TempDir
+    File directory;
+
+    @BeforeAll
+    static void init() {
+        DummyInitializer.init();
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        final File file = new File(directory, "mappings.bin");
+        snapshot().write(file, VERSION, HASH);
+
+        final MappingSnapshot read = MappingSnapshot.read(file, VERSION, HASH);
+        Assertions.assertNotNull(read);
+
+        final Mappings blocks = read.mappings("blocks");
+        Assertions.assertNotNull(blocks);
+        Assertions.assertEquals(3, blocks.size());
+        Assertions.assertEquals(5, blocks.mappedSize());
+        Assertions.assertEquals(4, blocks.getNewId(0));
+        Assertions.assertEquals(-1, blocks.getNewId(1));
+        Assertions.assertEquals(2, blocks.getNewId(2));
+
+        final Mappings items = read.mappings("items");
+        Assertions.assertTrue(items instanceof IdentityMappings);
+        Assertions.assertEquals(10, items.size());
+        Assertions.assertEquals(12, items.mappedSize());
+
+        Assertions.assertEquals(Arrays.asList("minecraft:pig", "minecraft:cow"), read.unmappedIdentifiers("entities"));
+        Assertions.assertEquals(Collections.singletonList("minecraft:cow"), read.mappedIdentifiers("entities"));
+
+        final List<TagData> tags = read.tags(RegistryType.BLOCK);
+        Assertions.assertNotNull(tags);
+        Assertions.assertEquals(1, tags.size());
+        Assertions.assertEquals("minecraft:logs", tags.get(0).identifier());
+        Assertions.assertArrayEquals(new int[]{7, 8, 9}, tags.get(0).entries());
+        Assertions.assertNull(read.tags(RegistryType.ITEM));
+    }
+
+    @Test
+    void testChangedSourceIgnored() throws Exception {
+        final File file = new File(directory, "mappings.bin");
+        snapshot().write(file, VERSION, HASH);
+
+        // Same plugin version, but different mapping resources
+        Assertions.assertNull(MappingSnapshot.read(file, VERSION, new byte[]{1, 2, 3, 5}));
+        Assertions.assertNull(MappingSnapshot.read(file, "1.0.1", HASH));
+        Assertions.assertTrue(file.isFile());
+    }
+
+    @Test
+    void testTruncatedDeleted() throws Exception {
+        final File file = new File(directory, "mappings.bin");
+        snapshot().write(file, VERSION, HASH);
+
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        final File truncated = new File(directory, "truncated.bin");
+        Files.write(truncated.toPath(), Arrays.copyOf(bytes, bytes.length - 6));
+        Assertions.assertNull(MappingSnapshot.read(truncated, VERSION, HASH));
+        Assertions.assertFalse(truncated.exists());
+
+        // Corrupt length prefix right after the header
+        final File corrupt = new File(directory, "corrupt.bin");
+        final int headerLength = Integer.BYTES * 3 + VERSION.length() + Integer.BYTES + HASH.length;
+        final byte[] corruptBytes = bytes.clone();
+        corruptBytes[headerLength] = (byte) 0x7F;
+        Files.write(corrupt.toPath(), corruptBytes);
+        Assertions.assertNull(MappingSnapshot.read(corrupt, VERSION, HASH));
+        Assertions.assertFalse(corrupt.exists());
+    }
+
+    @Test
+    void testResourceHash() throws Exception {
+        final byte[] hash = MappingSnapshot.resourceHash("identifiers-1.20.3.nbt", "missing.nbt");
+        Assertions.assertArrayEquals(hash, MappingSnapshot.resourceHash("identifiers-1.20.3.nbt", "missing.nbt"));
+        Assertions.assertFalse(Arrays.equals(hash, MappingSnapshot.resourceHash("missing.nbt", "identifiers-1.20.3.nbt")));
+    }
+
+    private static MappingSnapshot snapshot() {
+        final MappingSnapshot snapshot = new MappingSnapshot();
+        snapshot.addMappings("blocks", IntArrayMappings.of(new int[]{4, -1, 2}, 5));
+        snapshot.addMappings("items", new IdentityMappings(10, 12));
+        snapshot.addIdentifiers("entities", Arrays.asList("minecraft:pig", "minecraft:cow"), Collections.singletonList("minecraft:cow"));
+        snapshot.addTags(RegistryType.BLOCK, Collections.singletonList(new TagData("minecraft:logs", new int[]{7, 8, 9})));
+        return snapshot;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.api.protocol.packet;
+
+import com.viaversion.viaversion.api.protocol.packet.provider.PacketTypeMap;
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import com.viaversion.viaversion.configuration.AbstractViaConfig;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import com.viaversion.viaversion.protocols.protocol1_20_3to1_20_2.packet.ServerboundPackets1_20_3;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class PacketTrackerTest {
+
+    // Explicit times bypass the packet tracker clock
+    private static final long START = System.currentTimeMillis() + 60_000;
+
+    @BeforeAll
+    static void init() {
+        DummyInitializer.init();
+    }
+
+    @Test
+    void testRefill() {
+        PacketTracker.updateLimits(new LimitConfig(10, 0, 0, 0));
+        final PacketTracker tracker = tracker();
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(tracker.checkReceived(-1, START));
+        }
+        Assertions.assertTrue(tracker.checkReceived(-1, START));
+
+        // One token per 100ms
+        Assertions.assertFalse(tracker.checkReceived(-1, START + 100));
+        Assertions.assertTrue(tracker.checkReceived(-1, START + 150));
+        Assertions.assertEquals(2, tracker.getRejectedPackets());
+    }
+
+    @Test
+    void testRefillCapped() {
+        PacketTracker.updateLimits(new LimitConfig(10, 0, 0, 0));
+        final PacketTracker tracker = tracker();
+
+        Assertions.assertFalse(tracker.checkReceived(-1, START));
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(tracker.checkReceived(-1, START + 10_000));
+        }
+        Assertions.assertTrue(tracker.checkReceived(-1, START + 10_000));
+    }
+
+    @Test
+    void testRemainderCarriedOver() {
+        PacketTracker.updateLimits(new LimitConfig(3, 0, 0, 0));
+        final PacketTracker tracker = tracker();
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertFalse(tracker.checkReceived(-1, START));
+        }
+        Assertions.assertEquals(0, tracker.getAvailableTokens());
+
+        // A token every 333ms, with the time after the last full token being kept for the next one
+        Assertions.assertTrue(tracker.checkReceived(-1, START + 200));
+        Assertions.assertFalse(tracker.checkReceived(-1, START + 400));
+        Assertions.assertFalse(tracker.checkReceived(-1, START + 700));
+        Assertions.assertTrue(tracker.checkReceived(-1, START + 800));
+        Assertions.assertFalse(tracker.checkReceived(-1, START + 1000));
+    }
+
+    @Test
+    void testWeights() {
+        PacketTracker.updateLimits(new LimitConfig(10, 0, 0, 0));
+        final PacketTracker tracker = tracker();
+        tracker.setPacketWeight(5, 4);
+
+        Assertions.assertTrue(tracker.hasPacketWeights());
+        Assertions.assertEquals(4, tracker.packetWeight(5));
+        Assertions.assertEquals(1, tracker.packetWeight(4));
+        Assertions.assertEquals(1, tracker.packetWeight(6));
+        Assertions.assertEquals(1, tracker.packetWeight(-1));
+
+        Assertions.assertFalse(tracker.checkReceived(5, START));
+        Assertions.assertFalse(tracker.checkReceived(5, START));
+        Assertions.assertTrue(tracker.checkReceived(5, START));
+        Assertions.assertFalse(tracker.checkReceived(4, START));
+        Assertions.assertEquals(1, tracker.getAvailableTokens());
+    }
+
+    @Test
+    void testWeightClampedToBucketSize() {
+        PacketTracker.updateLimits(new LimitConfig(10, 0, 0, 0));
+        final PacketTracker tracker = tracker();
+        tracker.setPacketWeight(0, 50);
+
+        Assertions.assertFalse(tracker.checkReceived(0, START));
+        Assertions.assertTrue(tracker.checkReceived(0, START + 500));
+        Assertions.assertFalse(tracker.checkReceived(0, START + 1000));
+    }
+
+    @Test
+    void testInvalidWeights() {
+        final PacketTracker tracker = tracker();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tracker.setPacketWeight(-1, 2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tracker.setPacketWeight(0, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tracker.setPacketWeight(0, -5));
+        Assertions.assertFalse(tracker.hasPacketWeights());
+    }
+
+    @Test
+    void testConfiguredWeights() {
+        PacketTracker.updateLimits(new LimitConfig(10, 0, 0, 0, Collections.singletonMap("CLICK_WINDOW", 3)));
+        final PacketTracker tracker = tracker();
+        tracker.setConfiguredPacketWeights(PacketTypeMap.of(ServerboundPackets1_20_3.class));
+
+        Assertions.assertEquals(3, tracker.packetWeight(ServerboundPackets1_20_3.CLICK_WINDOW.getId()));
+        Assertions.assertEquals(1, tracker.packetWeight(ServerboundPackets1_20_3.CLICK_WINDOW_BUTTON.getId()));
+    }
+
+    @Test
+    void testStaleClock() {
+        PacketTracker.updateLimits(new LimitConfig(20, 0, 0, 0));
+        final PacketTracker tracker = tracker();
+
+        // The clock task has stalled far behind the system time
+        final long systemTime = System.currentTimeMillis();
+        PacketTracker.tickClock(systemTime - 10_000);
+        for (int i = 0; i < 30; i++) {
+            Assertions.assertFalse(tracker.checkReceived(-1));
+        }
+        Assertions.assertEquals(0, tracker.getRejectedPackets());
+
+        // The system time is used until the clock ticks again
+        Assertions.assertTrue(PacketTracker.currentTimeMillis() >= systemTime);
+    }
+
+    @Test
+    void testWarningInterval() {
+        PacketTracker.updateLimits(new LimitConfig(0, 3, 5, 2));
+        final PacketTracker tracker = tracker();
+
+        // First second below the warning pps, then two seconds above it
+        Assertions.assertFalse(sendSecond(tracker, START, 4));
+        Assertions.assertFalse(sendSecond(tracker, START + 1000, 6));
+        Assertions.assertFalse(sendSecond(tracker, START + 2000, 6));
+        Assertions.assertEquals(1, tracker.getWarnings());
+        Assertions.assertTrue(tracker.checkReceived(-1, START + 3000));
+        Assertions.assertEquals(2, tracker.getWarnings());
+    }
+
+    @Test
+    void testWarningsResetAfterTrackingPeriod() {
+        PacketTracker.updateLimits(new LimitConfig(0, 1, 5, 2));
+        final PacketTracker tracker = tracker();
+
+        for (int second = 0; second < 6; second++) {
+            Assertions.assertFalse(sendSecond(tracker, START + second * 1000L, 6));
+        }
+        Assertions.assertEquals(0, tracker.getRejectedPackets());
+    }
+
+    @Test
+    void testNoLimits() {
+        PacketTracker.updateLimits(new LimitConfig(0, 0, 0, 0));
+        Assertions.assertFalse(PacketTracker.hasLimits());
+        Assertions.assertFalse(sendSecond(tracker(), START, 10_000));
+
+        PacketTracker.updateLimits(new LimitConfig(10, 0, 0, 0));
+        Assertions.assertTrue(PacketTracker.hasLimits());
+        PacketTracker.updateLimits(new LimitConfig(0, 3, 5, 2));
+        Assertions.assertTrue(PacketTracker.hasLimits());
+    }
+
+    private boolean sendSecond(final PacketTracker tracker, final long time, final int packets) {
+        for (int i = 0; i < packets; i++) {
+            if (tracker.checkReceived(-1, time + i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PacketTracker tracker() {
+        return new PacketTracker(new UserConnectionImpl(new EmbeddedChannel(), false));
+    }
+
+    private static final class LimitConfig extends AbstractViaConfig {
+        private final int maxPPS;
+        private final int trackingPeriod;
+        private final int warningPPS;
+        private final int maxWarnings;
+        private final Map<String, Integer> packetWeights;
+
+        private LimitConfig(final int maxPPS, final int trackingPeriod, final int warningPPS, final int maxWarnings) {
+            this(maxPPS, trackingPeriod, warningPPS, maxWarnings, Collections.emptyMap());
+        }
+
+        private LimitConfig(final int maxPPS, final int trackingPeriod, final int warningPPS, final int maxWarnings,
+                            final Map<String, Integer> packetWeights) {
+            super(null);
+            this.maxPPS = maxPPS;
+            this.trackingPeriod = trackingPeriod;
+            this.warningPPS = warningPPS;
+            this.maxWarnings = maxWarnings;
+            this.packetWeights = packetWeights;
+        }
+
+        @Override
+        public int getMaxPPS() {
+            return maxPPS;
+        }
+
+        @Override
+        public String getMaxPPSKickMessage() {
+            return "%pps";
+        }
+
+        @Override
+        public int getTrackingPeriod() {
+            return trackingPeriod;
+        }
+
+        @Override
+        public int getWarningPPS() {
+            return warningPPS;
+        }
+
+        @Override
+        public int getMaxWarnings() {
+            return maxWarnings;
+        }
+
+        @Override
+        public String getMaxWarningsKickMessage() {
+            return "%pps";
+        }
+
+        @Override
+        public Map<String, Integer> getPacketWeights() {
+            return packetWeights;
+        }
+
+        @Override
+        public URL getDefaultConfigURL() {
+            return null;
+        }
+
+        @Override
+        protected void handleConfig(final Map<String, Object> config) {
+        }
+
+        @Override
+        public List<String> getUnsupportedOptions() {
+            return Collections.emptyList();
+        }
+    }
+}
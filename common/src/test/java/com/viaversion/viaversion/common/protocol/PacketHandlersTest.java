@@ -0,0 +1,200 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.common.protocol;
+
+import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
+import com.viaversion.viaversion.api.protocol.remapper.PacketHandlers;
+import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.protocol.packet.PacketWrapperImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PacketHandlersTest {
+
+    @Test
+    void testPlayerPositionAndRotation() throws Exception {
+        // Layout of the 1.8 serverbound player position and rotation packet, with an edited value
+        final PacketHandlers compiled = new PacketHandlers() {
+            @Override
+            public void register() {
+                map(Type.DOUBLE); // X
+                map(Type.DOUBLE); // Y
+                map(Type.DOUBLE); // Z
+                map(Type.FLOAT); // Yaw
+                map(Type.FLOAT); // Pitch
+                map(Type.BOOLEAN); // On ground
+                handler(wrapper -> wrapper.set(Type.DOUBLE, 1, wrapper.get(Type.DOUBLE, 1) + 1.62D));
+            }
+        };
+        final PacketHandler reference = wrapper -> {
+            wrapper.passthrough(Type.DOUBLE);
+            wrapper.passthrough(Type.DOUBLE);
+            wrapper.passthrough(Type.DOUBLE);
+            wrapper.passthrough(Type.FLOAT);
+            wrapper.passthrough(Type.FLOAT);
+            wrapper.passthrough(Type.BOOLEAN);
+            wrapper.set(Type.DOUBLE, 1, wrapper.get(Type.DOUBLE, 1) + 1.62D);
+        };
+
+        final ByteBuf input = Unpooled.buffer();
+        Type.DOUBLE.writePrimitive(input, 12.5D);
+        Type.DOUBLE.writePrimitive(input, 64D);
+        Type.DOUBLE.writePrimitive(input, -3.25D);
+        Type.FLOAT.writePrimitive(input, 90F);
+        Type.FLOAT.writePrimitive(input, -45F);
+        Type.BOOLEAN.writePrimitive(input, true);
+        assertSameOutput(compiled, reference, input);
+    }
+
+    @Test
+    void testEntityTeleport() throws Exception {
+        // Layout of the 1.9 entity teleport packet, with fixed size runs between other types
+        final PacketHandlers compiled = new PacketHandlers() {
+            @Override
+            public void register() {
+                map(Type.VAR_INT); // Entity id
+                map(Type.DOUBLE); // X
+                map(Type.DOUBLE); // Y
+                map(Type.DOUBLE); // Z
+                map(Type.BYTE); // Yaw
+                map(Type.BYTE); // Pitch
+                map(Type.BOOLEAN); // On ground
+                read(Type.INT); // Removed value
+                map(Type.STRING);
+                map(Type.LONG);
+                map(Type.INT);
+            }
+        };
+        final PacketHandler reference = wrapper -> {
+            wrapper.passthrough(Type.VAR_INT);
+            wrapper.passthrough(Type.DOUBLE);
+            wrapper.passthrough(Type.DOUBLE);
+            wrapper.passthrough(Type.DOUBLE);
+            wrapper.passthrough(Type.BYTE);
+            wrapper.passthrough(Type.BYTE);
+            wrapper.passthrough(Type.BOOLEAN);
+            wrapper.read(Type.INT);
+            wrapper.passthrough(Type.STRING);
+            wrapper.passthrough(Type.LONG);
+            wrapper.passthrough(Type.INT);
+        };
+
+        final ByteBuf input = Unpooled.buffer();
+        Type.VAR_INT.writePrimitive(input, 1234);
+        Type.DOUBLE.writePrimitive(input, 1D);
+        Type.DOUBLE.writePrimitive(input, 2D);
+        Type.DOUBLE.writePrimitive(input, 3D);
+        Type.BYTE.writePrimitive(input, (byte) -128);
+        Type.BYTE.writePrimitive(input, (byte) 127);
+        Type.BOOLEAN.writePrimitive(input, false);
+        Type.INT.writePrimitive(input, 5);
+        Type.STRING.write(input, "name");
+        Type.LONG.writePrimitive(input, -1L);
+        Type.INT.writePrimitive(input, Integer.MIN_VALUE);
+        assertSameOutput(compiled, reference, input);
+    }
+
+    @Test
+    void testFixedRunWithQueuedValues() throws Exception {
+        final PacketHandlers compiled = new PacketHandlers() {
+            @Override
+            public void register() {
+                map(Type.INT);
+                map(Type.INT);
+                map(Type.LONG);
+            }
+        };
+
+        final ByteBuf input = Unpooled.buffer();
+        Type.INT.writePrimitive(input, 2);
+        Type.LONG.writePrimitive(input, 3L);
+        final PacketWrapper wrapper = new PacketWrapperImpl(-1, input, null);
+        wrapper.writeInt(1);
+        wrapper.resetReader();
+
+        // The first value is already queued, the others are still in the buffer
+        compiled.handle(wrapper);
+        final ByteBuf expected = Unpooled.buffer();
+        Type.INT.writePrimitive(expected, 1);
+        Type.INT.writePrimitive(expected, 2);
+        Type.LONG.writePrimitive(expected, 3L);
+        Assertions.assertEquals(ByteBufUtil.hexDump(expected), ByteBufUtil.hexDump(write(wrapper)));
+    }
+
+    @Test
+    void testFixedRunNotEnoughBytes() {
+        final PacketHandlers compiled = new PacketHandlers() {
+            @Override
+            public void register() {
+                map(Type.LONG);
+                map(Type.LONG);
+            }
+        };
+
+        final ByteBuf input = Unpooled.buffer();
+        Type.LONG.writePrimitive(input, 1L);
+        Type.INT.writePrimitive(input, 2);
+        Assertions.assertThrows(Exception.class, () -> compiled.handle(new PacketWrapperImpl(-1, input, null)));
+    }
+
+    @Test
+    void testHandlersAddedAfterRegistration() throws Exception {
+        final PacketHandlers handlers = new PacketHandlers() {
+            @Override
+            public void register() {
+                map(Type.INT);
+            }
+        };
+        final ByteBuf input = Unpooled.buffer();
+        Type.INT.writePrimitive(input, 1);
+        Type.LONG.writePrimitive(input, 2L);
+        handlers.handle(new PacketWrapperImpl(-1, input.copy(), null));
+
+        // Added handlers are compiled on the next use
+        handlers.map(Type.LONG);
+        handlers.handler(wrapper -> wrapper.set(Type.LONG, 0, wrapper.get(Type.LONG, 0) + 1));
+        final PacketHandlers reference = new PacketHandlers() {
+            @Override
+            public void register() {
+                map(Type.INT);
+                map(Type.LONG);
+                handler(wrapper -> wrapper.set(Type.LONG, 0, wrapper.get(Type.LONG, 0) + 1));
+            }
+        };
+        Assertions.assertEquals(3, handlers.handlersSize());
+        assertSameOutput(handlers, reference, input);
+    }
+
+    private static void assertSameOutput(final PacketHandler compiled, final PacketHandler reference, final ByteBuf input) throws Exception {
+        final PacketWrapper compiledWrapper = new PacketWrapperImpl(-1, input.copy(), null);
+        compiled.handle(compiledWrapper);
+        final PacketWrapper referenceWrapper = new PacketWrapperImpl(-1, input.copy(), null);
+        reference.handle(referenceWrapper);
+        Assertions.assertEquals(ByteBufUtil.hexDump(write(referenceWrapper)), ByteBufUtil.hexDump(write(compiledWrapper)));
+    }
+
+    private static ByteBuf write(final PacketWrapper wrapper) throws Exception {
+        final ByteBuf output = Unpooled.buffer();
+        wrapper.writeToBuffer(output);
+        return output;
+    }
+}
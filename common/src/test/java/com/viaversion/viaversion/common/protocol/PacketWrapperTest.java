@@ -0,0 +1,161 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.common.protocol;
+
+import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.protocol.packet.PacketWrapperImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PacketWrapperTest {
+
+    @Test
+    void testMixedPrimitiveAndBoxedPassthrough() throws Exception {
+        final ByteBuf input = Unpooled.buffer();
+        Type.VAR_INT.writePrimitive(input, 300);
+        Type.STRING.write(input, "test");
+        Type.LONG.writePrimitive(input, Long.MIN_VALUE);
+        Type.FLOAT.writePrimitive(input, 1.5F);
+        Type.DOUBLE.writePrimitive(input, -2.25D);
+        Type.BYTE.writePrimitive(input, (byte) -1);
+        Type.BOOLEAN.writePrimitive(input, true);
+        Type.INT.writePrimitive(input, 42);
+        final String expected = ByteBufUtil.hexDump(input);
+
+        final PacketWrapper wrapper = new PacketWrapperImpl(-1, input, null);
+        Assertions.assertEquals(300, (int) wrapper.passthrough(Type.VAR_INT));
+        Assertions.assertEquals("test", wrapper.passthrough(Type.STRING));
+        Assertions.assertEquals(Long.MIN_VALUE, wrapper.passthroughLong());
+        Assertions.assertEquals(1.5F, (float) wrapper.passthrough(Type.FLOAT));
+        Assertions.assertEquals(-2.25D, wrapper.passthroughDouble());
+        Assertions.assertEquals((byte) -1, (byte) wrapper.passthrough(Type.BYTE));
+        Assertions.assertTrue(wrapper.passthroughBoolean());
+        Assertions.assertEquals(42, wrapper.passthroughInt());
+
+        Assertions.assertEquals(expected, ByteBufUtil.hexDump(write(wrapper)));
+    }
+
+    @Test
+    void testReadAcrossValueKinds() throws Exception {
+        final PacketWrapper wrapper = new PacketWrapperImpl(-1, Unpooled.buffer(), null);
+        wrapper.writeVarInt(5);
+        wrapper.write(Type.VAR_INT, 6);
+        wrapper.writeDouble(2.5D);
+        wrapper.write(Type.BYTE, (byte) 3);
+        wrapper.writeBoolean(true);
+        wrapper.write(Type.FLOAT, 0.5F);
+        wrapper.resetReader();
+
+        // Primitive values read as objects and the other way around
+        Assertions.assertEquals(5, (int) wrapper.read(Type.VAR_INT));
+        Assertions.assertEquals(6, wrapper.readVarInt());
+        Assertions.assertEquals(2.5D, (double) wrapper.read(Type.DOUBLE));
+        Assertions.assertEquals((byte) 3, wrapper.readByte());
+        Assertions.assertTrue(wrapper.read(Type.BOOLEAN));
+        Assertions.assertEquals(0.5F, wrapper.readFloat());
+    }
+
+    @Test
+    void testSetAndGetPrimitiveValues() throws Exception {
+        final PacketWrapper wrapper = new PacketWrapperImpl(-1, Unpooled.buffer(), null);
+        wrapper.writeVarInt(1);
+        wrapper.writeVarInt(2);
+        wrapper.writeBoolean(false);
+        wrapper.writeLong(10L);
+
+        Assertions.assertEquals(1, (int) wrapper.get(Type.VAR_INT, 0));
+        Assertions.assertEquals(2, (int) wrapper.get(Type.VAR_INT, 1));
+        Assertions.assertFalse(wrapper.get(Type.BOOLEAN, 0));
+        Assertions.assertEquals(10L, (long) wrapper.get(Type.LONG, 0));
+
+        wrapper.set(Type.VAR_INT, 1, 7);
+        wrapper.set(Type.BOOLEAN, 0, true);
+        Assertions.assertEquals(7, (int) wrapper.get(Type.VAR_INT, 1));
+        Assertions.assertTrue(wrapper.get(Type.BOOLEAN, 0));
+
+        final ByteBuf expected = Unpooled.buffer();
+        Type.VAR_INT.writePrimitive(expected, 1);
+        Type.VAR_INT.writePrimitive(expected, 7);
+        Type.BOOLEAN.writePrimitive(expected, true);
+        Type.LONG.writePrimitive(expected, 10L);
+        Assertions.assertEquals(ByteBufUtil.hexDump(expected), ByteBufUtil.hexDump(write(wrapper)));
+    }
+
+    @Test
+    void testResetReaderKeepsUnreadValues() throws Exception {
+        final PacketWrapper wrapper = new PacketWrapperImpl(-1, Unpooled.buffer(), null);
+        wrapper.writeVarInt(1);
+        wrapper.writeVarInt(2);
+        wrapper.write(Type.STRING, "three");
+        wrapper.resetReader();
+
+        Assertions.assertEquals(1, wrapper.readVarInt());
+        wrapper.writeVarInt(10);
+        wrapper.resetReader();
+
+        // Newly written values come before the values that have not been read yet
+        Assertions.assertEquals(10, wrapper.readVarInt());
+        Assertions.assertEquals(2, wrapper.readVarInt());
+        Assertions.assertEquals("three", wrapper.read(Type.STRING));
+        Assertions.assertFalse(wrapper.isReadable(Type.VAR_INT, 0));
+    }
+
+    @Test
+    void testRawValuesWrittenFromInput() throws Exception {
+        final ByteBuf input = Unpooled.buffer();
+        Type.STRING.write(input, "raw");
+        Type.VAR_INT.writePrimitive(input, 1);
+        final String expected = ByteBufUtil.hexDump(input);
+
+        final PacketWrapper wrapper = new PacketWrapperImpl(-1, input, null);
+        wrapper.passthroughRaw(Type.STRING);
+        wrapper.passthroughVarInt();
+        Assertions.assertEquals(expected, ByteBufUtil.hexDump(write(wrapper)));
+        Assertions.assertEquals("raw", wrapper.get(Type.STRING, 0));
+    }
+
+    @Test
+    void testQueuedRawValueMovedThrough() throws Exception {
+        final ByteBuf input = Unpooled.buffer();
+        Type.STRING.write(input, "raw");
+        Type.VAR_INT.writePrimitive(input, 1);
+        final String expected = ByteBufUtil.hexDump(input);
+
+        final PacketWrapper wrapper = new PacketWrapperImpl(-1, input, null);
+        wrapper.passthroughRaw(Type.STRING);
+        wrapper.passthroughVarInt();
+        wrapper.resetReader();
+
+        // Passed on again without being decoded
+        wrapper.passthroughRaw(Type.STRING);
+        wrapper.passthroughVarInt();
+        Assertions.assertTrue(wrapper.toString().contains("raw("));
+        Assertions.assertEquals(expected, ByteBufUtil.hexDump(write(wrapper)));
+        Assertions.assertEquals("raw", wrapper.get(Type.STRING, 0));
+    }
+
+    private static ByteBuf write(final PacketWrapper wrapper) throws Exception {
+        final ByteBuf output = Unpooled.buffer();
+        wrapper.writeToBuffer(output);
+        return output;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.common.type;
+
+import com.viaversion.viaversion.api.minecraft.chunks.DataPalette;
+import com.viaversion.viaversion.api.minecraft.chunks.DataPaletteImpl;
+import com.viaversion.viaversion.api.minecraft.chunks.PaletteType;
+import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.api.type.types.chunk.PaletteType1_18;
+import com.viaversion.viaversion.util.CompactArrayUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PaletteTypeTest {
+
+    private static final PaletteType1_18 BLOCK_PALETTE_TYPE = new PaletteType1_18(PaletteType.BLOCKS, 15);
+
+    @Test
+    public void testPackedIndexesPassthrough() throws Exception {
+        final long[] indexes = CompactArrayUtil.createCompactArrayWithPadding(5, PaletteType.BLOCKS.size(), i -> i % 20);
+        final DataPalette palette = BLOCK_PALETTE_TYPE.read(indirectPalette(5, 20, indexes));
+        for (int i = 0; i < palette.size(); i++) {
+            palette.setIdByIndex(i, palette.idByIndex(i) + 1000);
+        }
+
+        final DataPalette written = BLOCK_PALETTE_TYPE.read(write(palette));
+        Assertions.assertArrayEquals(indexes, ((DataPaletteImpl) written).packedPaletteIndexes());
+        for (int i = 0; i < PaletteType.BLOCKS.size(); i++) {
+            Assertions.assertEquals(i % 20 + 1000, written.idAt(i));
+        }
+    }
+
+    @Test
+    public void testPackedIndexesUnpackOnChange() throws Exception {
+        final long[] indexes = CompactArrayUtil.createCompactArrayWithPadding(5, PaletteType.BLOCKS.size(), i -> i % 20);
+        final DataPaletteImpl palette = (DataPaletteImpl) BLOCK_PALETTE_TYPE.read(indirectPalette(5, 20, indexes));
+        palette.setPaletteIndexAt(0, 19);
+        Assertions.assertNull(palette.packedPaletteIndexes());
+
+        final DataPalette written = BLOCK_PALETTE_TYPE.read(write(palette));
+        Assertions.assertEquals(19, written.idAt(0));
+        for (int i = 1; i < PaletteType.BLOCKS.size(); i++) {
+            Assertions.assertEquals(i % 20, written.idAt(i));
+        }
+    }
+
+    private static ByteBuf indirectPalette(final int bitsPerValue, final int size, final long[] indexes) throws Exception {
+        final ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(bitsPerValue);
+        Type.VAR_INT.writePrimitive(buf, size);
+        for (int i = 0; i < size; i++) {
+            Type.VAR_INT.writePrimitive(buf, i);
+        }
+        Type.LONG_ARRAY_PRIMITIVE.write(buf, indexes);
+        return buf;
+    }
+
+    private static ByteBuf write(final DataPalette palette) throws Exception {
+        final ByteBuf buf = Unpooled.buffer();
+        BLOCK_PALETTE_TYPE.write(buf, palette);
+        return buf;
+    }
+}
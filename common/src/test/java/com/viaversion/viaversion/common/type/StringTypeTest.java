@@ -18,6 +18,7 @@
 package com.viaversion.viaversion.common.type;
 
 import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.api.type.types.StringType;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
@@ -58,6 +59,19 @@ public class StringTypeTest {
         Assertions.assertThrows(IllegalArgumentException.class, () -> Type.STRING.read(buf));
     }
 
+    @Test
+    public void testStringSkipLimit() throws Exception {
+        final StringType type = new StringType(4);
+        final ByteBuf buf = Unpooled.buffer();
+        Type.STRING.write(buf, "ab\u20AC\u20AC"); // 4 characters in 8 bytes
+        type.skip(buf);
+        Assertions.assertFalse(buf.isReadable());
+
+        // Same byte length limit as reading, but too many characters
+        Type.STRING.write(buf, "abcde");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> type.skip(buf));
+    }
+
     @Test
     public void testStringWriteOverflowException() {
         // Write exceptions
@@ -0,0 +1,136 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.connection;
+
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.platform.providers.Provider;
+import com.viaversion.viaversion.api.platform.providers.ViaProviders;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import com.viaversion.viaversion.protocols.protocol1_20_2to1_20.Protocol1_20_2To1_20;
+import com.viaversion.viaversion.protocols.protocol1_20_3to1_20_2.Protocol1_20_3To1_20_2;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class PacketMemoTest {
+
+    private static final byte[] TRANSFORMED = {1, 2, 3};
+
+    @BeforeAll
+    static void init() {
+        DummyInitializer.init();
+    }
+
+    @Test
+    void testSamePipelineShared() {
+        final PacketMemo memo = new PacketMemo();
+        final ViaProviders providers = new ViaProviders();
+        final List<Protocol> protocols = protocols(Protocol1_20_2To1_20.class, Protocol1_20_3To1_20_2.class);
+        memo.put(key(pipeline(protocols, providers), content(0)).copy(), TRANSFORMED);
+
+        // Equal pipeline and content from separate buffers
+        Assertions.assertArrayEquals(TRANSFORMED, memo.get(key(pipeline(protocols, providers), content(0))));
+        Assertions.assertNull(memo.get(key(pipeline(protocols, providers), content(1))));
+    }
+
+    @Test
+    void testDifferentPipelinesNotShared() {
+        final PacketMemo memo = new PacketMemo();
+        final ViaProviders providers = new ViaProviders();
+        final PacketMemo.Pipeline first = pipeline(protocols(Protocol1_20_2To1_20.class, Protocol1_20_3To1_20_2.class), providers);
+        final PacketMemo.Pipeline second = pipeline(protocols(Protocol1_20_3To1_20_2.class), providers);
+        memo.put(key(first, content(0)).copy(), TRANSFORMED);
+
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertNull(memo.get(key(second, content(0))));
+    }
+
+    @Test
+    void testProviderChangeNotShared() {
+        final PacketMemo memo = new PacketMemo();
+        final ViaProviders providers = new ViaProviders();
+        final List<Protocol> protocols = protocols(Protocol1_20_2To1_20.class);
+        memo.put(key(pipeline(protocols, providers), content(0)).copy(), TRANSFORMED);
+
+        providers.use(TestProvider.class, new TestProvider());
+        Assertions.assertNull(memo.get(key(pipeline(protocols, providers), content(0))));
+        Assertions.assertNull(memo.get(key(pipeline(protocols, new ViaProviders()), content(0))));
+    }
+
+    @Test
+    void testCopyOwnsContent() {
+        final PacketMemo memo = new PacketMemo();
+        final PacketMemo.Pipeline pipeline = pipeline(protocols(Protocol1_20_2To1_20.class), new ViaProviders());
+        final ByteBuf buf = content(0);
+        final PacketMemo.Key key = key(pipeline, buf);
+        memo.put(key.copy(), TRANSFORMED);
+
+        // The looked up buffer is reused afterwards
+        buf.setZero(0, buf.writerIndex());
+        Assertions.assertArrayEquals(TRANSFORMED, memo.get(key(pipeline, content(0))));
+    }
+
+    @Test
+    void testOnlyReadableBytesCompared() {
+        final PacketMemo memo = new PacketMemo();
+        final PacketMemo.Pipeline pipeline = pipeline(protocols(Protocol1_20_2To1_20.class), new ViaProviders());
+        memo.put(key(pipeline, content(0)).copy(), TRANSFORMED);
+
+        final ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes(new byte[]{9, 9});
+        buf.writeBytes(content(0));
+        buf.skipBytes(2);
+        Assertions.assertArrayEquals(TRANSFORMED, memo.get(key(pipeline, buf)));
+        Assertions.assertEquals(2, buf.readerIndex());
+    }
+
+    private static PacketMemo.Key key(final PacketMemo.Pipeline pipeline, final ByteBuf content) {
+        return new PacketMemo.Key(pipeline, 765, 763, State.PLAY, 0x10, content);
+    }
+
+    private static PacketMemo.Pipeline pipeline(final List<Protocol> protocols, final ViaProviders providers) {
+        return new PacketMemo.Pipeline(protocols, providers, Via.getConfig());
+    }
+
+    @SafeVarargs
+    private static List<Protocol> protocols(final Class<? extends Protocol>... protocolClasses) {
+        final Protocol[] protocols = new Protocol[protocolClasses.length];
+        for (int i = 0; i < protocolClasses.length; i++) {
+            protocols[i] = Via.getManager().getProtocolManager().getProtocol(protocolClasses[i]);
+        }
+        return Collections.unmodifiableList(Arrays.asList(protocols));
+    }
+
+    private static ByteBuf content(final int seed) {
+        final byte[] bytes = new byte[PacketMemo.MIN_PACKET_SIZE];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31 + seed);
+        }
+        return Unpooled.wrappedBuffer(bytes);
+    }
+
+    private static final class TestProvider implements Provider {
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.connection;
+
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.AbstractSimpleProtocol;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.ProtocolPipeline;
+import com.viaversion.viaversion.api.protocol.packet.Direction;
+import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import com.viaversion.viaversion.exception.CancelException;
+import com.viaversion.viaversion.protocol.ProtocolPipelineImpl;
+import com.viaversion.viaversion.protocol.packet.PacketWrapperImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.UUID;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class UserConnectionTransformTest {
+
+    private static final byte[] CONTENT = {(byte) 0xAC, 0x02, 'v', 'i', 'a', 0, 0x7F};
+    private UserConnection user;
+
+    @BeforeAll
+    static void init() {
+        DummyInitializer.init();
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Clientbound packets go through the server side protocol first
+        final Protocol clientSide = new AbstractSimpleProtocol() {
+        };
+        clientSide.registerClientbound(State.PLAY, 2, 300);
+        clientSide.registerClientbound(State.PLAY, 3, 4);
+        clientSide.registerClientbound(State.PLAY, 5, 5, wrapper -> {
+            wrapper.passthrough(Type.VAR_INT);
+            wrapper.write(Type.BOOLEAN, true);
+        });
+        clientSide.registerClientbound(State.PLAY, 6, 6, PacketWrapper::cancel);
+
+        final Protocol serverSide = new AbstractSimpleProtocol() {
+        };
+        serverSide.registerClientbound(State.PLAY, 1, 2);
+        serverSide.registerClientbound(State.PLAY, 7, 3);
+
+        user = new UserConnectionImpl(null, false);
+        final ProtocolPipeline pipeline = new ProtocolPipelineImpl(user);
+        pipeline.add(clientSide);
+        pipeline.add(serverSide);
+        user.getProtocolInfo().setState(State.PLAY);
+    }
+
+    @Test
+    void testIdRewrittenInPlace() throws Exception {
+        final ByteBuf buf = packet(7);
+        final int writerIndex = buf.writerIndex();
+        user.transformClientbound(buf, CancelException::new);
+
+        // Same id length, only the id bytes changed
+        Assertions.assertEquals(0, buf.readerIndex());
+        Assertions.assertEquals(writerIndex, buf.writerIndex());
+        Assertions.assertArrayEquals(wrapperPath(7), bytes(buf));
+    }
+
+    @Test
+    void testLongerIdCopied() throws Exception {
+        final ByteBuf buf = packet(1);
+        user.transformClientbound(buf, CancelException::new);
+        Assertions.assertArrayEquals(wrapperPath(1), bytes(buf));
+
+        final ByteBuf input = packet(1);
+        final ByteBuf transformed = user.transformClientboundToBuffer(input);
+        try {
+            Assertions.assertNotSame(input, transformed);
+            Assertions.assertArrayEquals(wrapperPath(1), bytes(transformed));
+        } finally {
+            transformed.release();
+        }
+    }
+
+    @Test
+    void testLargePacketDataNotCopied() throws Exception {
+        // As done by the platform encoders
+        final ByteBuf buf = Unpooled.buffer();
+        Type.VAR_INT.writePrimitive(buf, 1);
+        buf.writeBytes(new byte[1024]);
+        final ByteBuf transformed = user.transformClientboundToBuffer(buf);
+        try {
+            Assertions.assertEquals(buf.writerIndex(), buf.readerIndex());
+            Assertions.assertEquals(2, buf.refCnt());
+            Assertions.assertEquals(2 + 1024, transformed.readableBytes());
+            Assertions.assertEquals(300, Type.VAR_INT.readPrimitive(transformed.duplicate()));
+
+            // The output is a view of the input's packet data
+            buf.setByte(buf.writerIndex() - 1, 42);
+            Assertions.assertEquals(42, transformed.getByte(transformed.writerIndex() - 1));
+        } finally {
+            transformed.release();
+        }
+        Assertions.assertEquals(1, buf.refCnt());
+    }
+
+    @Test
+    void testLongerIdRewrittenInFreeSpace() throws Exception {
+        // Already read bytes in front of the packet leave room for the longer id
+        final ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(0);
+        buf.writeBytes(packet(1));
+        buf.skipBytes(1);
+        final int writerIndex = buf.writerIndex();
+        user.transformClientbound(buf, CancelException::new);
+
+        Assertions.assertEquals(0, buf.readerIndex());
+        Assertions.assertEquals(writerIndex, buf.writerIndex());
+        Assertions.assertArrayEquals(wrapperPath(1), bytes(buf));
+    }
+
+    @Test
+    void testUnmappedAndHandledPackets() throws Exception {
+        for (final int id : new int[]{0, 1, 3, 5, 7}) {
+            final ByteBuf transformed = user.transformClientboundToBuffer(packet(id));
+            try {
+                Assertions.assertArrayEquals(wrapperPath(id), bytes(transformed), "packet " + id);
+            } finally {
+                transformed.release();
+            }
+
+            final ByteBuf buf = packet(id);
+            user.transformClientbound(buf, CancelException::new);
+            Assertions.assertArrayEquals(wrapperPath(id), bytes(buf), "packet " + id);
+        }
+    }
+
+    @Test
+    void testCancelled() throws Exception {
+        Assertions.assertNull(wrapperPath(6));
+        final ByteBuf buf = packet(6);
+        Assertions.assertNull(user.transformClientboundToBuffer(buf));
+        Assertions.assertEquals(1, buf.refCnt());
+        Assertions.assertThrows(CancelException.class, () -> user.transformClientbound(packet(6), CancelException::new));
+    }
+
+    @Test
+    void testPassthroughToken() throws Exception {
+        final ByteBuf buf = Unpooled.buffer();
+        Type.VAR_INT.writePrimitive(buf, PacketWrapper.PASSTHROUGH_ID);
+        Type.UUID.write(buf, user.generatePassthroughToken());
+        buf.writeBytes(packet(1));
+
+        // The packet after the token is passed on as is, inside the retained input buffer
+        final ByteBuf transformed = user.transformServerboundToBuffer(buf);
+        Assertions.assertSame(buf, transformed);
+        Assertions.assertEquals(2, buf.refCnt());
+        Assertions.assertArrayEquals(bytes(packet(1)), bytes(transformed));
+        transformed.release();
+
+        // Tokens can only be used once
+        final ByteBuf reused = Unpooled.buffer();
+        Type.VAR_INT.writePrimitive(reused, PacketWrapper.PASSTHROUGH_ID);
+        Type.UUID.write(reused, UUID.randomUUID());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> user.transformServerboundToBuffer(reused));
+    }
+
+    @Test
+    void testEmptyBufferRetained() throws Exception {
+        final ByteBuf buf = Unpooled.buffer();
+        final ByteBuf transformed = user.transformClientboundToBuffer(buf);
+        Assertions.assertSame(buf, transformed);
+        Assertions.assertEquals(2, buf.refCnt());
+    }
+
+    private byte @Nullable [] wrapperPath(final int id) throws Exception {
+        final ByteBuf buf = packet(id);
+        final PacketWrapper wrapper = new PacketWrapperImpl(Type.VAR_INT.readPrimitive(buf), buf, user);
+        if (!user.getProtocolInfo().getPipeline().transformPacket(Direction.CLIENTBOUND, State.PLAY, wrapper)) {
+            return null;
+        }
+
+        final ByteBuf output = Unpooled.buffer();
+        wrapper.writeToBuffer(output);
+        return bytes(output);
+    }
+
+    private static byte[] bytes(final ByteBuf buf) {
+        final byte[] bytes = new byte[buf.readableBytes()];
+        buf.getBytes(buf.readerIndex(), bytes);
+        return bytes;
+    }
+
+    private static ByteBuf packet(final int id) {
+        final ByteBuf buf = Unpooled.buffer();
+        Type.VAR_INT.writePrimitive(buf, id);
+        buf.writeBytes(CONTENT);
+        return buf;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.data.entity;
+
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.data.entity.TrackedEntity;
+import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_19_4;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EntityStorageTest {
+
+    @Test
+    void testPutGetRemove() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int view = storage.registerView();
+        final TrackedEntity zombie = new TrackedEntityImpl(EntityTypes1_19_4.ZOMBIE);
+        storage.put(-5, view, zombie);
+        storage.put(0, view, EntityTypes1_19_4.PLAYER);
+        storage.put(Integer.MAX_VALUE, view, EntityTypes1_19_4.PLAYER);
+
+        Assertions.assertEquals(3, storage.size());
+        Assertions.assertSame(zombie, storage.get(-5, view));
+        Assertions.assertTrue(storage.contains(0, view));
+        Assertions.assertFalse(storage.contains(1, view));
+
+        // Replacing keeps a single entry
+        storage.put(-5, view, EntityTypes1_19_4.PLAYER);
+        Assertions.assertEquals(3, storage.size());
+        Assertions.assertEquals(EntityTypes1_19_4.PLAYER, storage.type(-5, view));
+        Assertions.assertTrue(storage.remove(-5, view));
+        Assertions.assertFalse(storage.remove(-5, view));
+        Assertions.assertNull(storage.get(-5, view));
+        Assertions.assertEquals(2, storage.size());
+    }
+
+    @Test
+    void testTrackedEntityCreatedOnDemand() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int view = storage.registerView();
+        storage.put(1, view, EntityTypes1_19_4.ZOMBIE);
+        Assertions.assertEquals(EntityTypes1_19_4.ZOMBIE, storage.type(1, view));
+        Assertions.assertNull(storage.getIfCreated(1, view));
+
+        final TrackedEntity entity = storage.get(1, view);
+        Assertions.assertEquals(EntityTypes1_19_4.ZOMBIE, entity.entityType());
+        entity.sentMetadata(true);
+        Assertions.assertSame(entity, storage.getIfCreated(1, view));
+        Assertions.assertSame(entity, storage.get(1, view));
+
+        // Moving keeps the created entity
+        Assertions.assertTrue(storage.move(1, 2, view));
+        Assertions.assertFalse(storage.contains(1, view));
+        Assertions.assertSame(entity, storage.get(2, view));
+        Assertions.assertTrue(storage.get(2, view).hasSentMetadata());
+        Assertions.assertFalse(storage.move(1, 3, view));
+    }
+
+    @Test
+    void testManyViews() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int first = storage.registerView();
+        for (int id = 0; id < 100; id++) {
+            storage.put(id, first, EntityTypes1_19_4.ZOMBIE);
+        }
+
+        // More views than initially reserved per entry
+        final int[] views = new int[10];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = storage.registerView();
+            storage.put(50, views[i], EntityTypes1_19_4.PLAYER);
+        }
+        Assertions.assertEquals(100, storage.size());
+        for (int id = 0; id < 100; id++) {
+            Assertions.assertEquals(EntityTypes1_19_4.ZOMBIE, storage.type(id, first), "entity " + id);
+        }
+        for (final int view : views) {
+            Assertions.assertEquals(EntityTypes1_19_4.PLAYER, storage.type(50, view));
+            Assertions.assertNull(storage.type(49, view));
+        }
+    }
+
+    @Test
+    void testRemoveKeepsCollidingEntries() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int view = storage.registerView();
+        for (int id = 0; id < 40; id++) {
+            storage.put(id, view, EntityTypes1_19_4.ZOMBIE);
+        }
+
+        // Remove every other entity, shifting entries of the same probe sequence back
+        for (int id = 0; id < 40; id += 2) {
+            Assertions.assertTrue(storage.remove(id, view));
+        }
+        Assertions.assertEquals(20, storage.size());
+        for (int id = 0; id < 40; id++) {
+            Assertions.assertEquals(id % 2 == 1, storage.contains(id, view), "entity " + id);
+        }
+    }
+
+    @Test
+    void testResize() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int view = storage.registerView();
+        for (int id = 0; id < 10_000; id++) {
+            storage.put(id * 7, view, EntityTypes1_19_4.ZOMBIE);
+        }
+
+        Assertions.assertEquals(10_000, storage.size());
+        for (int id = 0; id < 10_000; id++) {
+            Assertions.assertTrue(storage.contains(id * 7, view), "entity " + id * 7);
+            Assertions.assertFalse(storage.contains(id * 7 + 1, view), "entity " + (id * 7 + 1));
+        }
+
+        // Usable again after dropping the large table
+        storage.clear(view);
+        Assertions.assertEquals(0, storage.size());
+        Assertions.assertNull(storage.get(7, view));
+        storage.put(7, view, EntityTypes1_19_4.ZOMBIE);
+        Assertions.assertTrue(storage.contains(7, view));
+        Assertions.assertEquals(1, storage.size());
+    }
+
+    @Test
+    void testViews() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int first = storage.registerView();
+        final int second = storage.registerView();
+        storage.put(1, first, EntityTypes1_19_4.ZOMBIE);
+        storage.put(1, second, EntityTypes1_19_4.PLAYER);
+        storage.put(2, second, EntityTypes1_19_4.PLAYER);
+
+        Assertions.assertEquals(2, storage.size());
+        Assertions.assertEquals(EntityTypes1_19_4.ZOMBIE, storage.get(1, first).entityType());
+        Assertions.assertEquals(EntityTypes1_19_4.PLAYER, storage.get(1, second).entityType());
+        Assertions.assertNull(storage.get(2, first));
+
+        // The entry is only dropped once no view has the entity anymore
+        Assertions.assertTrue(storage.remove(1, first));
+        Assertions.assertEquals(2, storage.size());
+        Assertions.assertTrue(storage.contains(1, second));
+
+        storage.clear(second);
+        Assertions.assertEquals(0, storage.size());
+        Assertions.assertNull(storage.get(1, second));
+    }
+
+    @Test
+    void testClearKeepsOtherViews() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int first = storage.registerView();
+        final int second = storage.registerView();
+        for (int id = 0; id < 100; id++) {
+            storage.put(id, first, EntityTypes1_19_4.ZOMBIE);
+            if (id % 4 == 0) {
+                storage.put(id, second, EntityTypes1_19_4.PLAYER);
+            }
+        }
+
+        storage.clear(first);
+        Assertions.assertEquals(25, storage.size());
+        for (int id = 0; id < 100; id++) {
+            Assertions.assertNull(storage.get(id, first));
+            Assertions.assertEquals(id % 4 == 0, storage.contains(id, second), "entity " + id);
+        }
+    }
+
+    @Test
+    void testViewAddedAfterEntry() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int first = storage.registerView();
+        storage.put(1, first, EntityTypes1_19_4.ZOMBIE);
+
+        // Entries created before a view existed grow on first use
+        final int second = storage.registerView();
+        Assertions.assertNull(storage.get(1, second));
+        Assertions.assertFalse(storage.remove(1, second));
+        storage.put(1, second, EntityTypes1_19_4.PLAYER);
+        Assertions.assertEquals(EntityTypes1_19_4.PLAYER, storage.get(1, second).entityType());
+        Assertions.assertEquals(EntityTypes1_19_4.ZOMBIE, storage.get(1, first).entityType());
+        Assertions.assertEquals(1, storage.size());
+    }
+
+    @Test
+    void testViewsReusedAcrossTrackers() {
+        final UserConnection connection = new UserConnectionImpl(null, false);
+        final EntityStorage storage = EntityStorage.of(connection);
+        EntityTrackerBase first = new EntityTrackerBase(connection, EntityTypes1_19_4.PLAYER);
+        EntityTrackerBase second = new EntityTrackerBase(connection, EntityTypes1_19_4.PLAYER);
+        first.addEntity(1, EntityTypes1_19_4.ZOMBIE);
+        second.addEntity(1, EntityTypes1_19_4.ZOMBIE);
+
+        for (int i = 0; i < 10; i++) {
+            // Trackers are cleared and replaced on server switches
+            first.clearEntities();
+            second.clearEntities();
+            first = new EntityTrackerBase(connection, EntityTypes1_19_4.PLAYER);
+            second = new EntityTrackerBase(connection, EntityTypes1_19_4.PLAYER);
+            first.addEntity(i, EntityTypes1_19_4.ZOMBIE);
+            second.addEntity(i, EntityTypes1_19_4.PLAYER);
+        }
+
+        Assertions.assertEquals(2, storage.views());
+        Assertions.assertEquals(1, storage.size());
+        Assertions.assertEquals(EntityTypes1_19_4.ZOMBIE, first.entityType(9));
+        Assertions.assertEquals(EntityTypes1_19_4.PLAYER, second.entityType(9));
+        Assertions.assertNull(first.entityType(8));
+    }
+
+    @Test
+    void testViewsReusedOnServerSwitch() {
+        final UserConnection connection = new UserConnectionImpl(null, false);
+        final EntityStorage storage = EntityStorage.of(connection);
+        final EntityTrackerBase first = new EntityTrackerBase(connection, EntityTypes1_19_4.PLAYER);
+        final EntityTrackerBase second = new EntityTrackerBase(connection, EntityTypes1_19_4.PLAYER);
+        connection.addEntityTracker(FirstProtocol.class, first);
+        connection.addEntityTracker(SecondProtocol.class, second);
+        first.setClientEntityId(5);
+        second.setClientEntityId(5);
+
+        for (int i = 0; i < 10; i++) {
+            connection.clearStoredObjects(true);
+            // Protocols create their trackers again, which are not used
+            connection.addEntityTracker(FirstProtocol.class, new EntityTrackerBase(connection, EntityTypes1_19_4.PLAYER));
+            connection.addEntityTracker(SecondProtocol.class, new EntityTrackerBase(connection, EntityTypes1_19_4.PLAYER));
+            first.addEntity(100 + i, EntityTypes1_19_4.ZOMBIE);
+        }
+
+        Assertions.assertSame(storage, EntityStorage.of(connection));
+        Assertions.assertEquals(2, storage.views());
+        Assertions.assertEquals(2, storage.size());
+        Assertions.assertEquals(EntityTypes1_19_4.PLAYER, first.entityType(5));
+        Assertions.assertEquals(EntityTypes1_19_4.PLAYER, second.entityType(5));
+        Assertions.assertEquals(EntityTypes1_19_4.ZOMBIE, first.entityType(109));
+        Assertions.assertNull(second.entityType(109));
+    }
+
+    @Test
+    void testReleasedViewCleared() {
+        final EntityStorage storage = EntityStorage.of(null);
+        final int view = storage.registerView();
+        storage.put(1, view, EntityTypes1_19_4.ZOMBIE);
+        storage.releaseView(view);
+
+        // Simulate a write racing with the release
+        storage.put(2, view, EntityTypes1_19_4.ZOMBIE);
+        Assertions.assertEquals(view, storage.registerView());
+        Assertions.assertEquals(0, storage.size());
+        Assertions.assertNull(storage.get(2, view));
+        Assertions.assertEquals(1, storage.views());
+    }
+
+    private interface FirstProtocol extends Protocol {
+    }
+
+    private interface SecondProtocol extends Protocol {
+    }
+}
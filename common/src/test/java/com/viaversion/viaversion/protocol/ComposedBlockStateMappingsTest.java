@@ -0,0 +1,132 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocol;
+
+import com.viaversion.viaversion.api.data.IntArrayMappings;
+import com.viaversion.viaversion.api.data.MappingData;
+import com.viaversion.viaversion.api.data.MappingDataBase;
+import com.viaversion.viaversion.api.protocol.AbstractSimpleProtocol;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ComposedBlockStateMappingsTest {
+
+    @Test
+    void testRuns() {
+        final ProtocolManagerImpl protocolManager = new ProtocolManagerImpl();
+        protocolManager.registerComposableBlockStates(FirstProtocol.class, false);
+        protocolManager.registerComposableBlockStates(TransparentProtocol.class, false);
+        protocolManager.registerComposableBlockStates(SecondProtocol.class, false);
+        protocolManager.registerComposableBlockStates(QueueingProtocol.class, true);
+
+        final Protocol first = new FirstProtocol(new int[0]);
+        final Protocol transparent = new TransparentProtocol();
+        final Protocol second = new SecondProtocol(new int[0]);
+        final Protocol queueing = new QueueingProtocol(new int[0]);
+        final Protocol other = new OtherProtocol(new int[0]);
+
+        // Protocols without mapping data do not end a run
+        Assertions.assertEquals(Collections.singletonList(Arrays.asList(first, second)),
+                protocolManager.blockStateMappingRuns(Arrays.asList(first, transparent, second)));
+        // Unregistered protocols and protocols starting a run split them
+        Assertions.assertEquals(Collections.emptyList(), protocolManager.blockStateMappingRuns(Arrays.asList(first, other, second)));
+        Assertions.assertEquals(Collections.singletonList(Arrays.asList(queueing, first)),
+                protocolManager.blockStateMappingRuns(Arrays.asList(second, queueing, first)));
+    }
+
+    @Test
+    void testCompose() {
+        final Protocol first = new FirstProtocol(new int[]{2, 0, 1, 3});
+        final Protocol second = new SecondProtocol(new int[]{5, 6, 7});
+        final ComposedBlockStateMappings composed = ComposedBlockStateMappings.compose(Arrays.asList(first, second));
+        Assertions.assertNotNull(composed);
+        Assertions.assertSame(first, composed.firstProtocol());
+        Assertions.assertEquals(7, composed.getNewId(0));
+        Assertions.assertEquals(5, composed.getNewId(1));
+        Assertions.assertEquals(6, composed.getNewId(2));
+
+        // Ids missing in any of the protocols are handled by each protocol in turn
+        Assertions.assertEquals(0, composed.getNewId(3));
+        Assertions.assertEquals(5, composed.getNewId(4));
+    }
+
+    @Test
+    void testComposeUnloaded() {
+        final List<Protocol> run = Arrays.asList(new FirstProtocol(new int[]{0}), new SecondProtocol(null));
+        Assertions.assertNull(ComposedBlockStateMappings.compose(run));
+    }
+
+    private static class MappedProtocol extends AbstractSimpleProtocol {
+        private final MappingData mappingData;
+
+        MappedProtocol(final int[] blockStateIds) {
+            this.mappingData = new MappingDataBase("1.0", "1.1") {
+                {
+                    if (blockStateIds != null) {
+                        blockStateMappings = IntArrayMappings.of(blockStateIds, 10);
+                    }
+                }
+
+                @Override
+                protected int checkValidity(final int id, final int mappedId, final String type) {
+                    return mappedId == -1 ? 0 : mappedId;
+                }
+            };
+        }
+
+        @Override
+        public MappingData getMappingData() {
+            return mappingData;
+        }
+    }
+
+    private static final class FirstProtocol extends MappedProtocol {
+
+        FirstProtocol(final int[] blockStateMappings) {
+            super(blockStateMappings);
+        }
+    }
+
+    private static final class SecondProtocol extends MappedProtocol {
+
+        SecondProtocol(final int[] blockStateMappings) {
+            super(blockStateMappings);
+        }
+    }
+
+    private static final class QueueingProtocol extends MappedProtocol {
+
+        QueueingProtocol(final int[] blockStateMappings) {
+            super(blockStateMappings);
+        }
+    }
+
+    private static final class OtherProtocol extends MappedProtocol {
+
+        OtherProtocol(final int[] blockStateMappings) {
+            super(blockStateMappings);
+        }
+    }
+
+    private static final class TransparentProtocol extends AbstractSimpleProtocol {
+    }
+}
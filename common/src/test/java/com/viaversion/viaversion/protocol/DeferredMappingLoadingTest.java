@@ -0,0 +1,100 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocol;
+
+import com.viaversion.viaversion.api.data.MappingData;
+import com.viaversion.viaversion.api.data.MappingDataBase;
+import com.viaversion.viaversion.api.protocol.AbstractSimpleProtocol;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DeferredMappingLoadingTest {
+
+    @Test
+    void testDependencyOnFinishedDeferredLoad() throws Exception {
+        final ProtocolManagerImpl protocolManager = new ProtocolManagerImpl();
+        final DeferredProtocol protocol = new DeferredProtocol();
+        protocol.release.countDown();
+        protocolManager.deferMappingDataLoading(protocol);
+
+        // Requesting the future starts the deferred load
+        final CompletableFuture<Void> deferredFuture = protocolManager.getMappingLoaderFuture(DeferredProtocol.class);
+        Assertions.assertNotNull(deferredFuture);
+        deferredFuture.get(5, TimeUnit.SECONDS);
+        Assertions.assertNull(protocolManager.getMappingLoaderFuture(DeferredProtocol.class));
+
+        final AtomicBoolean ran = new AtomicBoolean();
+        protocolManager.addMappingLoaderFuture(DependentProtocol.class, DeferredProtocol.class, () -> ran.set(true));
+        protocolManager.getMappingLoaderFuture(DependentProtocol.class).get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(ran.get());
+    }
+
+    @Test
+    void testDependencyOnPendingDeferredLoad() throws Exception {
+        final ProtocolManagerImpl protocolManager = new ProtocolManagerImpl();
+        final DeferredProtocol protocol = new DeferredProtocol();
+        protocolManager.deferMappingDataLoading(protocol);
+
+        final AtomicBoolean loadedFirst = new AtomicBoolean();
+        protocolManager.addMappingLoaderFuture(DependentProtocol.class, DeferredProtocol.class, () -> loadedFirst.set(protocol.loaded));
+        final CompletableFuture<Void> future = protocolManager.getMappingLoaderFuture(DependentProtocol.class);
+        Assertions.assertNotNull(future);
+        Assertions.assertFalse(future.isDone());
+
+        protocol.release.countDown();
+        future.get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(loadedFirst.get());
+    }
+
+    @Test
+    void testDependencyWithoutMappingData() throws Exception {
+        final ProtocolManagerImpl protocolManager = new ProtocolManagerImpl();
+        final AtomicBoolean ran = new AtomicBoolean();
+        protocolManager.addMappingLoaderFuture(DependentProtocol.class, DeferredProtocol.class, () -> ran.set(true));
+        protocolManager.getMappingLoaderFuture(DependentProtocol.class).get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(ran.get());
+    }
+
+    private static final class DeferredProtocol extends AbstractSimpleProtocol {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean loaded;
+        private final MappingData mappingData = new MappingDataBase("1.0", "1.1") {
+            @Override
+            public void load() {
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                loaded = true;
+            }
+        };
+
+        @Override
+        public MappingData getMappingData() {
+            return mappingData;
+        }
+    }
+
+    private static final class DependentProtocol extends AbstractSimpleProtocol {
+    }
+}
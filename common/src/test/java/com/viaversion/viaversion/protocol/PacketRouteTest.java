@@ -0,0 +1,106 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocol;
+
+import com.viaversion.viaversion.api.protocol.AbstractSimpleProtocol;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.packet.Direction;
+import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.api.protocol.remapper.PacketHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PacketRouteTest {
+
+    private static final PacketHandler HANDLER = wrapper -> {
+    };
+
+    @Test
+    void testUnhandledMappedId() {
+        final Protocol first = protocol();
+        first.registerClientbound(State.PLAY, 1, 2);
+        final Protocol second = protocol();
+        second.registerClientbound(State.PLAY, 1, 9); // Not reached, the id is already changed
+        final Protocol third = protocol();
+        third.registerClientbound(State.PLAY, 2, 5);
+
+        final PacketRoute route = route(State.PLAY, 1, first, second, third);
+        Assertions.assertEquals(5, route.unhandledMappedId());
+        Assertions.assertFalse(route.isMemoizable());
+
+        // Unmapped packets keep their id
+        Assertions.assertEquals(3, route(State.PLAY, 3, first, second, third).unhandledMappedId());
+        // Mappings of other states do not apply
+        Assertions.assertEquals(1, route(State.LOGIN, 1, first, second, third).unhandledMappedId());
+        Assertions.assertEquals(1, PacketRoute.compute(Direction.SERVERBOUND, State.PLAY, 1, new Protocol[]{first, second, third}).unhandledMappedId());
+    }
+
+    @Test
+    void testHandledPacket() {
+        final Protocol first = protocol();
+        first.registerClientbound(State.PLAY, 1, 2);
+        final Protocol second = protocol();
+        second.registerClientbound(State.PLAY, 2, 3, HANDLER);
+
+        final PacketRoute route = route(State.PLAY, 1, first, second);
+        Assertions.assertEquals(-1, route.unhandledMappedId());
+        Assertions.assertFalse(route.isMemoizable());
+    }
+
+    @Test
+    void testMemoizablePacket() {
+        final Protocol first = protocol();
+        first.registerClientbound(State.PLAY, 1, 2, PacketHandler.memoizable(HANDLER));
+        final Protocol second = protocol();
+        second.registerClientbound(State.PLAY, 2, 3, PacketHandler.memoizable(HANDLER));
+        Assertions.assertTrue(route(State.PLAY, 1, first, second).isMemoizable());
+
+        // A single handler depending on the connection is enough
+        final Protocol third = protocol();
+        third.registerClientbound(State.PLAY, 3, 3, HANDLER);
+        Assertions.assertFalse(route(State.PLAY, 1, first, second, third).isMemoizable());
+    }
+
+    @Test
+    void testCustomTransform() {
+        final Protocol first = protocol();
+        first.registerClientbound(State.PLAY, 1, 2, PacketHandler.memoizable(HANDLER));
+        final Protocol custom = new AbstractSimpleProtocol() {
+            @Override
+            public void transform(final Direction direction, final State state, final PacketWrapper packetWrapper) throws Exception {
+                super.transform(direction, state, packetWrapper);
+            }
+        };
+
+        // Nothing is known about the packet after a protocol with a custom transform method
+        final PacketRoute route = route(State.PLAY, 1, first, custom);
+        Assertions.assertEquals(-1, route.unhandledMappedId());
+        Assertions.assertFalse(route.isMemoizable());
+        Assertions.assertEquals(-1, route(State.PLAY, 5, custom, protocol()).unhandledMappedId());
+    }
+
+    private static PacketRoute route(final State state, final int packetId, final Protocol... pipeline) {
+        return PacketRoute.compute(Direction.CLIENTBOUND, state, packetId, pipeline);
+    }
+
+    private static Protocol protocol() {
+        return new AbstractSimpleProtocol() {
+        };
+    }
+}
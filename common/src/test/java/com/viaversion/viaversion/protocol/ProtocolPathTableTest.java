@@ -0,0 +1,190 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocol;
+
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.protocol.AbstractSimpleProtocol;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.ProtocolManager;
+import com.viaversion.viaversion.api.protocol.ProtocolPathEntry;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProtocolPathTableTest {
+
+    @Test
+    void testRegisteredProtocols() {
+        DummyInitializer.init();
+        final ProtocolManager protocolManager = Via.getManager().getProtocolManager();
+        final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap = new Int2ObjectOpenHashMap<>();
+        for (final ProtocolVersion clientVersion : ProtocolVersion.getProtocols()) {
+            for (final ProtocolVersion serverVersion : ProtocolVersion.getProtocols()) {
+                final Protocol protocol = protocolManager.getProtocol(clientVersion.getVersion(), serverVersion.getVersion());
+                if (protocol != null) {
+                    register(registryMap, clientVersion.getVersion(), serverVersion.getVersion(), protocol);
+                }
+            }
+        }
+
+        Assertions.assertFalse(registryMap.isEmpty());
+        assertMatchesSearch(registryMap, 0, 50);
+        assertMatchesSearch(registryMap, -1, 50);
+        assertMatchesSearch(registryMap, 0, 3);
+    }
+
+    @Test
+    void testPathSizeLimit() {
+        final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap = new Int2ObjectOpenHashMap<>();
+        for (int version = 1; version < 6; version++) {
+            register(registryMap, version, version + 1, protocol());
+        }
+
+        final ProtocolPathTable table = ProtocolPathTable.compute(registryMap, -1, 2);
+        Assertions.assertEquals(3, table.path(1, 4).size());
+        Assertions.assertNull(table.path(1, 5));
+        Assertions.assertEquals(3, table.path(3, 6).size());
+        assertMatchesSearch(registryMap, -1, 2);
+    }
+
+    @Test
+    void testPathDeltaIncrease() {
+        final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap = new Int2ObjectOpenHashMap<>();
+        // Going from 8 to 10 needs a step to 13, farther away from 10
+        register(registryMap, 8, 13, protocol());
+        register(registryMap, 13, 10, protocol());
+        register(registryMap, 12, 11, protocol());
+        register(registryMap, 11, 10, protocol());
+
+        Assertions.assertNull(ProtocolPathTable.compute(registryMap, 0, 50).path(8, 10));
+        Assertions.assertEquals(2, ProtocolPathTable.compute(registryMap, 1, 50).path(8, 10).size());
+        Assertions.assertEquals(2, ProtocolPathTable.compute(registryMap, 0, 50).path(12, 10).size());
+        assertMatchesSearch(registryMap, 0, 50);
+        assertMatchesSearch(registryMap, 1, 50);
+        assertMatchesSearch(registryMap, -1, 50);
+    }
+
+    @Test
+    void testShortestPathWithCycles() {
+        final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap = new Int2ObjectOpenHashMap<>();
+        final Protocol direct = protocol();
+        register(registryMap, 1, 2, protocol());
+        register(registryMap, 2, 1, protocol());
+        register(registryMap, 2, 3, protocol());
+        register(registryMap, 3, 4, protocol());
+        register(registryMap, 1, 4, direct);
+
+        final ProtocolPathTable table = ProtocolPathTable.compute(registryMap, -1, 50);
+        final List<ProtocolPathEntry> path = table.path(1, 4);
+        Assertions.assertEquals(1, path.size());
+        Assertions.assertSame(direct, path.get(0).protocol());
+        Assertions.assertSame(path, table.path(1, 4));
+        Assertions.assertEquals(2, table.path(2, 4).size());
+        Assertions.assertNull(table.path(4, 1));
+        Assertions.assertNull(table.path(1, 5));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> path.add(path.get(0)));
+        assertMatchesSearch(registryMap, -1, 50);
+    }
+
+    private static void assertMatchesSearch(final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap, final int maxPathDeltaIncrease, final int maxProtocolPathSize) {
+        final IntSet versions = new IntOpenHashSet(registryMap.keySet());
+        for (final Int2ObjectMap<Protocol> protocols : registryMap.values()) {
+            versions.addAll(protocols.keySet());
+        }
+
+        final ProtocolPathTable table = ProtocolPathTable.compute(registryMap, maxPathDeltaIncrease, maxProtocolPathSize);
+        for (final int clientVersion : versions) {
+            for (final int serverVersion : versions) {
+                if (clientVersion == serverVersion) continue;
+
+                final Int2ObjectSortedMap<Protocol> expected = search(registryMap, new Int2ObjectLinkedOpenHashMap<>(), clientVersion, serverVersion, maxPathDeltaIncrease, maxProtocolPathSize);
+                final List<ProtocolPathEntry> path = table.path(clientVersion, serverVersion);
+                final String pair = clientVersion + " -> " + serverVersion;
+                if (expected == null) {
+                    Assertions.assertNull(path, pair);
+                    continue;
+                }
+
+                // Equally short paths may differ, so only check that the path is valid and as short
+                Assertions.assertNotNull(path, pair);
+                Assertions.assertEquals(expected.size(), path.size(), pair);
+                int version = clientVersion;
+                for (final ProtocolPathEntry entry : path) {
+                    Assertions.assertSame(registryMap.get(version).get(entry.outputProtocolVersion()), entry.protocol(), pair);
+                    version = entry.outputProtocolVersion();
+                }
+                Assertions.assertEquals(serverVersion, version, pair);
+            }
+        }
+    }
+
+    /**
+     * The depth-first search previously used by the protocol manager.
+     */
+    private static @Nullable Int2ObjectSortedMap<Protocol> search(final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap, final Int2ObjectSortedMap<Protocol> current,
+                                                                  final int clientVersion, final int serverVersion, final int maxPathDeltaIncrease, final int maxProtocolPathSize) {
+        if (current.size() > maxProtocolPathSize) return null;
+
+        final Int2ObjectMap<Protocol> toServerProtocolMap = registryMap.get(clientVersion);
+        if (toServerProtocolMap == null) {
+            return null;
+        }
+
+        final Protocol protocol = toServerProtocolMap.get(serverVersion);
+        if (protocol != null) {
+            current.put(serverVersion, protocol);
+            return current;
+        }
+
+        Int2ObjectSortedMap<Protocol> shortest = null;
+        for (final Int2ObjectMap.Entry<Protocol> entry : toServerProtocolMap.int2ObjectEntrySet()) {
+            final int translatedToVersion = entry.getIntKey();
+            if (current.containsKey(translatedToVersion)) continue;
+
+            if (maxPathDeltaIncrease != -1 && Math.abs(serverVersion - translatedToVersion) - Math.abs(serverVersion - clientVersion) > maxPathDeltaIncrease) {
+                continue;
+            }
+
+            Int2ObjectSortedMap<Protocol> newCurrent = new Int2ObjectLinkedOpenHashMap<>(current);
+            newCurrent.put(translatedToVersion, entry.getValue());
+            newCurrent = search(registryMap, newCurrent, translatedToVersion, serverVersion, maxPathDeltaIncrease, maxProtocolPathSize);
+            if (newCurrent != null && (shortest == null || newCurrent.size() < shortest.size())) {
+                shortest = newCurrent;
+            }
+        }
+        return shortest;
+    }
+
+    private static void register(final Int2ObjectMap<Int2ObjectMap<Protocol>> registryMap, final int clientVersion, final int serverVersion, final Protocol protocol) {
+        registryMap.computeIfAbsent(clientVersion, version -> new Int2ObjectOpenHashMap<>()).put(serverVersion, protocol);
+    }
+
+    private static Protocol protocol() {
+        return new AbstractSimpleProtocol() {
+        };
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocols.base;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StatusResponseRewriterTest {
+
+    private static final int CLIENT = ProtocolVersion.v1_20_3.getVersion();
+    private static final int SERVER = ProtocolVersion.v1_20.getVersion();
+
+    @Test
+    void testSplice() {
+        assertSpliced("{\"version\":{\"name\":\"1.20.1\",\"protocol\":" + CLIENT + "},\"description\":\"x\"}",
+                "{\"version\":{\"name\":\"1.20.1\",\"protocol\":" + SERVER + "},\"description\":\"x\"}");
+        assertSpliced("{ \"version\" : { \"protocol\" : " + CLIENT + " } }",
+                "{ \"version\" : { \"protocol\" : " + SERVER + " } }");
+        assertSpliced("{\"version\":{\"protocol\":" + CLIENT + "}}", "{\"version\":{\"protocol\":0}}");
+
+        // Left untouched
+        final String status = "{\"version\":{\"protocol\":47}}";
+        Assertions.assertSame(status, StatusResponseRewriter.spliceProtocol(status, CLIENT, SERVER, true, false));
+        final String incompatible = "{\"version\":{\"protocol\":" + SERVER + "}}";
+        Assertions.assertSame(incompatible, StatusResponseRewriter.spliceProtocol(incompatible, CLIENT, SERVER, false, false));
+    }
+
+    @Test
+    void testNestedAndEscapedKeys() {
+        // Values before the version object are skipped, including nested protocol keys
+        assertSpliced("{\"description\":{\"text\":\"\",\"extra\":[{\"version\":{\"protocol\":1}},\"]}\"]},\"version\":{\"protocol\":" + CLIENT + "}}",
+                "{\"description\":{\"text\":\"\",\"extra\":[{\"version\":{\"protocol\":1}},\"]}\"]},\"version\":{\"protocol\":" + SERVER + "}}");
+        assertSpliced("{\"version\":{\"extra\":{\"protocol\":1},\"list\":[1,{\"protocol\":2}],\"protocol\":" + CLIENT + "}}",
+                "{\"version\":{\"extra\":{\"protocol\":1},\"list\":[1,{\"protocol\":2}],\"protocol\":" + SERVER + "}}");
+        assertSpliced("{\"descr\\\"iption\":\"a\\\"}{\\\\\",\"version\":{\"pro\\\"tocol\":5,\"protocol\":" + CLIENT + "}}",
+                "{\"descr\\\"iption\":\"a\\\"}{\\\\\",\"version\":{\"pro\\\"tocol\":5,\"protocol\":" + SERVER + "}}");
+
+        // Escaped variants of the keys can't be matched without decoding them, leave those to Gson
+        assertNotSpliced("{\"\\u0076ersion\":{\"protocol\":" + SERVER + "}}");
+        assertNotSpliced("{\"version\":{\"\\u0070rotocol\":" + SERVER + "}}");
+        assertNotSpliced("{\"versions\":{\"protocol\":" + SERVER + "}}");
+        assertNotSpliced("{\"version\":{\"name\":\"protocol\"}}");
+    }
+
+    @Test
+    void testNegativeNumbers() {
+        Assertions.assertEquals("{\"version\":{\"protocol\":-1}}",
+                StatusResponseRewriter.spliceProtocol("{\"version\":{\"protocol\":" + SERVER + "}}", CLIENT, SERVER, true, true));
+        final String blocked = "{\"version\":{\"protocol\":-1}}";
+        Assertions.assertSame(blocked, StatusResponseRewriter.spliceProtocol(blocked, CLIENT, SERVER, true, true));
+        Assertions.assertEquals("{\"version\":{\"protocol\":-1}}",
+                StatusResponseRewriter.spliceProtocol("{\"version\":{\"protocol\":-25}}", CLIENT, SERVER, true, true));
+        final String negative = "{\"version\":{\"protocol\":-25}}";
+        Assertions.assertSame(negative, StatusResponseRewriter.spliceProtocol(negative, CLIENT, SERVER, true, false));
+
+        assertNotSpliced("{\"version\":{\"protocol\":-}}");
+        assertNotSpliced("{\"version\":{\"protocol\":--1}}");
+    }
+
+    @Test
+    void testNotPlainIntegers() {
+        assertNotSpliced("{\"version\":{\"protocol\":763.0}}");
+        assertNotSpliced("{\"version\":{\"protocol\":7e2}}");
+        assertNotSpliced("{\"version\":{\"protocol\":\"763\"}}");
+        assertNotSpliced("{\"version\":{\"protocol\":null}}");
+        assertNotSpliced("{\"version\":{\"protocol\":1234567890123456789}}");
+    }
+
+    @Test
+    void testMalformed() {
+        assertNotSpliced("");
+        assertNotSpliced("[]");
+        assertNotSpliced("\"version\"");
+        assertNotSpliced("{}");
+        assertNotSpliced("{\"version\":");
+        assertNotSpliced("{\"version\":\"" + SERVER + "\"}");
+        assertNotSpliced("{\"version\":{\"protocol\"");
+        assertNotSpliced("{\"version\":{\"protocol\":" + SERVER);
+        assertNotSpliced("{\"version\":{\"protocol\":" + SERVER + "]");
+        assertNotSpliced("{\"version\" {\"protocol\":" + SERVER + "}}");
+        assertNotSpliced("{\"description\":\"unterminated,\"version\":{\"protocol\":" + SERVER + "}}");
+        assertNotSpliced("{\"description\":{\"text\":\"\"\"version\":{\"protocol\":" + SERVER + "}}");
+        assertNotSpliced("{\"description\":\"a\" \"version\":{\"protocol\":" + SERVER + "}}");
+        assertNotSpliced("{description:\"a\",\"version\":{\"protocol\":" + SERVER + "}}");
+    }
+
+    private static void assertSpliced(final String expected, final String status) {
+        final String spliced = StatusResponseRewriter.spliceProtocol(status, CLIENT, SERVER, true, false);
+        Assertions.assertEquals(expected, spliced, status);
+
+        final JsonObject version = JsonParser.parseString(spliced).getAsJsonObject().getAsJsonObject("version");
+        Assertions.assertEquals(CLIENT, version.get("protocol").getAsInt(), status);
+    }
+
+    private static void assertNotSpliced(final String status) {
+        Assertions.assertNull(StatusResponseRewriter.spliceProtocol(status, CLIENT, SERVER, true, false), status);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocols.protocol1_13to1_12_2.storage;
+
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class BlockConnectionStorageTest {
+
+    @BeforeAll
+    static void init() {
+        DummyInitializer.init();
+    }
+
+    @Test
+    void testSparseSection() {
+        final BlockConnectionStorage storage = new BlockConnectionStorage();
+        // Out of order, so entries are inserted in between
+        for (int i = 100; i >= 0; i -= 10) {
+            store(storage, i, i + 1);
+        }
+        store(storage, 50, 7);
+        store(storage, 60, 0);
+        storage.remove(0, 0, 0);
+
+        for (int i = 0; i < 4096; i++) {
+            final int expected = i == 50 ? 7 : i % 10 == 0 && i <= 100 && i != 60 && i != 0 ? i + 1 : 0;
+            Assertions.assertEquals(expected, get(storage, i), "block " + i);
+        }
+    }
+
+    @Test
+    void testSparseToPaletted() {
+        final BlockConnectionStorage storage = new BlockConnectionStorage();
+        for (int i = 0; i < 256; i++) {
+            store(storage, i * 3, i % 50 + 1);
+        }
+        // Past the sparse limit
+        for (int i = 256; i < 1000; i++) {
+            store(storage, i * 3, i % 50 + 1);
+        }
+        assertBlocks(storage, 1000, 3, 50);
+
+        // Removing blocks keeps the others
+        for (int i = 0; i < 1000; i += 2) {
+            storage.remove(x(i * 3), y(i * 3), z(i * 3));
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(i % 2 == 0 ? 0 : i % 50 + 1, get(storage, i * 3), "block " + i * 3);
+        }
+
+        // Empty again, and not kept once all blocks are gone
+        for (int i = 1; i < 1000; i += 2) {
+            storage.remove(x(i * 3), y(i * 3), z(i * 3));
+        }
+        assertBlocks(storage, 0, 1, 1);
+        store(storage, 5, 0);
+        Assertions.assertEquals(0, get(storage, 5));
+        store(storage, 5, 2);
+        Assertions.assertEquals(2, get(storage, 5));
+    }
+
+    @Test
+    void testPalettedToFull() {
+        final BlockConnectionStorage storage = new BlockConnectionStorage();
+        // More distinct states than a byte palette holds
+        for (int i = 0; i < 4096; i++) {
+            store(storage, i, i % 300 + 1);
+        }
+        assertBlocks(storage, 4096, 1, 300);
+
+        store(storage, 10, 12345);
+        Assertions.assertEquals(12345, get(storage, 10));
+        for (int i = 0; i < 4096; i++) {
+            storage.remove(x(i), y(i), z(i));
+        }
+        for (int i = 0; i < 4096; i++) {
+            Assertions.assertEquals(0, get(storage, i), "block " + i);
+        }
+    }
+
+    @Test
+    void testSections() {
+        final BlockConnectionStorage storage = new BlockConnectionStorage();
+        storage.store(-1, 5, -1, 1);
+        storage.store(15, 5, 15, 2);
+        storage.store(16, 5, 16, 3);
+        storage.store(0, 255, 0, 4);
+
+        Assertions.assertEquals(1, storage.get(-1, 5, -1));
+        Assertions.assertEquals(2, storage.get(15, 5, 15));
+        Assertions.assertEquals(3, storage.get(16, 5, 16));
+        Assertions.assertEquals(4, storage.get(0, 255, 0));
+        Assertions.assertEquals(0, storage.get(-1, 5, 15));
+
+        storage.unloadChunk(0, 0);
+        Assertions.assertEquals(1, storage.get(-1, 5, -1));
+        Assertions.assertEquals(0, storage.get(15, 5, 15));
+        Assertions.assertEquals(3, storage.get(16, 5, 16));
+        Assertions.assertEquals(0, storage.get(0, 255, 0));
+
+        storage.clear();
+        Assertions.assertEquals(0, storage.get(-1, 5, -1));
+        Assertions.assertEquals(0, storage.get(16, 5, 16));
+    }
+
+    private static void assertBlocks(final BlockConnectionStorage storage, final int blocks, final int step, final int states) {
+        for (int i = 0; i < 4096; i++) {
+            final boolean stored = i % step == 0 && i / step < blocks;
+            Assertions.assertEquals(stored ? (i / step) % states + 1 : 0, get(storage, i), "block " + i);
+        }
+    }
+
+    private static void store(final BlockConnectionStorage storage, final int index, final int blockState) {
+        storage.store(x(index), y(index), z(index), blockState);
+    }
+
+    private static int get(final BlockConnectionStorage storage, final int index) {
+        return storage.get(x(index), y(index), z(index));
+    }
+
+    private static int x(final int index) {
+        return (index >> 4) & 0xF;
+    }
+
+    private static int y(final int index) {
+        return index >> 8;
+    }
+
+    private static int z(final int index) {
+        return index & 0xF;
+    }
+}
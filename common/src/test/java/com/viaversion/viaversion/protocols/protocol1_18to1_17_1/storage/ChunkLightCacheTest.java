@@ -0,0 +1,122 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocols.protocol1_18to1_17_1.storage;
+
+import com.viaversion.viaversion.protocols.protocol1_18to1_17_1.storage.ChunkLightStorage.ChunkLight;
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChunkLightCacheTest {
+
+    private static final long LIGHT_SIZE = light(0).memorySize();
+
+    @Test
+    void testAcquireShared() {
+        final ChunkLightCache cache = new ChunkLightCache();
+        final ChunkLight light = light(1);
+
+        Assertions.assertSame(light, cache.acquire(light, LIGHT_SIZE * 4, 0));
+        Assertions.assertSame(light, cache.acquire(light(1), LIGHT_SIZE * 4, 0));
+        Assertions.assertNotSame(light, cache.acquire(light(2), LIGHT_SIZE * 4, 0));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(LIGHT_SIZE * 2, cache.usedBytes());
+    }
+
+    @Test
+    void testReferencedNotEvicted() {
+        final ChunkLightCache cache = new ChunkLightCache();
+        final ChunkLight light = cache.acquire(light(1), LIGHT_SIZE * 2, 0);
+        cache.acquire(light(1), LIGHT_SIZE * 2, 0);
+        cache.acquire(light(2), LIGHT_SIZE * 2, 0);
+
+        // Still referenced once, so the new light can't be pooled
+        cache.release(light, 0);
+        final ChunkLight unpooled = light(3);
+        Assertions.assertSame(unpooled, cache.acquire(unpooled, LIGHT_SIZE * 2, 0));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNotSame(unpooled, cache.acquire(light(3), LIGHT_SIZE * 2, 0));
+
+        // Releasing the unpooled light doesn't touch the pooled entries
+        cache.release(unpooled, 0);
+        Assertions.assertEquals(2, cache.size());
+
+        // Now unreferenced, the light is evicted for the new one
+        cache.release(light, 0);
+        final ChunkLight pooled = light(3);
+        Assertions.assertSame(pooled, cache.acquire(pooled, LIGHT_SIZE * 2, 0));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(LIGHT_SIZE * 2, cache.usedBytes());
+        Assertions.assertSame(pooled, cache.acquire(light(3), LIGHT_SIZE * 2, 0));
+    }
+
+    @Test
+    void testEvictLeastRecentlyReleased() {
+        final ChunkLightCache cache = new ChunkLightCache();
+        final ChunkLight first = cache.acquire(light(1), LIGHT_SIZE * 3, 0);
+        final ChunkLight second = cache.acquire(light(2), LIGHT_SIZE * 3, 0);
+        cache.acquire(light(3), LIGHT_SIZE * 3, 0);
+        cache.release(second, 0);
+        cache.release(first, 0);
+
+        cache.acquire(light(4), LIGHT_SIZE * 3, 0);
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertEquals(LIGHT_SIZE * 3, cache.usedBytes());
+
+        // The first light is reused, the second one was evicted
+        Assertions.assertSame(first, cache.acquire(light(1), LIGHT_SIZE * 3, 0));
+        Assertions.assertNotSame(second, cache.acquire(light(2), LIGHT_SIZE * 3, 0));
+    }
+
+    @Test
+    void testReacquireUnused() {
+        final ChunkLightCache cache = new ChunkLightCache();
+        final ChunkLight light = cache.acquire(light(1), LIGHT_SIZE, 0);
+        cache.release(light, 0);
+
+        // Referenced again, so no longer evictable
+        Assertions.assertSame(light, cache.acquire(light(1), LIGHT_SIZE, 0));
+        final ChunkLight other = light(2);
+        Assertions.assertSame(other, cache.acquire(other, LIGHT_SIZE, 0));
+        Assertions.assertSame(light, cache.acquire(light(1), LIGHT_SIZE, 0));
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testUnusedExpired() {
+        final ChunkLightCache cache = new ChunkLightCache();
+        final ChunkLight first = cache.acquire(light(1), LIGHT_SIZE * 4, 0);
+        final ChunkLight second = cache.acquire(light(2), LIGHT_SIZE * 4, 0);
+        cache.acquire(light(3), LIGHT_SIZE * 4, 0);
+        cache.release(first, 0);
+        cache.release(second, 1000);
+
+        // Only the entry unused for long enough is dropped, even though the budget isn't exceeded
+        cache.acquire(light(3), LIGHT_SIZE * 4, ChunkLightCache.UNUSED_EXPIRY_MILLIS);
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(LIGHT_SIZE * 2, cache.usedBytes());
+        Assertions.assertSame(second, cache.acquire(light(2), LIGHT_SIZE * 4, ChunkLightCache.UNUSED_EXPIRY_MILLIS));
+        Assertions.assertNotSame(first, cache.acquire(light(1), LIGHT_SIZE * 4, ChunkLightCache.UNUSED_EXPIRY_MILLIS));
+    }
+
+    private static ChunkLight light(final int seed) {
+        final byte[] skyLight = new byte[2048];
+        Arrays.fill(skyLight, (byte) seed);
+        return new ChunkLight(false, new long[]{seed}, new long[0], new long[0], new long[0], new byte[][]{skyLight}, new byte[0][]);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.protocols.protocol1_20_3to1_20_2;
+
+import com.github.steveice10.opennbt.tag.builtin.Tag;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.type.Type;
+import com.viaversion.viaversion.common.dummy.DummyInitializer;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import com.viaversion.viaversion.protocol.packet.PacketWrapperImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ComponentConversionTest {
+
+    private static final String[] COMPONENTS = {
+            "\"plain\"",
+            "{\"text\":\"plain\"}",
+            "{\"text\":\"styled\",\"color\":\"red\",\"extra\":[{\"translate\":\"chat.type.text\",\"with\":[\"a\",\"b\"]}]}"
+    };
+    private static Protocol1_20_3To1_20_2 protocol;
+
+    @BeforeAll
+    static void init() {
+        DummyInitializer.init();
+        protocol = Via.getManager().getProtocolManager().getProtocol(Protocol1_20_3To1_20_2.class);
+    }
+
+    @Test
+    void testSerializedAndDecodedComponents() throws Exception {
+        for (final String json : COMPONENTS) {
+            final PacketWrapper serialized = serialized(json, false);
+            protocol.convertComponent(serialized);
+
+            final PacketWrapper decoded = decoded(JsonParser.parseString(json), false);
+            protocol.convertComponent(decoded);
+
+            final Tag tag = serialized.get(Type.TAG, 0);
+            Assertions.assertNotNull(tag, json);
+            Assertions.assertEquals(tag, decoded.get(Type.TAG, 0), json);
+        }
+    }
+
+    @Test
+    void testSerializedAndDecodedOptionalComponents() throws Exception {
+        for (final String json : COMPONENTS) {
+            final PacketWrapper serialized = serialized(json, true);
+            protocol.convertOptionalComponent(serialized);
+
+            final PacketWrapper decoded = decoded(JsonParser.parseString(json), true);
+            protocol.convertOptionalComponent(decoded);
+
+            final Tag tag = serialized.get(Type.OPTIONAL_TAG, 0);
+            Assertions.assertNotNull(tag, json);
+            Assertions.assertEquals(tag, decoded.get(Type.OPTIONAL_TAG, 0), json);
+        }
+
+        final PacketWrapper serialized = serialized(null, true);
+        protocol.convertOptionalComponent(serialized);
+        Assertions.assertNull(serialized.get(Type.OPTIONAL_TAG, 0));
+
+        final PacketWrapper decoded = decoded(null, true);
+        protocol.convertOptionalComponent(decoded);
+        Assertions.assertNull(decoded.get(Type.OPTIONAL_TAG, 0));
+    }
+
+    private static PacketWrapper serialized(final String json, final boolean optional) throws Exception {
+        final ByteBuf buf = Unpooled.buffer();
+        if (optional) {
+            Type.BOOLEAN.write(buf, json != null);
+        }
+        if (json != null) {
+            Type.STRING.write(buf, json);
+        }
+        return new PacketWrapperImpl(0, buf, new UserConnectionImpl(null, false));
+    }
+
+    private static PacketWrapper decoded(final JsonElement element, final boolean optional) {
+        // Already read by an earlier protocol in the pipeline
+        final PacketWrapper wrapper = new PacketWrapperImpl(0, null, new UserConnectionImpl(null, false));
+        if (optional) {
+            wrapper.write(Type.OPTIONAL_COMPONENT, element);
+        } else {
+            wrapper.write(Type.COMPONENT, element);
+        }
+        wrapper.resetReader();
+        return wrapper;
+    }
+}
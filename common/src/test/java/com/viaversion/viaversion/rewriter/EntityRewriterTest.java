@@ -0,0 +1,179 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.rewriter;
+
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.minecraft.entities.EntityType;
+import com.viaversion.viaversion.api.minecraft.entities.EntityTypes1_19_4;
+import com.viaversion.viaversion.api.minecraft.metadata.Metadata;
+import com.viaversion.viaversion.api.minecraft.metadata.types.MetaType1_12;
+import com.viaversion.viaversion.api.protocol.AbstractSimpleProtocol;
+import com.viaversion.viaversion.api.protocol.SimpleProtocol;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import com.viaversion.viaversion.data.entity.EntityTrackerBase;
+import com.viaversion.viaversion.rewriter.meta.MetaFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EntityRewriterTest {
+
+    private static final int ZOMBIE_ID = 1;
+    private static final int UNTRACKED_ID = 2;
+    private final List<String> handled = new ArrayList<>();
+    private UserConnection connection;
+    private TestEntityRewriter rewriter;
+
+    @BeforeEach
+    void setUp() {
+        final AbstractSimpleProtocol protocol = new AbstractSimpleProtocol() {
+        };
+        rewriter = new TestEntityRewriter(protocol);
+        connection = new UserConnectionImpl(null, false);
+        final EntityTrackerBase tracker = new EntityTrackerBase(connection, null);
+        tracker.addEntity(ZOMBIE_ID, EntityTypes1_19_4.ZOMBIE);
+        connection.addEntityTracker(protocol.getClass(), tracker);
+        handled.clear();
+    }
+
+    @Test
+    void testIndexChangeContinuesWithLaterFilters() {
+        log("before", 7);
+        rewriter.filter().index(5).handler((event, meta) -> {
+            handled.add("move");
+            meta.setId(7);
+        });
+        log("old index", 5);
+        log("new index", 7);
+        rewriter.filter().index(7).metaType(MetaType1_12.Float).handler((event, meta) -> handled.add("other type"));
+        log("any", -1);
+
+        final List<Metadata> metadataList = metadata(5);
+        rewriter.handleMetadata(ZOMBIE_ID, metadataList, connection);
+        Assertions.assertEquals(Arrays.asList("move", "new index", "any"), handled);
+        Assertions.assertEquals(7, metadataList.get(0).id());
+    }
+
+    @Test
+    void testIndexChangeToLowerIndex() {
+        log("before", 2);
+        rewriter.filter().index(6).handler((event, meta) -> meta.setId(2));
+        log("after", 2);
+        log("old index", 6);
+
+        rewriter.handleMetadata(ZOMBIE_ID, metadata(6), connection);
+        Assertions.assertEquals(Arrays.asList("after"), handled);
+    }
+
+    @Test
+    void testIndexChangeFromHighIndex() {
+        // Indexes above all filtered indexes only get filters without an index
+        log("low", 3);
+        rewriter.filter().handler((event, meta) -> {
+            if (meta.id() == 100) {
+                handled.add("move");
+                meta.setId(3);
+            }
+        });
+        log("low after", 3);
+
+        rewriter.handleMetadata(ZOMBIE_ID, metadata(100), connection);
+        Assertions.assertEquals(Arrays.asList("move", "low after"), handled);
+
+        handled.clear();
+        rewriter.handleMetadata(ZOMBIE_ID, metadata(200), connection);
+        Assertions.assertEquals(0, handled.size());
+    }
+
+    @Test
+    void testTypeFilters() {
+        rewriter.filter().type(EntityTypes1_19_4.ABSTRACT_MONSTER).index(2).handler((event, meta) -> handled.add("monster"));
+        rewriter.filter().exactType(EntityTypes1_19_4.CREEPER).index(2).handler((event, meta) -> handled.add("creeper"));
+        rewriter.filter().type(EntityTypes1_19_4.ZOMBIE).handler((event, meta) -> {
+            handled.add("zombie");
+            meta.setId(4);
+        });
+        rewriter.filter().exactType(EntityTypes1_19_4.ZOMBIE).index(4).handler((event, meta) -> handled.add("zombie moved"));
+        log("untyped", 4);
+
+        rewriter.handleMetadata(ZOMBIE_ID, metadata(2), connection);
+        Assertions.assertEquals(Arrays.asList("monster", "zombie", "zombie moved", "untyped"), handled);
+
+        // Unknown entities only get untyped filters
+        handled.clear();
+        rewriter.handleMetadata(UNTRACKED_ID, metadata(2, 4), connection);
+        Assertions.assertEquals(Arrays.asList("untyped"), handled);
+    }
+
+    @Test
+    void testCancelledAfterIndexChange() {
+        rewriter.filter().index(1).handler((event, meta) -> meta.setId(3));
+        rewriter.filter().index(3).handler((event, meta) -> event.cancel());
+        log("cancelled", 3);
+        log("kept", 4);
+
+        final List<Metadata> metadataList = metadata(1, 4);
+        rewriter.handleMetadata(ZOMBIE_ID, metadataList, connection);
+        Assertions.assertEquals(Arrays.asList("kept"), handled);
+        Assertions.assertEquals(1, metadataList.size());
+        Assertions.assertEquals(4, metadataList.get(0).id());
+    }
+
+    @Test
+    void testFiltersRegisteredLater() {
+        log("first", 1);
+        rewriter.handleMetadata(ZOMBIE_ID, metadata(1, 8), connection);
+        Assertions.assertEquals(Arrays.asList("first"), handled);
+
+        handled.clear();
+        log("second", 8);
+        rewriter.handleMetadata(ZOMBIE_ID, metadata(1, 8), connection);
+        Assertions.assertEquals(Arrays.asList("first", "second"), handled);
+    }
+
+    private void log(final String name, final int index) {
+        final MetaFilter.Builder builder = rewriter.filter();
+        if (index != -1) {
+            builder.index(index);
+        }
+        builder.handler((event, meta) -> handled.add(name));
+    }
+
+    private static List<Metadata> metadata(final int... indexes) {
+        final List<Metadata> metadataList = new ArrayList<>();
+        for (final int index : indexes) {
+            metadataList.add(new Metadata(index, MetaType1_12.VarInt, 1));
+        }
+        return metadataList;
+    }
+
+    private static final class TestEntityRewriter extends EntityRewriter<SimpleProtocol.DummyPacketTypes, AbstractSimpleProtocol> {
+
+        private TestEntityRewriter(final AbstractSimpleProtocol protocol) {
+            super(protocol);
+        }
+
+        @Override
+        public EntityType typeFromId(final int type) {
+            return EntityTypes1_19_4.getTypeFromId(type);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.util;
+
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.StringTag;
+import com.github.steveice10.opennbt.tag.builtin.Tag;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ComponentUtilTest {
+
+    @Test
+    void testPlainText() {
+        assertPlainText("hello", "\"hello\"");
+        assertPlainText("hello", " \t\"hello\"\r\n");
+        assertPlainText("", "\"\"");
+        assertPlainText("hi", "{\"text\":\"hi\"}");
+        assertPlainText("hi", "{ \"text\" :\n\"hi\" }");
+        assertPlainText("{\"text\":1}", "\"{\\\"text\\\":1}\"");
+    }
+
+    @Test
+    void testEscapes() {
+        assertPlainText("a\"b\\c/d", "\"a\\\"b\\\\c\\/d\"");
+        assertPlainText("\b\f\n\r\t", "\"\\b\\f\\n\\r\\t\"");
+        assertPlainText("\u00e9\u20ac", "\"\\u00e9\\u20AC\"");
+        assertPlainText("\uD83D\uDE00", "{\"text\":\"\\uD83D\\uDE00\"}");
+        assertPlainText("\u0000", "\"\\u0000\"");
+        assertPlainText("\u00e9", "\"\u00e9\"");
+    }
+
+    @Test
+    void testStyledComponents() {
+        assertDirectTag("{\"text\":\"a\",\"bold\":true}");
+        assertDirectTag("{\"bold\":false,\"text\":\"a\",\"italic\":true,\"underlined\":false,\"strikethrough\":true,\"obfuscated\":false}");
+        assertDirectTag("{\"text\":\"a\",\"color\":\"dark_purple\"}");
+        assertDirectTag("{\"text\":\"a\",\"insertion\":\"b\",\"font\":\"minecraft:uniform\"}");
+        assertDirectTag("{ \"color\" : \"gold\" ,\n\"text\" : \"\" }");
+    }
+
+    @Test
+    void testTranslatedComponents() {
+        assertDirectTag("{\"translate\":\"a\"}");
+        assertDirectTag("{\"translate\":\"a\",\"fallback\":\"b\"}");
+        assertDirectTag("{\"translate\":\"chat.type.text\",\"with\":[\"Steve\",{\"text\":\"hi\"}]}");
+        assertDirectTag("{\"translate\":\"chat.type.text\",\"with\":[{\"text\":\"Steve\",\"color\":\"yellow\"},{\"text\":\"hi\",\"italic\":true}]}");
+        assertDirectTag("{\"translate\":\"a\",\"color\":\"red\",\"extra\":[\"b\"]}");
+    }
+
+    @Test
+    void testExtraComponents() {
+        assertDirectTag("{\"text\":\"Hello \",\"extra\":[{\"text\":\"world\",\"color\":\"gold\",\"bold\":true}]}");
+        assertDirectTag("{\"text\":\"\",\"extra\":[\"a\", \"b\"]}");
+        assertDirectTag("{\"text\":\"\",\"extra\":[{\"text\":\"a\"},\"b\"]}");
+        assertDirectTag("{\"extra\":[{\"text\":\"a\",\"extra\":[{\"translate\":\"b\",\"bold\":true}]}],\"text\":\"\",\"color\":\"aqua\"}");
+    }
+
+    @Test
+    void testTreeFallback() {
+        // Left to the component trees, but still converted the same way
+        assertTreeFallback("{\"text\":\"a\",\"hoverEvent\":{\"action\":\"show_text\",\"contents\":\"b\"}}");
+        assertTreeFallback("{\"text\":\"a\",\"clickEvent\":{\"action\":\"run_command\",\"value\":\"/b\"}}");
+        assertTreeFallback("{\"text\":\"a\",\"color\":\"#FFAA00\"}");
+        assertTreeFallback("{\"text\":\"a\",\"font\":\"uniform\"}");
+        assertTreeFallback("{\"text\":\"\",\"extra\":[\"a\",{\"text\":\"b\",\"bold\":true}]}");
+        assertTreeFallback("{\"translate\":\"a\",\"with\":[\"b\",{\"text\":\"c\",\"bold\":true}]}");
+        assertTreeFallback("{\"keybind\":\"key.jump\"}");
+        assertTreeFallback("[\"a\",\"b\"]");
+    }
+
+    @Test
+    void testRejected() {
+        // Not handled in a single pass
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":1}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"translate\":\"a\",\"with\":[1]}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"extra\":[[\"b\"]]}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"bold\":\"true\"}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"translate\":\"b\"}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"text\":\"b\"}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"with\":[\"b\"]}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"extra\":[]}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"color\":\"GOLD\"}"));
+        Assertions.assertNull(ComponentUtil.directTag("{}"));
+        Assertions.assertNull(ComponentUtil.directTag("1"));
+
+        // Malformed or not strict json
+        Assertions.assertNull(ComponentUtil.directTag(""));
+        Assertions.assertNull(ComponentUtil.directTag("  "));
+        Assertions.assertNull(ComponentUtil.directTag("hello"));
+        Assertions.assertNull(ComponentUtil.directTag("\""));
+        Assertions.assertNull(ComponentUtil.directTag("\"abc"));
+        Assertions.assertNull(ComponentUtil.directTag("\"abc\\"));
+        Assertions.assertNull(ComponentUtil.directTag("\"abc\\\""));
+        Assertions.assertNull(ComponentUtil.directTag("\"a\\x\""));
+        Assertions.assertNull(ComponentUtil.directTag("\"a\\'\""));
+        Assertions.assertNull(ComponentUtil.directTag("\"\\u12\""));
+        Assertions.assertNull(ComponentUtil.directTag("\"\\u12G4\""));
+        Assertions.assertNull(ComponentUtil.directTag("\"\\u12"));
+        Assertions.assertNull(ComponentUtil.directTag("\"a\nb\""));
+        Assertions.assertNull(ComponentUtil.directTag("\"a\" \"b\""));
+        Assertions.assertNull(ComponentUtil.directTag("\"a\"x"));
+        Assertions.assertNull(ComponentUtil.directTag("'a'"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\""));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\"}}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\" \"a\"}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":"));
+        Assertions.assertNull(ComponentUtil.directTag("{text:\"a\"}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":'a'}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"bold\":tru}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"extra\":[\"b\",]}"));
+        Assertions.assertNull(ComponentUtil.directTag("{\"text\":\"a\",\"extra\":[\"b\"}"));
+    }
+
+    @Test
+    void testCachedTagCopied() {
+        final String json = "{\"text\":\"cached\",\"hoverEvent\":{\"action\":\"show_text\",\"contents\":\"hover\"}}";
+        final Tag first = ComponentUtil.jsonStringToTag(json);
+        Assertions.assertNotNull(ComponentUtil.cachedTag(json));
+
+        final Tag second = ComponentUtil.jsonStringToTag(json);
+        Assertions.assertEquals(first, second);
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(ComponentUtil.jsonToTag(JsonParser.parseString(json)), second);
+
+        // Modifying a returned tag doesn't change later results
+        ((CompoundTag) first).put("italic", new StringTag("modified"));
+        Assertions.assertEquals(second, ComponentUtil.jsonStringToTag(json));
+    }
+
+    @Test
+    void testLongJsonNotCached() {
+        final StringBuilder builder = new StringBuilder("{\"text\":\"");
+        while (builder.length() <= 8192) {
+            builder.append("long text ");
+        }
+        final String json = builder.append("\",\"hoverEvent\":{\"action\":\"show_text\",\"contents\":\"hover\"}}").toString();
+
+        final Tag tag = ComponentUtil.jsonStringToTag(json);
+        Assertions.assertNull(ComponentUtil.cachedTag(json));
+        Assertions.assertEquals(ComponentUtil.jsonToTag(JsonParser.parseString(json)), tag);
+    }
+
+    private static void assertPlainText(final String expected, final String json) {
+        Assertions.assertEquals(new StringTag(expected), ComponentUtil.directTag(json), json);
+
+        // Same result as the full parser
+        final JsonElement parsed = JsonParser.parseString(json);
+        final JsonElement element = parsed.isJsonObject() ? parsed.getAsJsonObject().get("text") : parsed;
+        Assertions.assertEquals(expected, element.getAsString(), json);
+
+        // Same tag as the component tree conversion
+        Assertions.assertEquals(ComponentUtil.jsonToTag(parsed), ComponentUtil.jsonStringToTag(json), json);
+    }
+
+    private static void assertDirectTag(final String json) {
+        final Tag tag = ComponentUtil.directTag(json);
+        Assertions.assertNotNull(tag, json);
+        Assertions.assertEquals(ComponentUtil.jsonToTag(JsonParser.parseString(json)), tag, json);
+        Assertions.assertEquals(tag, ComponentUtil.jsonStringToTag(json), json);
+    }
+
+    private static void assertTreeFallback(final String json) {
+        Assertions.assertNull(ComponentUtil.directTag(json), json);
+        Assertions.assertEquals(ComponentUtil.jsonToTag(JsonParser.parseString(json)), ComponentUtil.jsonStringToTag(json), json);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of ViaVersion - https://github.com/ViaVersion/ViaVersion
+ * Copyright (C) 2016-2024 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.viaversion.util;
+
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.IntTag;
+import com.github.steveice10.opennbt.tag.builtin.StringTag;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TagInternerTest {
+
+    @Test
+    void testEqualTagsShareInstance() {
+        final CompoundTag first = registry("intern-equal", 1);
+        final CompoundTag second = registry("intern-equal", 1);
+        Assertions.assertSame(first, TagInterner.intern(first));
+        Assertions.assertSame(first, TagInterner.intern(second));
+    }
+
+    @Test
+    void testDifferentTagsAreKept() {
+        final CompoundTag first = TagInterner.intern(registry("intern-different", 1));
+        final CompoundTag second = TagInterner.intern(registry("intern-different", 2));
+        Assertions.assertNotSame(first, second);
+        Assertions.assertNotEquals(first, second);
+    }
+
+    @Test
+    void testInternCopy() {
+        final CompoundTag tag = registry("intern-copy", 1);
+        final CompoundTag pooled = TagInterner.internCopy(tag);
+        Assertions.assertNotSame(tag, pooled);
+        Assertions.assertEquals(tag, pooled);
+        Assertions.assertSame(pooled, TagInterner.internCopy(registry("intern-copy", 1)));
+
+        // The caller keeps ownership of the given tag
+        tag.put("value", new IntTag(3));
+        Assertions.assertEquals(1, pooled.<IntTag>get("value").asInt());
+        Assertions.assertSame(pooled, TagInterner.intern(registry("intern-copy", 1)));
+    }
+
+    private static CompoundTag registry(final String name, final int value) {
+        final CompoundTag tag = new CompoundTag();
+        tag.put("name", new StringTag(name));
+        tag.put("value", new IntTag(value));
+        return tag;
+    }
+}
@@ -20,6 +20,7 @@ pluginManagement {
         id("net.kyori.blossom") version "2.1.0"
         id("org.jetbrains.gradle.plugin.idea-ext") version "1.1.7"
         id("com.github.johnrengelman.shadow") version "8.1.1"
+        id("me.champeau.jmh") version "0.7.2"
     }
 }
 
@@ -39,6 +40,7 @@ setupViaSubproject("velocity")
 setupViaSubproject("sponge")
 setupViaSubproject("fabric")
 setupViaSubproject("template")
+setupViaSubproject("benchmark")
 
 setupSubproject("viaversion") {
     projectDir = file("universal")
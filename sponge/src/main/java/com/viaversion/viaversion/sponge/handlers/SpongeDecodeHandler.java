@@ -47,8 +47,12 @@ public class SpongeDecodeHandler extends ByteToMessageDecoder {
         ByteBuf transformedBuf = null;
         try {
             if (info.shouldTransformPacket()) {
-                transformedBuf = ctx.alloc().buffer().writeBytes(bytebuf);
-                info.transformServerbound(transformedBuf, CancelDecoderException::generate);
+                transformedBuf = info.transformServerboundToBuffer(bytebuf);
+                if (transformedBuf == null) {
+                    // Cancelled packets are simply not passed on, drop whatever the handlers left unread
+                    bytebuf.skipBytes(bytebuf.readableBytes());
+                    return;
+                }
             }
 
             try {
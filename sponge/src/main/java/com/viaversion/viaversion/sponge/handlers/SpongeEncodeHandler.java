@@ -52,11 +52,32 @@ public class SpongeEncodeHandler extends MessageToByteEncoder<Object> implements
                 }
             }
         } else {
-            bytebuf.writeBytes((ByteBuf) o);
+            transform((ByteBuf) o, bytebuf);
+            return;
         }
         transform(bytebuf);
     }
 
+    private void transform(final ByteBuf buf, final ByteBuf out) throws Exception {
+        if (!info.checkClientboundPacket()) throw CancelEncoderException.generate(null);
+        if (!info.shouldTransformPacket()) {
+            out.writeBytes(buf);
+            return;
+        }
+
+        // Transform from the message directly instead of copying it into the output first
+        final ByteBuf transformed = info.transformClientboundToBuffer(buf);
+        if (transformed == null) {
+            throw CancelEncoderException.generate(null);
+        }
+
+        try {
+            out.writeBytes(transformed);
+        } finally {
+            transformed.release();
+        }
+    }
+
     @Override
     public void transform(ByteBuf bytebuf) throws Exception {
         if (!info.checkClientboundPacket()) throw CancelEncoderException.generate(null);
@@ -37,18 +37,16 @@ public class VelocityDecodeHandler extends MessageToMessageDecoder<ByteBuf> {
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf bytebuf, List<Object> out) throws Exception {
-        if (!info.checkIncomingPacket()) throw CancelDecoderException.generate(null);
+        if (!info.checkIncomingPacket(bytebuf)) throw CancelDecoderException.generate(null);
         if (!info.shouldTransformPacket()) {
             out.add(bytebuf.retain());
             return;
         }
 
-        ByteBuf transformedBuf = ctx.alloc().buffer().writeBytes(bytebuf);
-        try {
-            info.transformIncoming(transformedBuf, CancelDecoderException::generate);
-            out.add(transformedBuf.retain());
-        } finally {
-            transformedBuf.release();
+        ByteBuf transformedBuf = info.transformIncomingToBuffer(bytebuf);
+        if (transformedBuf != null) {
+            // Cancelled packets are simply not passed on
+            out.add(transformedBuf);
         }
     }
 
@@ -42,9 +42,13 @@ public class VelocityEncodeHandler extends MessageToMessageEncoder<ByteBuf> {
             return;
         }
 
-        ByteBuf transformedBuf = ctx.alloc().buffer().writeBytes(bytebuf);
+        ByteBuf transformedBuf = info.transformOutgoingToBuffer(bytebuf);
+        if (transformedBuf == null) {
+            // Encoders have to produce a message, so this still needs the exception
+            throw CancelEncoderException.generate(null);
+        }
+
         try {
-            info.transformOutgoing(transformedBuf, CancelEncoderException::generate);
             out.add(transformedBuf.retain());
         } finally {
             transformedBuf.release();